@@ -1,7 +1,5 @@
 package Ui;
 
-import java.util.Random;
-
 /**
  * AI Player class that extends Player with AI decision-making capabilities
  * This class handles all AI logic for computer-controlled players
@@ -276,7 +274,7 @@ public class AIPlayer extends Player {
      */
     public static AIStrategy getRandomStrategy() {
         AIStrategy[] strategies = AIStrategy.values();
-        return strategies[new Random().nextInt(strategies.length)];
+        return strategies[GameState.randomStream(GameRandom.Stream.AI).nextInt(strategies.length)];
     }
     
     /**
@@ -387,7 +385,7 @@ public class AIPlayer extends Player {
         java.util.List<Tile> ownedTiles = new java.util.ArrayList<>();
         
         for (Tile tile : BoardRegistry.tiles().values()) {
-            if (tile.getOwner() != null && tile.getOwner().getName().equals(player.getName())) {
+            if (tile.isOwnedBy(player)) {
                 ownedTiles.add(tile);
             }
         }
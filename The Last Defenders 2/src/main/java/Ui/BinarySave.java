@@ -0,0 +1,410 @@
+package Ui;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The save file format: the same game as the JSON save, in a fraction of the bytes and
+ * parsed without building strings for field names. Enums are ordinals, numbers are
+ * varints (zigzag where they may go negative), every string is written once in a table
+ * and referred to by index, and history timestamps are epoch microseconds, each stored
+ * as the step from the entry before it.
+ *
+ * <pre>
+ * magic "TLDS" | format varint | header length varint | header | string table | players | tiles
+ * header:  savedAt millis, checkpoint fixed64, state version, currentIndex, lastRoll, turn,
+ *          player count, then length + UTF-8 bytes of each player's name
+ * table:   count, then length + UTF-8 bytes each
+ * player:  id, name, color, health, maxHealth, money, attack, influence, medicine, pos,
+ *          flags, labPassesRemaining, entry count, entries
+ * entry:   (type ordinal + 1) &lt;&lt; 2 | time mode, description, amount, time
+ * tile:    position, type ordinal, name, ownerId, flags, upgradeLevel
+ * </pre>
+ * String references are index + 1, with 0 for null. Newer formats may add fields to the
+ * end of the header, which older readers skip; a format newer than {@link #FORMAT} is
+ * refused. Files past {@link #MAP_THRESHOLD_BYTES} are read through a
+ * {@link java.nio.MappedByteBuffer}, smaller ones into one heap buffer. The header is
+ * complete in itself, so {@link #readHeader} can describe a save without reading the rest.
+ */
+public final class BinarySave {
+    public static final int MAGIC = 0x544C4453; // "TLDS"
+    public static final int FORMAT = 1;
+    public static final long MAP_THRESHOLD_BYTES = 64 * 1024;
+
+    // History timestamp encodings, in the low two bits of an entry's first varint
+    private static final int TIME_NONE = 0;
+    private static final int TIME_MICROS_STEP = 1;
+    private static final int TIME_FULL = 2;
+
+    private static final int PLAYER_IN_QUARANTINE = 1;
+    private static final int PLAYER_LAB_CURE_FUNDED = 2;
+    private static final int PLAYER_LAB_CURE_COMPLETE = 4;
+    private static final int PLAYER_AI = 8;
+    private static final int TILE_OWNED = 1;
+    private static final int TILE_CAN_SET_PRICES = 2;
+
+    private static final PlayerHistory.HistoryEntry.Type[] ENTRY_TYPES = PlayerHistory.HistoryEntry.Type.values();
+    private static final TileType[] TILE_TYPES = TileType.values();
+
+    private BinarySave() { }
+
+    /** What a save says about itself up front. */
+    public static class Header {
+        public long savedAtMillis;
+        public long checkpoint;
+        public long version;
+        public int currentIndex;
+        public int lastRoll;
+        public int turn;
+        public List<String> playerNames = new ArrayList<>();
+    }
+
+    /** A save read back; the caller puts it into a game. */
+    public static class Contents extends Header {
+        public List<Player> players;
+        public Map<Integer, Tile> tiles;
+    }
+
+    /** Encode {@code state} as a save; the buffer is ready to write and shares nothing with the game. */
+    public static ByteBuffer encode(GameState state, long checkpoint, long version) {
+        Map<String, Integer> strings = new LinkedHashMap<>();
+        Out body = new Out(1024);
+        List<Player> players = state.players();
+        body.varint(players.size());
+        for (Player p : players) {
+            body.varint(p.getId());
+            body.varint(ref(strings, p.getName()));
+            body.varint(ref(strings, p.getColor()));
+            body.zigzag(p.getHealth());
+            body.zigzag(p.getMaxHealth());
+            body.zigzag(p.getMoney());
+            body.zigzag(p.getAttack());
+            body.zigzag(p.getInfluence());
+            body.zigzag(p.getMedicine());
+            body.zigzag(p.getPos());
+            body.varint((p.isInQuarantine() ? PLAYER_IN_QUARANTINE : 0)
+                    | (p.isLabCureFunded() ? PLAYER_LAB_CURE_FUNDED : 0)
+                    | (p.isLabCureComplete() ? PLAYER_LAB_CURE_COMPLETE : 0)
+                    | (p.isAI() ? PLAYER_AI : 0));
+            body.zigzag(p.getLabPassesRemaining());
+            List<PlayerHistory.HistoryEntry> entries = p.getHistory().entries();
+            body.varint(entries.size());
+            long previousMicros = 0;
+            for (PlayerHistory.HistoryEntry e : entries) {
+                int type = e.getType() == null ? 0 : e.getType().ordinal() + 1;
+                LocalDateTime t = e.getTimestamp();
+                int mode = t == null ? TIME_NONE
+                        : t.getNano() % 1000 == 0 && t.getYear() > 0 && t.getYear() <= 9999 ? TIME_MICROS_STEP
+                        : TIME_FULL;
+                body.varint(type << 2 | mode);
+                body.varint(ref(strings, e.getDescription()));
+                body.zigzag(e.getAmount());
+                if (mode == TIME_MICROS_STEP) {
+                    long micros = t.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + t.getNano() / 1000;
+                    body.zigzag(micros - previousMicros);
+                    previousMicros = micros;
+                } else if (mode == TIME_FULL) {
+                    body.zigzag(t.toEpochSecond(ZoneOffset.UTC));
+                    body.varint(t.getNano());
+                }
+            }
+        }
+        Map<Integer, Tile> tiles = BoardRegistry.tiles();
+        body.varint(tiles.size());
+        for (Tile t : tiles.values()) {
+            body.zigzag(t.getPosition());
+            body.varint(t.getType().ordinal());
+            body.varint(ref(strings, t.getName()));
+            body.varint(t.getOwnerId());
+            body.varint((t.isOwned() ? TILE_OWNED : 0) | (t.canSetPrices() ? TILE_CAN_SET_PRICES : 0));
+            body.zigzag(t.getUpgradeLevel());
+        }
+
+        Out header = new Out(32);
+        header.fixed64(System.currentTimeMillis());
+        header.fixed64(checkpoint);
+        header.varint(version);
+        header.zigzag(state.getCurrentIndex());
+        header.zigzag(state.getLastRoll());
+        header.zigzag(state.getTurn());
+        header.varint(players.size());
+        for (Player p : players) {
+            byte[] utf8 = (p.getName() != null ? p.getName() : "").getBytes(StandardCharsets.UTF_8);
+            header.varint(utf8.length);
+            header.bytes(utf8, 0, utf8.length);
+        }
+
+        Out out = new Out(body.size + header.size + 64 + strings.size() * 16);
+        out.fixed32(MAGIC);
+        out.varint(FORMAT);
+        out.varint(header.size);
+        out.bytes(header.buf, 0, header.size);
+        out.varint(strings.size());
+        for (String s : strings.keySet()) {
+            byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+            out.varint(utf8.length);
+            out.bytes(utf8, 0, utf8.length);
+        }
+        out.bytes(body.buf, 0, body.size);
+        return ByteBuffer.wrap(out.buf, 0, out.size);
+    }
+
+    /** Whether {@code file} starts like a binary save (and not, say, a JSON one). */
+    public static boolean isBinary(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(4);
+            while (magic.hasRemaining() && ch.read(magic) >= 0) { }
+            return !magic.hasRemaining() && magic.getInt(0) == MAGIC;
+        }
+    }
+
+    /** Read a save file, mapping it if it is large. */
+    public static Contents read(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = ch.size();
+            ByteBuffer in;
+            if (size > MAP_THRESHOLD_BYTES) {
+                in = ch.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            } else {
+                in = ByteBuffer.allocate((int) size);
+                while (in.hasRemaining() && ch.read(in) >= 0) { }
+                in.flip();
+            }
+            return decode(in);
+        }
+    }
+
+    /** Read only the header of a save file: a few hundred bytes, however long the game. */
+    public static Header readHeader(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            // Usually the whole header; a longer one is read on from there
+            ByteBuffer in = ByteBuffer.allocate((int) Math.min(ch.size(), 512));
+            while (in.hasRemaining() && ch.read(in) >= 0) { }
+            in.flip();
+            try {
+                int headerEnd = headerStart(in);
+                if (headerEnd > ch.size()) throw new IOException("Damaged save: header runs past the end of the file");
+                if (headerEnd > in.limit()) {
+                    int at = in.position();
+                    ByteBuffer whole = ByteBuffer.allocate(headerEnd);
+                    whole.put(in.rewind());
+                    while (whole.hasRemaining() && ch.read(whole) >= 0) { }
+                    in = whole.flip().position(at);
+                }
+                Header h = new Header();
+                readHeader(in, h, headerEnd);
+                return h;
+            } catch (RuntimeException e) {
+                throw new IOException("Damaged save: " + e, e);
+            }
+        }
+    }
+
+    /** Decode a save from {@code in}'s position to its limit. */
+    public static Contents decode(ByteBuffer in) throws IOException {
+        try {
+            Contents c = new Contents();
+            int headerEnd = headerStart(in);
+            if (headerEnd > in.limit()) throw new IOException("Damaged save: header runs past the end of the file");
+            readHeader(in, c, headerEnd);
+
+            String[] strings = new String[count(in)];
+            byte[] scratch = new byte[64];
+            for (int i = 0; i < strings.length; i++) {
+                int len = count(in);
+                if (len > scratch.length) scratch = new byte[Math.max(len, scratch.length * 2)];
+                in.get(scratch, 0, len);
+                strings[i] = new String(scratch, 0, len, StandardCharsets.UTF_8);
+            }
+
+            int playerCount = count(in);
+            c.players = new ArrayList<>(playerCount);
+            for (int i = 0; i < playerCount; i++) {
+                Player p = new Player(null, null);
+                p.setId((int) varint(in));
+                p.setName(string(strings, in));
+                p.setColor(string(strings, in));
+                int health = (int) zigzag(in);
+                // Health is clamped against maxHealth, so it goes second
+                p.setMaxHealth((int) zigzag(in));
+                p.setHealth(health);
+                p.setMoney((int) zigzag(in));
+                p.setAttack((int) zigzag(in));
+                p.setInfluence((int) zigzag(in));
+                p.setMedicine((int) zigzag(in));
+                p.setPos((int) zigzag(in));
+                int flags = (int) varint(in);
+                p.setInQuarantine((flags & PLAYER_IN_QUARANTINE) != 0);
+                p.setLabCureFunded((flags & PLAYER_LAB_CURE_FUNDED) != 0);
+                p.setLabCureComplete((flags & PLAYER_LAB_CURE_COMPLETE) != 0);
+                p.setAI((flags & PLAYER_AI) != 0);
+                p.setLabPassesRemaining((int) zigzag(in));
+                int entryCount = count(in);
+                PlayerHistory history = p.getHistory();
+                long previousMicros = 0;
+                for (int e = 0; e < entryCount; e++) {
+                    int lead = (int) varint(in);
+                    int type = lead >>> 2;
+                    String description = string(strings, in);
+                    int amount = (int) zigzag(in);
+                    LocalDateTime timestamp = null;
+                    switch (lead & 3) {
+                        case TIME_MICROS_STEP -> {
+                            long micros = previousMicros + zigzag(in);
+                            previousMicros = micros;
+                            timestamp = LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                                    (int) Math.floorMod(micros, 1_000_000L) * 1000, ZoneOffset.UTC);
+                        }
+                        case TIME_FULL -> timestamp = LocalDateTime.ofEpochSecond(zigzag(in), (int) varint(in), ZoneOffset.UTC);
+                        default -> { }
+                    }
+                    history.addEntry(new PlayerHistory.HistoryEntry(
+                            type > 0 && type <= ENTRY_TYPES.length ? ENTRY_TYPES[type - 1] : null,
+                            description, amount, timestamp));
+                }
+                c.players.add(p);
+            }
+
+            int tileCount = count(in);
+            c.tiles = new HashMap<>(tileCount * 2);
+            for (int i = 0; i < tileCount; i++) {
+                int position = (int) zigzag(in);
+                int type = (int) varint(in);
+                String name = string(strings, in);
+                int ownerId = (int) varint(in);
+                int flags = (int) varint(in);
+                int upgradeLevel = (int) zigzag(in);
+                Tile t = new Tile(type < TILE_TYPES.length ? TILE_TYPES[type] : TileType.FREE, name, position);
+                t.restoreOwner(ownerId, (flags & TILE_OWNED) != 0);
+                t.setUpgradeLevel(upgradeLevel);
+                t.setCanSetPrices((flags & TILE_CAN_SET_PRICES) != 0);
+                c.tiles.put(position, t);
+            }
+            return c;
+        } catch (RuntimeException e) {
+            // Truncated or corrupt: buffer underflow, a bad index or length
+            throw new IOException("Damaged save: " + e, e);
+        }
+    }
+
+    // Check magic and format; returns where the header ends, leaving the buffer at its start
+    private static int headerStart(ByteBuffer in) throws IOException {
+        if (in.getInt() != MAGIC) throw new IOException("Not a binary save");
+        int format = (int) varint(in);
+        if (format > FORMAT) throw new IOException("Save format " + format + " is newer than this game reads (" + FORMAT + ")");
+        long length = varint(in);
+        if (length < 0 || length > Integer.MAX_VALUE - in.position()) throw new IOException("Damaged save: header length " + length);
+        return in.position() + (int) length;
+    }
+
+    private static void readHeader(ByteBuffer in, Header h, int headerEnd) {
+        h.savedAtMillis = in.getLong();
+        h.checkpoint = in.getLong();
+        h.version = varint(in);
+        h.currentIndex = (int) zigzag(in);
+        h.lastRoll = (int) zigzag(in);
+        // Saves written before these fields end their header here
+        if (in.position() < headerEnd) {
+            h.turn = (int) zigzag(in);
+            int count = count(in);
+            for (int i = 0; i < count; i++) {
+                byte[] utf8 = new byte[count(in)];
+                in.get(utf8);
+                h.playerNames.add(new String(utf8, StandardCharsets.UTF_8));
+            }
+        }
+        // Fields a newer format added to the header
+        in.position(headerEnd);
+    }
+
+    private static int ref(Map<String, Integer> strings, String s) {
+        if (s == null) return 0;
+        Integer index = strings.putIfAbsent(s, strings.size());
+        return (index != null ? index : strings.size() - 1) + 1;
+    }
+
+    private static String string(String[] strings, ByteBuffer in) {
+        int ref = (int) varint(in);
+        return ref == 0 ? null : strings[ref - 1];
+    }
+
+    /*
+     * A length or count, checked before anything is allocated for it: every byte or
+     * element it covers takes at least a byte, so one bigger than what is left is damage.
+     */
+    private static int count(ByteBuffer in) {
+        long n = varint(in);
+        if (n < 0 || n > in.remaining()) throw new IllegalStateException("length " + n + " runs past the end of the save");
+        return (int) n;
+    }
+
+    static long varint(ByteBuffer in) {
+        long v = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            v |= (long) (b & 0x7f) << shift;
+            if (b >= 0) return v;
+        }
+        throw new IllegalStateException("varint longer than 10 bytes");
+    }
+
+    static long zigzag(ByteBuffer in) {
+        long v = varint(in);
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    // A growable byte array; the encoder's only allocation besides the table
+    private static final class Out {
+        byte[] buf;
+        int size;
+
+        Out(int capacity) {
+            buf = new byte[Math.max(16, capacity)];
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > buf.length) buf = Arrays.copyOf(buf, Math.max(buf.length * 2, size + extra));
+        }
+
+        void varint(long v) {
+            ensure(10);
+            while ((v & ~0x7fL) != 0) {
+                buf[size++] = (byte) ((v & 0x7f) | 0x80);
+                v >>>= 7;
+            }
+            buf[size++] = (byte) v;
+        }
+
+        void zigzag(long v) {
+            varint((v << 1) ^ (v >> 63));
+        }
+
+        void fixed32(int v) {
+            ensure(4);
+            for (int shift = 24; shift >= 0; shift -= 8) buf[size++] = (byte) (v >>> shift);
+        }
+
+        void fixed64(long v) {
+            ensure(8);
+            for (int shift = 56; shift >= 0; shift -= 8) buf[size++] = (byte) (v >>> shift);
+        }
+
+        void bytes(byte[] b, int off, int len) {
+            ensure(len);
+            System.arraycopy(b, off, buf, size, len);
+            size += len;
+        }
+    }
+}
@@ -63,6 +63,9 @@ public class BoardController {
     private int lastKnownCurrentIndex = -1; // track turn changes for UI enabling
     private int lastShownRoll = -1; // to detect new rolls from sync for client-side animation
     private Timer inactivityTimer; // 5s inactivity auto-end turn
+    // Our sync listeners; released when the board is left so they do not pile up
+    private GameSync.Subscription syncSubscription;
+    private GameSync.Subscription joinSubscription;
 
     private static final int N = 11;
     private static final int PERIM = 40;
@@ -151,6 +154,8 @@ public class BoardController {
         updatePlayerPanels();
         updateEndTurnEnabledState();
         GameState.setBoardLoaded(true);
+        // Single-player games are saved as they are played (see SaveJournal)
+        if (!GameState.get().isCoopMode()) GameState.get().openJournal();
         // Prevent dice animation on board load if there's an existing roll
         lastShownRoll = GameState.get().getLastRoll();
         // If host in co-op, display room code once on board entry and pause game
@@ -178,7 +183,7 @@ public class BoardController {
             // Pause game
 			btnRollDice.setDisable(true);
             // Subscribe to sync for player joined
-            GameState.getSync().subscribe(new GameSync.GameSyncListener() {
+            joinSubscription = GameState.getSync().subscribe(new GameSync.GameSyncListener() {
                 @Override
                 public void onUpdate(GameState state) {}
 
@@ -260,53 +265,16 @@ public class BoardController {
 						return;
 					}
 				}
+				if (!GameState.appliesRules()) {
+					// The host rolls; the result comes back through onActionResult
+					hasRolled = true;
+					btnRollDice.setDisable(true);
+					GameState.submit(GameAction.roll(GameState.get().getCurrentIndex()));
+					return;
+				}
 				Player currentPlayer = GameState.get().current();
 				int roll = GameState.get().roll();
-                // Show dice results with player name
-                String playerName = currentPlayer.getName();
-                lastRollLabel.setText(playerName + " rolled: " + roll +
-                        " (" + GameState.get().getDice1() + "+" + GameState.get().getDice2() + ")");
-                showDoubleDiceRollAnimation(GameState.get().getDice1(), GameState.get().getDice2());
-                lastShownRoll = roll; // Prevent duplicate animation in sync listener
-                // Animate movement from previous position to new position
-                int newPos = currentPlayer.getPos();
-                int startPos = (newPos - roll) % PERIM;
-                if (startPos < 0) startPos += PERIM;
-                hasRolled = true;
-                btnRollDice.setDisable(true);
-                updateEndTurnEnabledState();
-                animatePlayerMovement(currentPlayer, startPos, newPos, () -> {
-                    // After animation completes, update panels and handle tile
-                    updatePlayerPanels();
-                    int position = currentPlayer.getPos();
-                    int[] rc = indexToRC(position);
-                    String tileType = tileLabelFor(rc[0], rc[1]);
-                    // Broadcast move before resolving tile so peers see position immediately
-                    GameState.notifyUpdate();
-                    // Install a one-shot hook:
-                    // - For humans in co-op: advance immediately after dialogs close and reset timer
-                    // - For AI-mode human turn end: advance then trigger AI
-                    if (!currentPlayer.isAI()) {
-                        if (GameState.get().isAIMode()) {
-                            TileEventManager.setAfterDialogHook(() -> {
-                                Platform.runLater(() -> {
-                                    safeAdvanceToNextTurn();
-                                    triggerAIIfNeeded();
-                                });
-                            });
-                        } else {
-                            // Co-op mode: advance immediately to next player after tile dialogs
-                            TileEventManager.setAfterDialogHook(() -> Platform.runLater(() -> {
-                                safeAdvanceToNextTurn();
-                            }));
-                        }
-                    }
-                    showTileInfo(tileType);
-                    // Broadcast after tile resolution to sync ownership/money/etc.
-                    GameState.notifyUpdate();
-                    // Force UI update after sync to ensure panels show latest data
-                    updatePlayerPanels();
-                });
+				playRoll(currentPlayer, roll, true);
             }
         });
 
@@ -320,68 +288,66 @@ public class BoardController {
 
 		// Subscribe to sync updates to refresh UI on clients and host
 		if (GameState.getSync() != null) {
-			GameState.getSync().subscribe(new GameSync.GameSyncListener() {
+			syncSubscription = GameState.getSync().subscribe(new GameSync.GameSyncListener() {
 				@Override
 				public void onUpdate(GameState state) {
-					Platform.runLater(() -> {
-                        // Sync tokens: remove stale nodes, update or create tokens per player
-                        java.util.List<Player> snapshotPlayers = new java.util.ArrayList<>(GameState.get().players());
-                        java.util.Set<String> currentNames = new java.util.HashSet<>();
-                        for (Player p : snapshotPlayers) currentNames.add(p.getName());
-                        // Remove tokens for players no longer present
-                        java.util.Iterator<Map.Entry<String, ImageView>> it = tokens.entrySet().iterator();
-						while (it.hasNext()) {
-                            Map.Entry<String, ImageView> e = it.next();
-                            if (!currentNames.contains(e.getKey())) {
-                                removeTokenNodeById("token-" + e.getKey());
-								it.remove();
-							}
+                    // Sync tokens: remove stale nodes, update or create tokens per player
+                    java.util.List<Player> snapshotPlayers = new java.util.ArrayList<>(GameState.get().players());
+                    java.util.Set<String> currentNames = new java.util.HashSet<>();
+                    for (Player p : snapshotPlayers) currentNames.add(p.getName());
+                    // Remove tokens for players no longer present
+                    java.util.Iterator<Map.Entry<String, ImageView>> it = tokens.entrySet().iterator();
+					while (it.hasNext()) {
+                        Map.Entry<String, ImageView> e = it.next();
+                        if (!currentNames.contains(e.getKey())) {
+                            removeTokenNodeById("token-" + e.getKey());
+							it.remove();
 						}
-                        // Ensure a single token per current player and place it
-                        for (Player p : snapshotPlayers) {
-                            ImageView token = tokens.get(p.getName());
-							if (token == null) {
-								token = createPlayerToken(p);
-                                token.setId("token-" + p.getName());
-                                tokens.put(p.getName(), token);
-							}
-							// Remove any stale node before placing
-							removeTokenNodeById("token-" + p.getName());
-							placeToken(p, p.getPos());
+					}
+                    // Ensure a single token per current player and place it
+                    for (Player p : snapshotPlayers) {
+                        ImageView token = tokens.get(p.getName());
+						if (token == null) {
+							token = createPlayerToken(p);
+                            token.setId("token-" + p.getName());
+                            tokens.put(p.getName(), token);
 						}
-						updatePlayerPanels();
-						refreshOwnershipVisuals();
-						updateHeader();
+						// Remove any stale node before placing
+						removeTokenNodeById("token-" + p.getName());
+						placeToken(p, p.getPos());
+					}
+					updatePlayerPanels();
+					refreshOwnershipVisuals();
+					updateHeader();
+					updateRollDiceEnabledState();
+					updateEndTurnEnabledState();
+					// Handle turn change first to avoid spurious dice animation at end of turn
+					int idx = GameState.get().currentIndexProperty().get();
+					boolean turnChanged = (idx != lastKnownCurrentIndex);
+					if (turnChanged) {
+						lastKnownCurrentIndex = idx;
+						hasRolled = false;
+						// Clear any pending inactivity timer on turn change
+						if (inactivityTimer != null) { inactivityTimer.cancel(); inactivityTimer = null; }
+						// Swallow current lastRoll so we don't animate due to a stale value
+						lastShownRoll = GameState.get().getLastRoll();
+						
+						// Task 3: Reset timer for new turn in co-op mode
+						if (GameState.get().isCoopMode()) {
+							timeRemaining = TURN_TIME_SECONDS;
+							updateTimerDisplay();
+						}
+						hasRolled = false;
 						updateRollDiceEnabledState();
 						updateEndTurnEnabledState();
-						// Handle turn change first to avoid spurious dice animation at end of turn
-						int idx = GameState.get().currentIndexProperty().get();
-						boolean turnChanged = (idx != lastKnownCurrentIndex);
-						if (turnChanged) {
-							lastKnownCurrentIndex = idx;
-							hasRolled = false;
-							// Clear any pending inactivity timer on turn change
-							if (inactivityTimer != null) { inactivityTimer.cancel(); inactivityTimer = null; }
-							// Swallow current lastRoll so we don't animate due to a stale value
-							lastShownRoll = GameState.get().getLastRoll();
-							
-							// Task 3: Reset timer for new turn in co-op mode
-							if (GameState.get().isCoopMode()) {
-								timeRemaining = TURN_TIME_SECONDS;
-								updateTimerDisplay();
-							}
-							hasRolled = false;
-							updateRollDiceEnabledState();
-							updateEndTurnEnabledState();
-						} else {
-							// If we received a new roll during the same turn, show dice animation
-							int lr = GameState.get().getLastRoll();
-							if (lr > 0 && lr != lastShownRoll) {
-								lastShownRoll = lr;
-								showDoubleDiceRollAnimation(GameState.get().getDice1(), GameState.get().getDice2());
-							}
+					} else {
+						// If we received a new roll during the same turn, show dice animation
+						int lr = GameState.get().getLastRoll();
+						if (lr > 0 && lr != lastShownRoll) {
+							lastShownRoll = lr;
+							showDoubleDiceRollAnimation(GameState.get().getDice1(), GameState.get().getDice2());
 						}
-					});
+					}
 				}
 
 				@Override
@@ -389,7 +355,15 @@ public class BoardController {
 
 				@Override
 				public void onStartGame() {}
-			});
+
+				@Override
+				public void onActionResult(GameAction action) {
+					// Lockstep relays everyone's moves; only our own roll is animated here
+					if (action.type == GameAction.Type.ROLL && (action.rejected != null || isLocalSeat(action.player))) {
+						onHostRolled(action);
+					}
+				}
+			}, Platform::runLater);
 		}
 
         // History button actions
@@ -399,6 +373,59 @@ public class BoardController {
         if (p4HistoryBtn != null) p4HistoryBtn.setOnAction(e -> showPlayerHistory(GameState.get().players().get(3)));
     }
 
+    // Show a roll of the current player: dice, movement, then the landing tile
+    private void playRoll(Player currentPlayer, int roll, boolean animateDice) {
+        // Show dice results with player name
+        String playerName = currentPlayer.getName();
+        lastRollLabel.setText(playerName + " rolled: " + roll +
+                " (" + GameState.get().getDice1() + "+" + GameState.get().getDice2() + ")");
+        if (animateDice) showDoubleDiceRollAnimation(GameState.get().getDice1(), GameState.get().getDice2());
+        lastShownRoll = roll; // Prevent duplicate animation in sync listener
+        // Animate movement from previous position to new position
+        int newPos = currentPlayer.getPos();
+        int startPos = (newPos - roll) % PERIM;
+        if (startPos < 0) startPos += PERIM;
+        hasRolled = true;
+        btnRollDice.setDisable(true);
+        updateEndTurnEnabledState();
+        animatePlayerMovement(currentPlayer, startPos, newPos, () -> {
+            // Landing and tile resolution go to peers as one step
+            GameState.beginStep();
+            try {
+                // After animation completes, update panels and handle tile
+                updatePlayerPanels();
+                int position = currentPlayer.getPos();
+                int[] rc = indexToRC(position);
+                String tileType = tileLabelFor(rc[0], rc[1]);
+                // Install a one-shot hook:
+                // - For humans in co-op: advance immediately after dialogs close and reset timer
+                // - For AI-mode human turn end: advance then trigger AI
+                if (!currentPlayer.isAI()) {
+                    if (GameState.get().isAIMode()) {
+                        TileEventManager.setAfterDialogHook(() -> {
+                            Platform.runLater(() -> {
+                                safeAdvanceToNextTurn();
+                                triggerAIIfNeeded();
+                            });
+                        });
+                    } else {
+                        // Co-op mode: advance immediately to next player after tile dialogs
+                        TileEventManager.setAfterDialogHook(() -> Platform.runLater(() -> {
+                            safeAdvanceToNextTurn();
+                        }));
+                    }
+                }
+                showTileInfo(tileType);
+                // Position (already sent by roll) and tile outcome go out on commit
+                GameState.notifyUpdate();
+            } finally {
+                GameState.commitStep();
+            }
+            // Force UI update after sync to ensure panels show latest data
+            updatePlayerPanels();
+        });
+    }
+
 	private void updateRollDiceEnabledState() {
 		boolean enable;
 		if (GameState.get().isCoopMode() && GameState.getSync() != null) {
@@ -478,7 +505,7 @@ public class BoardController {
         boolean hasOwnedTiles = false;
         for (Tile tile : BoardRegistry.tiles().values()) {
             // Fix: compare by name since snapshots create new Player objects
-            if (tile.getOwner() != null && tile.getOwner().getName().equals(p.getName())) {
+            if (tile.isOwnedBy(p)) {
                 if (hasOwnedTiles) {
                     tilesText.append(", ");
                 }
@@ -514,121 +541,7 @@ public class BoardController {
     }
 
     private String tileLabelFor(int r, int c) {
-        int position = getPositionFromRC(r, c);
-        TileSpec spec = tileSpecForPosition(position);
-        if (spec != null) return spec.label;
-
-        // Corners as in the reference board (clockwise from top-left)
-        // 0: Free (top-left), 10: Check-post (top-right), 20: Start (bottom-right), 30: Quarantine (bottom-left)
-        if (position == 0)  return TileType.FREE.getDisplayName();
-        if (position == 10) return TileType.CHECKPOST.getDisplayName();
-        if (position == 20) return TileType.START.getDisplayName();
-        if (position == 30) return TileType.QUARANTINE.getDisplayName();
-
-        // Sides/zones according to the picture
-        // Top row (Industrial) positions 1..9
-        if (position >= 1 && position <= 9) {
-            return switch (position) {
-                case 3 -> TileType.SCENARIO.getDisplayName();
-                case 5 -> TileType.SAFEHAVEN.getDisplayName();
-                case 8 -> TileType.ZOMBIE.getDisplayName();
-                default -> TileType.TERRITORY.getDisplayName(); // Factories, Power Plant, Warehouses, Radio Tower
-            };
-        }
-
-        // Right column (Military) positions 11..19
-        if (position >= 11 && position <= 19) {
-            return switch (position) {
-                case 13 -> TileType.RESOURCE.getDisplayName(); // Reward
-                case 14 -> TileType.SCENARIO.getDisplayName();
-                case 15 -> TileType.SAFEHAVEN.getDisplayName();
-                case 16 -> TileType.SPECIAL.getDisplayName();  // Event
-                default -> TileType.TERRITORY.getDisplayName(); // Military bases, Research lab, Hospital, Airport
-            };
-        }
-
-        // Bottom row (Residential) positions 21..29 (right to left from Start)
-        if (position >= 21 && position <= 29) {
-            return switch (position) {
-                case 22 -> TileType.ZOMBIE.getDisplayName();
-                case 24 -> TileType.RESOURCE.getDisplayName(); // Reward
-                case 25 -> TileType.SAFEHAVEN.getDisplayName();
-                case 27 -> TileType.SCENARIO.getDisplayName(); // Event
-                default -> TileType.TERRITORY.getDisplayName(); // Abandoned houses, apartments, motel
-            };
-        }
-
-        // Left column (Commercial) positions 31..39 (bottom to top toward Free)
-        if (position >= 31 && position <= 39) {
-            return switch (position) {
-                case 32 -> TileType.RESOURCE.getDisplayName(); // Reward
-                case 35 -> TileType.SAFEHAVEN.getDisplayName();
-                case 37 -> TileType.SCENARIO.getDisplayName();
-                case 38 -> TileType.ZOMBIE.getDisplayName();
-                default -> TileType.TERRITORY.getDisplayName(); // Markets, gas, pharmacy, hardware
-            };
-        }
-
-        // Fallback
-        return TileType.FREE.getDisplayName();
-    }
-
-    private static class TileSpec {
-        final TileType type;
-        final String label;
-        TileSpec(TileType type, String label) { this.type = type; this.label = label; }
-    }
-
-    private TileSpec tileSpecForPosition(int position) {
-        // Explicit path mapping clockwise from START at bottom-right (20)
-        switch (position) {
-            // Corners
-            case 20: return new TileSpec(TileType.START, TileType.START.getDisplayName());
-            case 30: return new TileSpec(TileType.QUARANTINE, TileType.QUARANTINE.getDisplayName());
-            case 10: return new TileSpec(TileType.CHECKPOST, TileType.CHECKPOST.getDisplayName());
-            case 0:  return new TileSpec(TileType.FREE, TileType.FREE.getDisplayName());
-
-            // Bottom row (Residential) 21..29 right -> left
-            case 21: return new TileSpec(TileType.TERRITORY, "Abandoned House 1");
-            case 22: return new TileSpec(TileType.ZOMBIE, TileType.ZOMBIE.getDisplayName());
-            case 23: return new TileSpec(TileType.TERRITORY, "Abandoned House 2");
-            case 24: return new TileSpec(TileType.RESOURCE, TileType.RESOURCE.getDisplayName()); // Reward
-            case 25: return new TileSpec(TileType.SAFEHAVEN, TileType.SAFEHAVEN.getDisplayName());
-            case 26: return new TileSpec(TileType.TERRITORY, "Apartment Complex 1");
-            case 27: return new TileSpec(TileType.SCENARIO, TileType.SCENARIO.getDisplayName()); // Event
-            case 28: return new TileSpec(TileType.TERRITORY, "Apartment Complex 2");
-            case 29: return new TileSpec(TileType.TERRITORY, "Motel Shelter");
-
-            // Top row (Industrial) 1..9 left -> right
-            case 1: return new TileSpec(TileType.TERRITORY, "Factory 1");
-            case 2: return new TileSpec(TileType.TERRITORY, "Factory 2");
-            case 3: return new TileSpec(TileType.SCENARIO, TileType.SCENARIO.getDisplayName());
-            case 4: return new TileSpec(TileType.TERRITORY, "Power Plant");
-            case 5: return new TileSpec(TileType.SAFEHAVEN, TileType.SAFEHAVEN.getDisplayName());
-            case 6: return new TileSpec(TileType.TERRITORY, "Warehouse 1");
-            case 7: return new TileSpec(TileType.SPECIAL, "Events"); // Changed from Warehouse 2 to Events
-            case 8: return new TileSpec(TileType.ZOMBIE, TileType.ZOMBIE.getDisplayName());
-            case 9: return new TileSpec(TileType.TERRITORY, "Radio Tower");
-
-            // Right column (Military) 11..19 top -> bottom
-            case 11: return new TileSpec(TileType.SPECIAL, "Super Market 1"); // Changed from Military Base 1 to Super Market 1
-            case 12: return new TileSpec(TileType.RESOURCE, "Reward"); // Changed from Military Base 2 to Reward
-            case 13: return new TileSpec(TileType.SPECIAL, "Super Market 2"); // Changed from Reward to Super Market 2
-            case 14: return new TileSpec(TileType.SCENARIO, TileType.SCENARIO.getDisplayName());
-            case 15: return new TileSpec(TileType.SAFEHAVEN, TileType.SAFEHAVEN.getDisplayName());
-            case 16: return new TileSpec(TileType.SPECIAL, TileType.SPECIAL.getDisplayName()); // Event
-            case 17: return new TileSpec(TileType.TERRITORY, "Research Lab");
-            case 18: return new TileSpec(TileType.TERRITORY, "Hospital");
-            case 19: return new TileSpec(TileType.TERRITORY, "Airport"); // special unbuyable later
-
-            // Left column (Commercial)
-            case 32: return new TileSpec(TileType.TERRITORY, "Supermarket");
-            case 33: return new TileSpec(TileType.RESOURCE, "Reward"); // Changed from Gas Station to Reward
-            case 34: return new TileSpec(TileType.TERRITORY, "Gas Station");
-            case 36: return new TileSpec(TileType.SPECIAL, "Events"); // Changed from Pharmacy to Events
-            case 39: return new TileSpec(TileType.TERRITORY, "Hardware Store");
-        }
-        return null; // other positions use default zone logic
+        return BoardLayout.labelAt(getPositionFromRC(r, c));
     }
 
     private String tileColorFor(int r, int c) {
@@ -653,8 +566,8 @@ public class BoardController {
         Player currentPlayer = GameState.get().current();
         int position = currentPlayer.getPos();
 
-        TileSpec spec = tileSpecForPosition(position);
-        TileType tileType = (spec != null) ? spec.type : getTileTypeFromName(type);
+        BoardLayout.TileSpec spec = BoardLayout.specAt(position);
+        TileType tileType = (spec != null) ? spec.type : BoardLayout.typeFromLabel(type);
         String name = (spec != null) ? spec.label : type;
         Tile tile = BoardRegistry.getOrCreate(position, tileType, name);
 
@@ -667,15 +580,6 @@ public class BoardController {
         refreshOwnershipVisuals();
     }
 
-    private TileType getTileTypeFromName(String name) {
-        for (TileType type : TileType.values()) {
-            if (type.getDisplayName().equals(name)) {
-                return type;
-            }
-        }
-        return TileType.FREE; // Default fallback
-    }
-
     private void placeToken(Player p, int pos) {
         ImageView existing = tokens.get(p.getName());
 
@@ -746,7 +650,7 @@ public class BoardController {
             cell.getChildren().remove(indicator);
             ownershipIndicators.remove(position);
         }
-        TileSpec spec = tileSpecForPosition(position);
+        BoardLayout.TileSpec spec = BoardLayout.specAt(position);
         TileType type = (spec != null) ? spec.type : TileType.FREE;
         String name = (spec != null) ? spec.label : "Unknown";
         Tile tile = BoardRegistry.getOrCreate(position, type, name);
@@ -815,6 +719,17 @@ public class BoardController {
         }
     }
 
+    private void releaseSyncSubscriptions() {
+        if (syncSubscription != null) {
+            syncSubscription.unsubscribe();
+            syncSubscription = null;
+        }
+        if (joinSubscription != null) {
+            joinSubscription.unsubscribe();
+            joinSubscription = null;
+        }
+    }
+
     private void goBackToLobby() {
         // Show confirmation dialog
         Alert confirmationDialog = new Alert(Alert.AlertType.CONFIRMATION);
@@ -832,15 +747,17 @@ public class BoardController {
                 turnTimer.cancel();
                 turnTimer = null;
             }
+            releaseSyncSubscriptions();
             // Handle co-op mode: close network sync and reset flags
             if (GameState.get().isCoopMode()) {
-                GameState.setSync(null); // Close network sync
+                GameState.setSync(null); // Closes the network sync: no more reconnects or updates
                 GameState.get().setCoopMode(false);
                 GameState.get().setAutoCoop(false);
                 GameState.setCoopRoomCode(null);
                 GameState.setNetworkHost(false);
             }
             GameState.get().saveToFile(); // Save before leaving
+            GameState.get().closeJournal();
             Platform.runLater(() -> {
                 try {
                     // Load lobby using the same method as in LobbyController
@@ -1172,11 +1089,42 @@ public class BoardController {
         }
     }
 
+    // Our ROLL came back; the update it caused has already moved the token and shown the dice
+    private static boolean isLocalSeat(int seat) {
+        var players = GameState.get().players();
+        return seat >= 0 && seat < players.size() && players.get(seat).getName().equals(GameState.getPlayerName());
+    }
+
+    private void onHostRolled(GameAction action) {
+        if (action.rejected != null) {
+            hasRolled = false;
+            updateRollDiceEnabledState();
+            return;
+        }
+        playRoll(GameState.get().current(), GameState.get().getLastRoll(), false);
+    }
+
     private void advanceToNextPlayer() {
         if (turnTimer != null) {
             turnTimer.cancel();
         }
 
+        if (!GameState.appliesRules()) {
+            // The host ends the turn and applies the bonuses; the update drives the UI
+            GameState.submit(GameAction.endTurn(GameState.get().getCurrentIndex()));
+            return;
+        }
+
+        // Turn change, bonuses and the AI's upkeep reach peers as one update
+        GameState.beginStep();
+        try {
+            advanceTurnState();
+        } finally {
+            GameState.commitStep();
+        }
+    }
+
+    private void advanceTurnState() {
         GameState.get().endTurn();
         updateHeader();
         // Apply start-of-turn bonuses for the new current player
@@ -1237,7 +1185,7 @@ public class BoardController {
                 Platform.runLater(() -> {
                     // Only advance if it's still the same player's turn and they are human
                     Player cur = GameState.get().current();
-                    if (cur != null && !cur.isAI() && cur.getName().equals(playerAtStart.getName())) {
+                    if (cur != null && !cur.isAI() && cur.getId() == playerAtStart.getId()) {
                         safeAdvanceToNextTurn();
                     }
                 });
@@ -1309,7 +1257,12 @@ public class BoardController {
             int position = currentPlayer.getPos();
             int[] rc = indexToRC(position);
             String tileType = tileLabelFor(rc[0], rc[1]);
-            showTileInfo(tileType); // This will handle AI without dialogs
+            GameState.beginStep();
+            try {
+                showTileInfo(tileType); // This will handle AI without dialogs
+            } finally {
+                GameState.commitStep();
+            }
 
             // Auto-advance after delay
             Timer autoAdvanceTimer = new Timer();
@@ -0,0 +1,145 @@
+package Ui;
+
+/**
+ * What sits on each board position. Shared by the board view and by hosts that apply
+ * moves without one.
+ */
+final class BoardLayout {
+    static final class TileSpec {
+        final TileType type;
+        final String label;
+        TileSpec(TileType type, String label) { this.type = type; this.label = label; }
+    }
+
+    private BoardLayout() { }
+
+    /** The tile at {@code position} in the current game's registry, created on first use. */
+    static Tile tileAt(int position) {
+        Tile existing = BoardRegistry.tiles().get(position);
+        if (existing != null) return existing;
+        TileSpec spec = specAt(position);
+        String label = spec != null ? spec.label : labelAt(position);
+        TileType type = spec != null ? spec.type : typeFromLabel(label);
+        return BoardRegistry.getOrCreate(position, type, label);
+    }
+
+    static String labelAt(int position) {
+        TileSpec spec = specAt(position);
+        if (spec != null) return spec.label;
+
+        // Corners as in the reference board (clockwise from top-left)
+        // 0: Free (top-left), 10: Check-post (top-right), 20: Start (bottom-right), 30: Quarantine (bottom-left)
+        if (position == 0)  return TileType.FREE.getDisplayName();
+        if (position == 10) return TileType.CHECKPOST.getDisplayName();
+        if (position == 20) return TileType.START.getDisplayName();
+        if (position == 30) return TileType.QUARANTINE.getDisplayName();
+
+        // Sides/zones according to the picture
+        // Top row (Industrial) positions 1..9
+        if (position >= 1 && position <= 9) {
+            return switch (position) {
+                case 3 -> TileType.SCENARIO.getDisplayName();
+                case 5 -> TileType.SAFEHAVEN.getDisplayName();
+                case 8 -> TileType.ZOMBIE.getDisplayName();
+                default -> TileType.TERRITORY.getDisplayName(); // Factories, Power Plant, Warehouses, Radio Tower
+            };
+        }
+
+        // Right column (Military) positions 11..19
+        if (position >= 11 && position <= 19) {
+            return switch (position) {
+                case 13 -> TileType.RESOURCE.getDisplayName(); // Reward
+                case 14 -> TileType.SCENARIO.getDisplayName();
+                case 15 -> TileType.SAFEHAVEN.getDisplayName();
+                case 16 -> TileType.SPECIAL.getDisplayName();  // Event
+                default -> TileType.TERRITORY.getDisplayName(); // Military bases, Research lab, Hospital, Airport
+            };
+        }
+
+        // Bottom row (Residential) positions 21..29 (right to left from Start)
+        if (position >= 21 && position <= 29) {
+            return switch (position) {
+                case 22 -> TileType.ZOMBIE.getDisplayName();
+                case 24 -> TileType.RESOURCE.getDisplayName(); // Reward
+                case 25 -> TileType.SAFEHAVEN.getDisplayName();
+                case 27 -> TileType.SCENARIO.getDisplayName(); // Event
+                default -> TileType.TERRITORY.getDisplayName(); // Abandoned houses, apartments, motel
+            };
+        }
+
+        // Left column (Commercial) positions 31..39 (bottom to top toward Free)
+        if (position >= 31 && position <= 39) {
+            return switch (position) {
+                case 32 -> TileType.RESOURCE.getDisplayName(); // Reward
+                case 35 -> TileType.SAFEHAVEN.getDisplayName();
+                case 37 -> TileType.SCENARIO.getDisplayName();
+                case 38 -> TileType.ZOMBIE.getDisplayName();
+                default -> TileType.TERRITORY.getDisplayName(); // Markets, gas, pharmacy, hardware
+            };
+        }
+
+        // Fallback
+        return TileType.FREE.getDisplayName();
+    }
+
+    static TileSpec specAt(int position) {
+        // Explicit path mapping clockwise from START at bottom-right (20)
+        switch (position) {
+            // Corners
+            case 20: return new TileSpec(TileType.START, TileType.START.getDisplayName());
+            case 30: return new TileSpec(TileType.QUARANTINE, TileType.QUARANTINE.getDisplayName());
+            case 10: return new TileSpec(TileType.CHECKPOST, TileType.CHECKPOST.getDisplayName());
+            case 0:  return new TileSpec(TileType.FREE, TileType.FREE.getDisplayName());
+
+            // Bottom row (Residential) 21..29 right -> left
+            case 21: return new TileSpec(TileType.TERRITORY, "Abandoned House 1");
+            case 22: return new TileSpec(TileType.ZOMBIE, TileType.ZOMBIE.getDisplayName());
+            case 23: return new TileSpec(TileType.TERRITORY, "Abandoned House 2");
+            case 24: return new TileSpec(TileType.RESOURCE, TileType.RESOURCE.getDisplayName()); // Reward
+            case 25: return new TileSpec(TileType.SAFEHAVEN, TileType.SAFEHAVEN.getDisplayName());
+            case 26: return new TileSpec(TileType.TERRITORY, "Apartment Complex 1");
+            case 27: return new TileSpec(TileType.SCENARIO, TileType.SCENARIO.getDisplayName()); // Event
+            case 28: return new TileSpec(TileType.TERRITORY, "Apartment Complex 2");
+            case 29: return new TileSpec(TileType.TERRITORY, "Motel Shelter");
+
+            // Top row (Industrial) 1..9 left -> right
+            case 1: return new TileSpec(TileType.TERRITORY, "Factory 1");
+            case 2: return new TileSpec(TileType.TERRITORY, "Factory 2");
+            case 3: return new TileSpec(TileType.SCENARIO, TileType.SCENARIO.getDisplayName());
+            case 4: return new TileSpec(TileType.TERRITORY, "Power Plant");
+            case 5: return new TileSpec(TileType.SAFEHAVEN, TileType.SAFEHAVEN.getDisplayName());
+            case 6: return new TileSpec(TileType.TERRITORY, "Warehouse 1");
+            case 7: return new TileSpec(TileType.SPECIAL, "Events"); // Changed from Warehouse 2 to Events
+            case 8: return new TileSpec(TileType.ZOMBIE, TileType.ZOMBIE.getDisplayName());
+            case 9: return new TileSpec(TileType.TERRITORY, "Radio Tower");
+
+            // Right column (Military) 11..19 top -> bottom
+            case 11: return new TileSpec(TileType.SPECIAL, "Super Market 1"); // Changed from Military Base 1 to Super Market 1
+            case 12: return new TileSpec(TileType.RESOURCE, "Reward"); // Changed from Military Base 2 to Reward
+            case 13: return new TileSpec(TileType.SPECIAL, "Super Market 2"); // Changed from Reward to Super Market 2
+            case 14: return new TileSpec(TileType.SCENARIO, TileType.SCENARIO.getDisplayName());
+            case 15: return new TileSpec(TileType.SAFEHAVEN, TileType.SAFEHAVEN.getDisplayName());
+            case 16: return new TileSpec(TileType.SPECIAL, TileType.SPECIAL.getDisplayName()); // Event
+            case 17: return new TileSpec(TileType.TERRITORY, "Research Lab");
+            case 18: return new TileSpec(TileType.TERRITORY, "Hospital");
+            case 19: return new TileSpec(TileType.TERRITORY, "Airport"); // special unbuyable later
+
+            // Left column (Commercial)
+            case 32: return new TileSpec(TileType.TERRITORY, "Supermarket");
+            case 33: return new TileSpec(TileType.RESOURCE, "Reward"); // Changed from Gas Station to Reward
+            case 34: return new TileSpec(TileType.TERRITORY, "Gas Station");
+            case 36: return new TileSpec(TileType.SPECIAL, "Events"); // Changed from Pharmacy to Events
+            case 39: return new TileSpec(TileType.TERRITORY, "Hardware Store");
+        }
+        return null; // other positions use default zone logic
+    }
+
+    static TileType typeFromLabel(String label) {
+        for (TileType type : TileType.values()) {
+            if (type.getDisplayName().equals(label)) {
+                return type;
+            }
+        }
+        return TileType.FREE; // Default fallback
+    }
+}
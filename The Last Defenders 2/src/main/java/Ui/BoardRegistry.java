@@ -3,10 +3,19 @@
 import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * Tiles of the current game by board position. Each {@link GameState} owns one;
+ * the static methods act on the board of {@link GameState#get()}.
+ */
 public class BoardRegistry {
-    private static final Map<Integer, Tile> byPosition = new HashMap<>();
+    private final Map<Integer, Tile> byPosition = new HashMap<>();
+
+    private static Map<Integer, Tile> current() {
+        return GameState.get().board().byPosition;
+    }
 
     public static Tile getOrCreate(int position, TileType type, String name) {
+        Map<Integer, Tile> byPosition = current();
         Tile tile = byPosition.get(position);
         if (tile == null) {
             tile = new Tile(type, name, position);
@@ -23,14 +32,14 @@ public class BoardRegistry {
         return tile;
     }
 
-    public static Map<Integer, Tile> tiles() { return byPosition; }
-    
+    public static Map<Integer, Tile> tiles() { return current(); }
+
     /**
      * Clear all tiles and reset the board registry
      * This should be called when starting a new game
      */
     public static void clearAll() {
-        byPosition.clear();
+        current().clear();
     }
 }
 
@@ -0,0 +1,143 @@
+package Ui;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Byte arrays for encoding frames, pooled by power-of-two size so steady-state sync
+ * reuses the same few scratch arrays instead of allocating per message. They are heap
+ * arrays because a frame ends up as a heap array anyway (see {@link EncodedMessage}):
+ * the sockets write that, and a direct buffer in between would only add a copy. Each
+ * size class keeps at most {@code -Dsync.poolPerClass} (default 16) idle arrays; one
+ * returned to a full class is left to the collector. Arrays above
+ * {@link #MAX_POOLED_BYTES} are never pooled.
+ *
+ * Also the place for allocation figures: the pool's own hits and misses, and
+ * {@link #threadAllocatedBytes()} for what a piece of code allocated on the heap.
+ */
+public final class BufferPool {
+    public static final int MIN_BUFFER_BYTES = 4 * 1024;
+    public static final int MAX_POOLED_BYTES = SyncFrame.MAX_PAYLOAD_BYTES + SyncFrame.HEADER_BYTES;
+
+    private static final BufferPool SHARED = new BufferPool(Integer.getInteger("sync.poolPerClass", 16));
+    private static final com.sun.management.ThreadMXBean THREADS = threadBean();
+
+    private final int perClass;
+    private final List<ArrayDeque<byte[]>> idle = new ArrayList<>();
+    private final Stats stats = new Stats();
+
+    public BufferPool(int perClass) {
+        this.perClass = Math.max(0, perClass);
+        for (int i = 0; i <= sizeClass(MAX_POOLED_BYTES); i++) idle.add(new ArrayDeque<>());
+    }
+
+    /** The pool the sync code shares. */
+    public static BufferPool shared() { return SHARED; }
+
+    /** An array of at least {@code minBytes}, contents undefined; hand it back with {@link #release}. */
+    public byte[] acquire(int minBytes) {
+        stats.acquires.incrementAndGet();
+        if (minBytes > MAX_POOLED_BYTES) return allocate(minBytes);
+        ArrayDeque<byte[]> free = idle.get(sizeClass(minBytes));
+        byte[] b;
+        synchronized (free) {
+            b = free.pollFirst();
+        }
+        if (b == null) return allocate(MIN_BUFFER_BYTES << sizeClass(minBytes));
+        stats.hits.incrementAndGet();
+        return b;
+    }
+
+    /** Return an array from {@link #acquire}; it must not be used afterwards. */
+    public void release(byte[] b) {
+        if (b == null || b.length > MAX_POOLED_BYTES) return;
+        int c = sizeClass(b.length);
+        // Only exact class sizes come back, so every pooled array fits its class
+        if (MIN_BUFFER_BYTES << c != b.length) return;
+        ArrayDeque<byte[]> free = idle.get(c);
+        synchronized (free) {
+            if (free.size() < perClass) {
+                free.addFirst(b);
+                stats.releases.incrementAndGet();
+                return;
+            }
+        }
+        stats.discards.incrementAndGet();
+    }
+
+    /** An array of at least {@code minBytes} starting with {@code b}'s first {@code used} bytes; {@code b} is released. */
+    public byte[] grow(byte[] b, int used, int minBytes) {
+        byte[] bigger = acquire(Math.max(minBytes, b.length * 2));
+        System.arraycopy(b, 0, bigger, 0, used);
+        release(b);
+        return bigger;
+    }
+
+    public Stats getStats() { return stats; }
+
+    private byte[] allocate(int bytes) {
+        stats.allocations.incrementAndGet();
+        stats.allocatedBytes.addAndGet(bytes);
+        return new byte[bytes];
+    }
+
+    // 0 for up to MIN_BUFFER_BYTES, then one class per doubling
+    private static int sizeClass(int bytes) {
+        if (bytes <= MIN_BUFFER_BYTES) return 0;
+        return 32 - Integer.numberOfLeadingZeros((bytes - 1) / MIN_BUFFER_BYTES);
+    }
+
+    /**
+     * Heap bytes the calling thread has allocated so far, or -1 where the JVM does not
+     * say; the difference across a call is what the call allocated.
+     */
+    public static long threadAllocatedBytes() {
+        return THREADS != null ? THREADS.getCurrentThreadAllocatedBytes() : -1;
+    }
+
+    private static com.sun.management.ThreadMXBean threadBean() {
+        try {
+            if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean t
+                    && t.isThreadAllocatedMemorySupported()) {
+                t.setThreadAllocatedMemoryEnabled(true);
+                return t;
+            }
+        } catch (UnsupportedOperationException | SecurityException ignored) { }
+        return null;
+    }
+
+    /**
+     * How well the pool is doing: arrays asked for, how many came from the pool, how many
+     * (and how many bytes) had to be allocated, and returns kept or left to the collector.
+     */
+    public static class Stats {
+        private final AtomicLong acquires = new AtomicLong();
+        private final AtomicLong hits = new AtomicLong();
+        private final AtomicLong allocations = new AtomicLong();
+        private final AtomicLong allocatedBytes = new AtomicLong();
+        private final AtomicLong releases = new AtomicLong();
+        private final AtomicLong discards = new AtomicLong();
+
+        public long getAcquires() { return acquires.get(); }
+        public long getHits() { return hits.get(); }
+        public long getAllocations() { return allocations.get(); }
+        public long getAllocatedBytes() { return allocatedBytes.get(); }
+        public long getReleases() { return releases.get(); }
+        public long getDiscards() { return discards.get(); }
+
+        @Override
+        public String toString() {
+            return "BufferPool.Stats{" +
+                    "acquires=" + getAcquires() +
+                    ", hits=" + getHits() +
+                    ", allocations=" + getAllocations() +
+                    ", allocatedBytes=" + getAllocatedBytes() +
+                    ", releases=" + getReleases() +
+                    ", discards=" + getDiscards() +
+                    '}';
+        }
+    }
+}
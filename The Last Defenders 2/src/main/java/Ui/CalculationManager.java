@@ -1,10 +1,6 @@
 package Ui;
 
-import java.util.Random;
-
 public class CalculationManager {
-    private static final Random random = new Random();
-
     public static double getScenarioChance(int attack, int influence, int difficulty) {
         // Simple calculation: base chance + attack/influence bonus - difficulty penalty
         double baseChance = 50.0;
@@ -15,6 +11,6 @@ public class CalculationManager {
 
     public static boolean isScenarioSuccess(int attack, int influence, int difficulty) {
         double chance = getScenarioChance(attack, influence, difficulty);
-        return random.nextDouble() * 100 < chance;
+        return GameState.randomStream(GameRandom.Stream.SCENARIO_OUTCOME).nextDouble() * 100 < chance;
     }
 }
@@ -0,0 +1,127 @@
+package Ui;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonDeserializer;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.JsonSerializer;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encode and decode throughput of a full {@link GameState.GameSnapshot} as a wire frame,
+ * and the heap each one allocates: the reflective Gson every path used to build for
+ * itself, the shared {@link GameCodec} going through a String, and the codec writing
+ * into pooled buffers ({@link EncodedMessage#json}) and parsing the frame bytes in place.
+ * The snapshot has four players with {@code history} entries each and every tile on
+ * the board, a third of them owned and upgraded.
+ *
+ * Usage: CodecBenchmark [history=50] [seconds=3]
+ */
+public class CodecBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int history = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        System.out.println("snapshot bytes=" + GameCodec.gson().toJson(sampleSnapshot(history)).getBytes(StandardCharsets.UTF_8).length);
+
+        GameState.GameSnapshot snapshot = sampleSnapshot(history);
+        Gson reflective = new GsonBuilder()
+                .registerTypeAdapter(LocalDateTime.class, (JsonSerializer<LocalDateTime>) (src, typeOfSrc, context) ->
+                        new JsonPrimitive(src.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME)))
+                .registerTypeAdapter(LocalDateTime.class, (JsonDeserializer<LocalDateTime>) (json, typeOfT, context) ->
+                        LocalDateTime.parse(json.getAsString(), DateTimeFormatter.ISO_LOCAL_DATE_TIME))
+                .create();
+
+        // Each reads what the other writes, or the comparison is meaningless
+        GameCodec.gson().fromJson(reflective.toJson(snapshot), GameState.GameSnapshot.class);
+        reflective.fromJson(GameCodec.gson().toJson(snapshot), GameState.GameSnapshot.class);
+
+        byte[] frame = GameCodec.gson().toJson(snapshot).getBytes(StandardCharsets.UTF_8);
+        run("reflective", seconds,
+                () -> EncodedMessage.frame(SyncFrame.Kind.SNAPSHOT, reflective.toJson(snapshot)),
+                () -> reflective.fromJson(new InputStreamReader(new ByteArrayInputStream(frame), StandardCharsets.UTF_8),
+                        GameState.GameSnapshot.class));
+        run("codec", seconds,
+                () -> EncodedMessage.frame(SyncFrame.Kind.SNAPSHOT, GameCodec.gson().toJson(snapshot)),
+                () -> GameCodec.gson().fromJson(new InputStreamReader(new ByteArrayInputStream(frame), StandardCharsets.UTF_8),
+                        GameState.GameSnapshot.class));
+        run("pooled", seconds,
+                () -> EncodedMessage.json(SyncFrame.Kind.SNAPSHOT, snapshot),
+                () -> GameCodec.gson().fromJson(SyncFrame.payloadReader(frame, 0, frame.length), GameState.GameSnapshot.class));
+        System.out.println(BufferPool.shared().getStats());
+        System.exit(0);
+    }
+
+    private static void run(String label, int seconds, Runnable encode, Runnable decode) {
+        // Warm up both directions before timing
+        measure(encode, 1);
+        measure(decode, 1);
+        double[] encodes = measure(encode, seconds);
+        double[] decodes = measure(decode, seconds);
+        System.out.printf("%-10s encode=%.0f/s (%.0f B allocated/op) decode=%.0f/s (%.0f B allocated/op)%n",
+                label, encodes[0], encodes[1], decodes[0], decodes[1]);
+    }
+
+    // Operations per second and heap bytes allocated per operation
+    private static double[] measure(Runnable op, int seconds) {
+        long end = System.nanoTime() + seconds * 1_000_000_000L;
+        long start = System.nanoTime();
+        long allocatedBefore = BufferPool.threadAllocatedBytes();
+        long ops = 0;
+        while (System.nanoTime() < end) {
+            for (int i = 0; i < 100; i++) op.run();
+            ops += 100;
+        }
+        double perSecond = ops / ((System.nanoTime() - start) / 1e9);
+        return new double[] { perSecond, (BufferPool.threadAllocatedBytes() - allocatedBefore) / (double) ops };
+    }
+
+    private static GameState.GameSnapshot sampleSnapshot(int history) {
+        PlayerHistory.HistoryEntry.Type[] types = PlayerHistory.HistoryEntry.Type.values();
+        List<Player> players = new ArrayList<>();
+        for (int i = 1; i <= 4; i++) {
+            Player p = new Player("Player" + i, "#" + i + "0a0f0");
+            p.setId(i);
+            p.setMoney(1500 - i * 40);
+            p.setPos(i * 7);
+            for (int h = 0; h < history; h++) {
+                p.getHistory().addEntry(new PlayerHistory.HistoryEntry(
+                        types[h % types.length], "Turn " + h + " on tile " + (h % GameState.PERIMETER), h * 10));
+            }
+            players.add(p);
+        }
+        Map<Integer, Tile> tiles = new HashMap<>();
+        for (int pos = 0; pos < GameState.PERIMETER; pos++) {
+            Tile t = new Tile(TileType.FREE, "Tile " + pos, pos);
+            if (pos % 3 == 0) {
+                t.setOwner(players.get(pos % players.size()));
+                t.setUpgradeLevel(pos % 4);
+            }
+            tiles.put(pos, t);
+        }
+
+        GameState.GameSnapshot s = new GameState.GameSnapshot();
+        s.version = 500;
+        s.session = 42;
+        s.players = players;
+        s.currentIndex = 2;
+        s.lastRoll = 7;
+        s.dice1 = 3;
+        s.dice2 = 4;
+        s.tiles = tiles;
+        s.rolledThisTurn = true;
+        s.landedOn = 18;
+        s.seed = 0x5eedL;
+        s.randomDraws = new long[] { 1000, 40, 40, 12, 300 };
+        return s;
+    }
+}
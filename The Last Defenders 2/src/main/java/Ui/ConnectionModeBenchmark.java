@@ -0,0 +1,119 @@
+package Ui;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the pooled platform-thread and virtual-thread connection modes of
+ * {@link SocketServer} on loopback: live platform threads, heap in use and the
+ * latency of a broadcast reaching every client.
+ *
+ * Usage: ConnectionModeBenchmark [clients=500] [rounds=200]
+ */
+public class ConnectionModeBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        int port = 27000;
+        for (NetworkSync.ThreadMode mode : NetworkSync.ThreadMode.values()) {
+            run(mode, port++, clients, rounds);
+        }
+        System.exit(0);
+    }
+
+    private static void run(NetworkSync.ThreadMode mode, int port, int clientCount, int rounds) throws Exception {
+        int threadsBefore = ManagementFactory.getThreadMXBean().getThreadCount();
+        long heapBefore = usedHeap();
+
+        SocketServer server = new SocketServer(port, mode);
+        server.start();
+        ExecutorService readers = NetworkSync.newConnectionExecutor(mode);
+        List<Socket> sockets = new ArrayList<>();
+        CountDownLatch connected = new CountDownLatch(clientCount);
+        long[][] latencies = new long[rounds][clientCount];
+        Round round = new Round();
+
+        Thread.sleep(200); // let the accept loop bind
+        for (int i = 0; i < clientCount; i++) {
+            Socket s = new Socket("127.0.0.1", port);
+            sockets.add(s);
+            // Hosts stay silent until a client introduces itself
+            EncodedMessage.frame(SyncFrame.Kind.RESUME).writeTo(s.getOutputStream());
+            int id = i;
+            readers.execute(() -> readLoop(s, id, connected, round, latencies));
+        }
+        if (!connected.await(30, TimeUnit.SECONDS)) {
+            System.out.println(mode + ": only " + (clientCount - connected.getCount()) + " clients connected");
+        }
+
+        int threadsConnected = ManagementFactory.getThreadMXBean().getThreadCount();
+        long heapConnected = usedHeap();
+
+        for (int r = 0; r < rounds; r++) {
+            round.start(r, clientCount);
+            server.broadcastStartGame();
+            round.done.await(10, TimeUnit.SECONDS);
+        }
+
+        long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).filter(v -> v > 0).sorted().toArray();
+        System.out.printf("%-8s clients=%d platformThreads=%d (+%d) heapUsed=%.1fMB (+%.1fMB) p50=%.1fus p99=%.1fus max=%.1fus%n",
+                mode, clientCount, threadsConnected, threadsConnected - threadsBefore,
+                heapConnected / 1e6, (heapConnected - heapBefore) / 1e6,
+                percentile(all, 50) / 1e3, percentile(all, 99) / 1e3,
+                all.length == 0 ? 0 : all[all.length - 1] / 1e3);
+
+        for (Socket s : sockets) {
+            try { s.close(); } catch (IOException ignored) { }
+        }
+        readers.shutdownNow();
+        server.close();
+        Thread.sleep(500);
+    }
+
+    private static void readLoop(Socket s, int id, CountDownLatch connected, Round round, long[][] latencies) {
+        try (BufferedInputStream stream = new BufferedInputStream(s.getInputStream())) {
+            SyncFrame.FrameReader in = new SyncFrame.FrameReader(stream);
+            while (in.next()) {
+                if (in.kind() == SyncFrame.Kind.SNAPSHOT) {
+                    connected.countDown();
+                } else if (in.kind() == SyncFrame.Kind.START) {
+                    latencies[round.index][id] = System.nanoTime() - round.sentAt;
+                    round.done.countDown();
+                }
+            }
+        } catch (IOException ignored) { }
+    }
+
+    private static long usedHeap() {
+        System.gc();
+        Runtime rt = Runtime.getRuntime();
+        return rt.totalMemory() - rt.freeMemory();
+    }
+
+    private static double percentile(long[] sorted, int p) {
+        if (sorted.length == 0) return 0;
+        int idx = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, idx))];
+    }
+
+    private static class Round {
+        volatile int index;
+        volatile long sentAt;
+        volatile CountDownLatch done = new CountDownLatch(0);
+
+        void start(int index, int expected) {
+            this.done = new CountDownLatch(expected);
+            this.index = index;
+            this.sentAt = System.nanoTime();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package Ui;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The most recent DELTA frames a host sent, indexed by the version they produce, so a
+ * client that reconnects can be sent only what it missed. A full snapshot broadcast
+ * breaks the chain and empties the log.
+ */
+public class DeltaLog {
+    private final EncodedMessage[] frames;
+    private long newest;
+    private int count;
+
+    public DeltaLog(int capacity) {
+        this.frames = new EncodedMessage[Math.max(1, capacity)];
+    }
+
+    /** Remember the frame that takes peers from {@code version - 1} to {@code version}. */
+    public synchronized void record(long version, EncodedMessage frame) {
+        if (count > 0 && version != newest + 1) count = 0;
+        frames[slot(version)] = frame;
+        newest = version;
+        count = Math.min(count + 1, frames.length);
+    }
+
+    /** State moved to {@code version} without a delta (full snapshot); nothing older can be replayed. */
+    public synchronized void reset(long version) {
+        newest = version;
+        count = 0;
+    }
+
+    /**
+     * The frames a peer at {@code version} needs to reach the newest version, oldest first,
+     * or null if some of them are no longer held (or the version is from the future).
+     */
+    public synchronized List<EncodedMessage> since(long version) {
+        if (version > newest || newest - version > count) return null;
+        List<EncodedMessage> missed = new ArrayList<>((int) (newest - version));
+        for (long v = version + 1; v <= newest; v++) missed.add(frames[slot(v)]);
+        return missed;
+    }
+
+    private int slot(long version) {
+        return (int) Math.floorMod(version, (long) frames.length);
+    }
+}
@@ -0,0 +1,256 @@
+package Ui;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Remembers the last state both ends of a connection agreed on (the baseline) and
+ * its version, so only what changed since then has to go over the wire.
+ */
+public class DeltaTracker {
+    private long version;
+    private PlayerState[] players = new PlayerState[0];
+    private final Map<Integer, TileState> tiles = new HashMap<>();
+    private int currentIndex, lastRoll, turn, dice1, dice2;
+
+    public synchronized long version() { return version; }
+
+    /**
+     * Diff the live game against the baseline and advance the version. Returns null when
+     * the change is structural (players added/removed/renamed, tiles dropped, history
+     * cleared) and a full snapshot has to be sent instead; the version still advances.
+     */
+    public synchronized GameDelta diff() {
+        return compute(true);
+    }
+
+    /**
+     * Same as {@link #diff()} but leaves the version alone: a client proposes changes
+     * on top of the host's version and only moves forward once the host echoes them.
+     */
+    public synchronized GameDelta diffUpstream() {
+        return compute(false);
+    }
+
+    private GameDelta compute(boolean advance) {
+        GameState gs = GameState.get();
+        GameDelta d = new GameDelta();
+        d.baseVersion = version;
+        d.version = version + 1;
+        d.playerCount = gs.players().size();
+
+        boolean structural = gs.players().size() != players.length;
+        for (int i = 0; !structural && i < players.length; i++) {
+            Player p = gs.players().get(i);
+            PlayerState was = players[i];
+            if (!Objects.equals(was.name, p.getName()) || !Objects.equals(was.color, p.getColor())
+                    || p.getHistory().size() < was.historySize) {
+                structural = true;
+                break;
+            }
+            GameDelta.PlayerChange c = diffPlayer(i, was, p);
+            if (c != null) d.players.add(c);
+        }
+        for (Integer pos : tiles.keySet()) {
+            if (!BoardRegistry.tiles().containsKey(pos)) structural = true;
+        }
+        if (!structural) {
+            for (Tile t : BoardRegistry.tiles().values()) {
+                TileState was = tiles.get(t.getPosition());
+                if (was == null || !was.matches(t)) d.tiles.add(TileState.of(t).toChange());
+            }
+            if (gs.getCurrentIndex() != currentIndex) d.currentIndex = gs.getCurrentIndex();
+            if (gs.getLastRoll() != lastRoll) d.lastRoll = gs.getLastRoll();
+            if (gs.getTurn() != turn) d.turn = gs.getTurn();
+            if (gs.getDice1() != dice1) d.dice1 = gs.getDice1();
+            if (gs.getDice2() != dice2) d.dice2 = gs.getDice2();
+        }
+
+        if (!structural && d.isEmpty()) return d; // nothing to send, keep the version
+        capture(gs);
+        if (advance) version = d.version;
+        return structural ? null : d;
+    }
+
+    /**
+     * Apply a delta received from a peer. Returns false (leaving the game untouched) when
+     * it was based on a different version than ours; the caller should ask for a resync.
+     * Only what the delta carries moves into the baseline: a local change not diffed yet
+     * (one waiting out the coalescing window, or inside an open step) is still ahead of
+     * it, and the next diff sends it.
+     */
+    public synchronized boolean apply(GameDelta d) {
+        if (d == null || d.baseVersion != version) return false;
+        if (!GameState.applyDelta(d)) return false;
+        adopt(d);
+        version = d.version;
+        return true;
+    }
+
+    /**
+     * Take the echo of a delta we proposed with {@link #diffUpstream()} as agreed: its
+     * version becomes ours. Nothing is applied, since the game and the baseline already
+     * have it. False when it does not follow on from our version.
+     */
+    public synchronized boolean acknowledge(GameDelta d) {
+        if (d == null || d.baseVersion != version) return false;
+        version = d.version;
+        return true;
+    }
+
+    /**
+     * Run {@code change} (a peer's move being replayed, say) and move the baseline on by
+     * just what it changed, at {@code newVersion}. As with {@link #apply}, local changes
+     * not diffed yet stay ahead of the baseline.
+     */
+    public synchronized void advance(Runnable change, long newVersion) {
+        DeltaTracker before = new DeltaTracker();
+        before.capture(GameState.get());
+        change.run();
+        GameDelta changed = before.compute(false);
+        // Players added or removed leave nothing to line up against; take all of it
+        if (changed == null) capture(GameState.get());
+        else adopt(changed);
+        version = newVersion;
+    }
+
+    /** Adopt the live game as the new baseline, e.g. after applying a full snapshot. */
+    public synchronized void rebase(long newVersion) {
+        capture(GameState.get());
+        version = newVersion;
+    }
+
+    private GameDelta.PlayerChange diffPlayer(int index, PlayerState was, Player p) {
+        GameDelta.PlayerChange c = new GameDelta.PlayerChange();
+        boolean changed = false;
+        if (p.getHealth() != was.health) { c.health = p.getHealth(); changed = true; }
+        if (p.getMaxHealth() != was.maxHealth) { c.maxHealth = p.getMaxHealth(); changed = true; }
+        if (p.getMoney() != was.money) { c.money = p.getMoney(); changed = true; }
+        if (p.getAttack() != was.attack) { c.attack = p.getAttack(); changed = true; }
+        if (p.getInfluence() != was.influence) { c.influence = p.getInfluence(); changed = true; }
+        if (p.getMedicine() != was.medicine) { c.medicine = p.getMedicine(); changed = true; }
+        if (p.getPos() != was.pos) { c.pos = p.getPos(); changed = true; }
+        if (p.isInQuarantine() != was.inQuarantine) { c.inQuarantine = p.isInQuarantine(); changed = true; }
+        if (p.isLabCureFunded() != was.labCureFunded) { c.labCureFunded = p.isLabCureFunded(); changed = true; }
+        if (p.getLabPassesRemaining() != was.labPassesRemaining) { c.labPassesRemaining = p.getLabPassesRemaining(); changed = true; }
+        if (p.isLabCureComplete() != was.labCureComplete) { c.labCureComplete = p.isLabCureComplete(); changed = true; }
+        if (p.isAI() != was.ai) { c.ai = p.isAI(); changed = true; }
+        if (p.getHistory().size() > was.historySize) {
+            c.historyFrom = was.historySize;
+            c.history = p.getHistory().getHistorySince(was.historySize);
+            changed = true;
+        }
+        if (!changed) return null;
+        c.index = index;
+        return c;
+    }
+
+    // The live values of what {@code d} carries become the baseline's; the rest stays put
+    private void adopt(GameDelta d) {
+        GameState gs = GameState.get();
+        List<Player> list = gs.players();
+        // Otherwise a structural change of our own is pending, and its snapshot covers these
+        if (players.length == list.size()) {
+            for (GameDelta.PlayerChange c : d.players) {
+                if (players[c.index] != null) players[c.index] = players[c.index].adopt(c, list.get(c.index));
+            }
+        }
+        for (GameDelta.TileChange c : d.tiles) {
+            Tile t = BoardRegistry.tiles().get(c.position);
+            if (t != null) tiles.put(c.position, TileState.of(t));
+        }
+        if (d.currentIndex != null) currentIndex = gs.getCurrentIndex();
+        if (d.lastRoll != null) lastRoll = gs.getLastRoll();
+        if (d.turn != null) turn = gs.getTurn();
+        if (d.dice1 != null) dice1 = gs.getDice1();
+        if (d.dice2 != null) dice2 = gs.getDice2();
+    }
+
+    // Only what changed gets a new baseline entry, so a steady-state diff allocates next to nothing
+    private void capture(GameState gs) {
+        List<Player> list = gs.players();
+        if (players.length != list.size()) players = new PlayerState[list.size()];
+        for (int i = 0; i < players.length; i++) {
+            Player p = list.get(i);
+            if (players[i] == null || !players[i].matches(p)) players[i] = PlayerState.of(p);
+        }
+        Map<Integer, Tile> live = BoardRegistry.tiles();
+        if (!live.keySet().containsAll(tiles.keySet())) tiles.keySet().retainAll(live.keySet());
+        for (Tile t : live.values()) {
+            TileState was = tiles.get(t.getPosition());
+            if (was == null || !was.matches(t)) tiles.put(t.getPosition(), TileState.of(t));
+        }
+        currentIndex = gs.getCurrentIndex();
+        lastRoll = gs.getLastRoll();
+        turn = gs.getTurn();
+        dice1 = gs.getDice1();
+        dice2 = gs.getDice2();
+    }
+
+    private record PlayerState(String name, String color, int health, int maxHealth, int money, int attack,
+                               int influence, int medicine, int pos, boolean inQuarantine, boolean labCureFunded,
+                               int labPassesRemaining, boolean labCureComplete, boolean ai, int historySize) {
+        static PlayerState of(Player p) {
+            return new PlayerState(p.getName(), p.getColor(), p.getHealth(), p.getMaxHealth(), p.getMoney(),
+                    p.getAttack(), p.getInfluence(), p.getMedicine(), p.getPos(), p.isInQuarantine(),
+                    p.isLabCureFunded(), p.getLabPassesRemaining(), p.isLabCureComplete(), p.isAI(),
+                    p.getHistory().size());
+        }
+
+        PlayerState adopt(GameDelta.PlayerChange c, Player p) {
+            // Entries past the delta's are our own, still to be sent
+            int history = c.history == null ? historySize
+                    : Math.max(historySize, Math.min(p.getHistory().size(), c.historyFrom + c.history.size()));
+            return new PlayerState(name, color,
+                    c.health != null ? p.getHealth() : health,
+                    c.maxHealth != null ? p.getMaxHealth() : maxHealth,
+                    c.money != null ? p.getMoney() : money,
+                    c.attack != null ? p.getAttack() : attack,
+                    c.influence != null ? p.getInfluence() : influence,
+                    c.medicine != null ? p.getMedicine() : medicine,
+                    c.pos != null ? p.getPos() : pos,
+                    c.inQuarantine != null ? p.isInQuarantine() : inQuarantine,
+                    c.labCureFunded != null ? p.isLabCureFunded() : labCureFunded,
+                    c.labPassesRemaining != null ? p.getLabPassesRemaining() : labPassesRemaining,
+                    c.labCureComplete != null ? p.isLabCureComplete() : labCureComplete,
+                    c.ai != null ? p.isAI() : ai,
+                    history);
+        }
+
+        boolean matches(Player p) {
+            return health == p.getHealth() && maxHealth == p.getMaxHealth() && money == p.getMoney()
+                    && attack == p.getAttack() && influence == p.getInfluence() && medicine == p.getMedicine()
+                    && pos == p.getPos() && inQuarantine == p.isInQuarantine() && labCureFunded == p.isLabCureFunded()
+                    && labPassesRemaining == p.getLabPassesRemaining() && labCureComplete == p.isLabCureComplete()
+                    && ai == p.isAI() && historySize == p.getHistory().size()
+                    && Objects.equals(name, p.getName()) && Objects.equals(color, p.getColor());
+        }
+    }
+
+    private record TileState(int position, TileType type, String name, int ownerId, int upgradeLevel,
+                             boolean canSetPrices) {
+        static TileState of(Tile t) {
+            int ownerId = t.isOwned() ? t.getOwnerId() : 0;
+            return new TileState(t.getPosition(), t.getType(), t.getName(), ownerId, t.getUpgradeLevel(), t.canSetPrices());
+        }
+
+        boolean matches(Tile t) {
+            return position == t.getPosition() && type == t.getType() && ownerId == (t.isOwned() ? t.getOwnerId() : 0)
+                    && upgradeLevel == t.getUpgradeLevel() && canSetPrices == t.canSetPrices()
+                    && Objects.equals(name, t.getName());
+        }
+
+        GameDelta.TileChange toChange() {
+            GameDelta.TileChange c = new GameDelta.TileChange();
+            c.position = position;
+            c.type = type;
+            c.name = name;
+            c.ownerId = ownerId;
+            c.upgradeLevel = upgradeLevel;
+            c.canSetPrices = canSetPrices;
+            return c;
+        }
+    }
+}
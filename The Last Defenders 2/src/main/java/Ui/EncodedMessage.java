@@ -0,0 +1,223 @@
+package Ui;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * An already-encoded wire frame. The bytes are produced once and can be
+ * written to any number of peers without re-serializing.
+ */
+public final class EncodedMessage {
+    private final byte[] bytes;
+    // Shared read-only view; each writer gets its own duplicate
+    private final ByteBuffer view;
+    // Compressed twin, made on first use and shared like the raw bytes; this if not worth it
+    private volatile EncodedMessage compressed;
+
+    private EncodedMessage(byte[] bytes) {
+        this.bytes = bytes;
+        this.view = ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+    }
+
+    /** Frame a payload: kind byte, big-endian length, payload bytes. */
+    public static EncodedMessage frame(SyncFrame.Kind kind, byte[] payload, int off, int len) {
+        return frame(kind.code(), payload, off, len);
+    }
+
+    private static EncodedMessage frame(byte code, byte[] payload, int off, int len) {
+        byte[] b = new byte[SyncFrame.HEADER_BYTES + len];
+        b[0] = code;
+        b[1] = (byte) (len >>> 24);
+        b[2] = (byte) (len >>> 16);
+        b[3] = (byte) (len >>> 8);
+        b[4] = (byte) len;
+        System.arraycopy(payload, off, b, SyncFrame.HEADER_BYTES, len);
+        return new EncodedMessage(b);
+    }
+
+    public static EncodedMessage frame(SyncFrame.Kind kind, String payload) {
+        byte[] p = payload.getBytes(StandardCharsets.UTF_8);
+        return frame(kind, p, 0, p.length);
+    }
+
+    /**
+     * Frame {@code value} as JSON with {@link GameCodec}. The JSON goes as UTF-8 straight
+     * into a pooled array, with no String or char[] in between, and is copied once into
+     * the frame the sockets write; the frame's own bytes are the only garbage left behind.
+     */
+    public static EncodedMessage json(SyncFrame.Kind kind, Object value) {
+        FrameWriter out = new FrameWriter(BufferPool.shared());
+        try {
+            GameCodec.gson().toJson(value, out);
+            return new EncodedMessage(out.toFrame(kind.code()));
+        } finally {
+            out.release();
+        }
+    }
+
+    /** A frame with no payload (START, RESYNC, a fresh RESUME). */
+    public static EncodedMessage frame(SyncFrame.Kind kind) {
+        return frame(kind, new byte[0], 0, 0);
+    }
+
+    public int length() { return bytes.length; }
+
+    /** The frame's kind, or null for a code this build does not know. */
+    public SyncFrame.Kind kind() { return SyncFrame.Kind.of((byte) (bytes[0] & ~SyncCompression.COMPRESSED_FLAG)); }
+
+    /**
+     * This frame for a peer that reads compressed frames: compressed once and cached,
+     * or this same frame when the payload is small or does not shrink.
+     */
+    public EncodedMessage compressed() {
+        EncodedMessage c = compressed;
+        if (c == null) {
+            byte[] payload = (bytes[0] & SyncCompression.COMPRESSED_FLAG) != 0 ? null
+                    : SyncCompression.deflate(bytes, SyncFrame.HEADER_BYTES, bytes.length - SyncFrame.HEADER_BYTES);
+            c = payload == null ? this
+                    : frame((byte) (bytes[0] | SyncCompression.COMPRESSED_FLAG), payload, 0, payload.length);
+            compressed = c;
+        }
+        return c;
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(bytes);
+    }
+
+    /** Reads the payload as UTF-8 text; for uncompressed frames only. */
+    Reader payloadReader() {
+        return SyncFrame.payloadReader(bytes, SyncFrame.HEADER_BYTES, bytes.length - SyncFrame.HEADER_BYTES);
+    }
+
+    /** A fresh read-only view over the shared bytes, positioned at the start. */
+    public ByteBuffer asBuffer() {
+        return view.duplicate();
+    }
+
+    /**
+     * Encodes what it is written as UTF-8 into a pooled array, after room for a frame
+     * header, trading it for a bigger one from the pool when it fills. Not thread-safe;
+     * one per encode.
+     */
+    static final class FrameWriter extends Writer {
+        private final BufferPool pool;
+        private byte[] buf;
+        private int n = SyncFrame.HEADER_BYTES;
+        // First half of a surrogate pair whose second half has not been written yet
+        private char high;
+
+        FrameWriter(BufferPool pool) {
+            this.pool = pool;
+            this.buf = pool.acquire(BufferPool.MIN_BUFFER_BYTES);
+        }
+
+        @Override
+        public void write(int c) {
+            put((char) c);
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            for (int i = off; i < off + len; i++) put(cbuf[i]);
+        }
+
+        @Override
+        public void write(String str, int off, int len) {
+            for (int i = off; i < off + len; i++) put(str.charAt(i));
+        }
+
+        @Override
+        public void write(String str) {
+            write(str, 0, str.length());
+        }
+
+        @Override
+        public Writer append(CharSequence csq) {
+            CharSequence s = csq == null ? "null" : csq;
+            for (int i = 0; i < s.length(); i++) put(s.charAt(i));
+            return this;
+        }
+
+        @Override
+        public Writer append(CharSequence csq, int start, int end) {
+            CharSequence s = csq == null ? "null" : csq;
+            for (int i = start; i < end; i++) put(s.charAt(i));
+            return this;
+        }
+
+        @Override
+        public Writer append(char c) {
+            put(c);
+            return this;
+        }
+
+        private void put(char c) {
+            // The longest a char can take is a surrogate pair's four bytes
+            if (n > buf.length - 4) buf = pool.grow(buf, n, n + 4);
+            if (c < 0x80 && high == 0) {
+                buf[n++] = (byte) c;
+                return;
+            }
+            if (high != 0) {
+                char h = high;
+                high = 0;
+                if (Character.isLowSurrogate(c)) {
+                    int cp = Character.toCodePoint(h, c);
+                    buf[n++] = (byte) (0xF0 | (cp >>> 18));
+                    buf[n++] = (byte) (0x80 | ((cp >>> 12) & 0x3F));
+                    buf[n++] = (byte) (0x80 | ((cp >>> 6) & 0x3F));
+                    buf[n++] = (byte) (0x80 | (cp & 0x3F));
+                    return;
+                }
+                buf[n++] = (byte) '?';
+                put(c);
+            } else if (c < 0x80) {
+                buf[n++] = (byte) c;
+            } else if (c < 0x800) {
+                buf[n++] = (byte) (0xC0 | (c >>> 6));
+                buf[n++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c)) {
+                high = c;
+            } else if (Character.isLowSurrogate(c)) {
+                // Unpaired, as String.getBytes would write it
+                buf[n++] = (byte) '?';
+            } else {
+                buf[n++] = (byte) (0xE0 | (c >>> 12));
+                buf[n++] = (byte) (0x80 | ((c >>> 6) & 0x3F));
+                buf[n++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+
+        /** The whole frame: header for {@code code}, then what was written. */
+        byte[] toFrame(byte code) {
+            if (high != 0) {
+                high = 0;
+                put('?');
+            }
+            int len = n - SyncFrame.HEADER_BYTES;
+            buf[0] = code;
+            buf[1] = (byte) (len >>> 24);
+            buf[2] = (byte) (len >>> 16);
+            buf[3] = (byte) (len >>> 8);
+            buf[4] = (byte) len;
+            return Arrays.copyOf(buf, n);
+        }
+
+        void release() {
+            pool.release(buf);
+            buf = null;
+        }
+
+        @Override
+        public void flush() { }
+
+        @Override
+        public void close() { }
+    }
+}
@@ -26,7 +26,7 @@ public class EventManager {
     }
 
     public static void triggerRandomEvent(Player player) {
-        Random random = new Random();
+        Random random = GameState.randomStream(GameRandom.Stream.EVENT);
         EventData event = events.get(random.nextInt(events.size()));
 
         // Apply effects
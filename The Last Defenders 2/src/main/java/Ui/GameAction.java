@@ -0,0 +1,77 @@
+package Ui;
+
+/**
+ * One player move, sent by a command-mode client as an ACTION frame instead of the state
+ * it would change. The host checks it with {@link GameRules}, broadcasts the resulting
+ * update and echoes the action back to the sender with {@link #rejected} filled in if it
+ * was refused. A lockstep host relays accepted actions to every peer as COMMAND frames.
+ */
+public class GameAction {
+    public enum Type { ROLL, BUY_TILE, UPGRADE, BRIBE, TRADE, END_TURN }
+
+    /** What a Safe Haven sells. */
+    public enum TradeItem { MEDICINE, ATTACK_BOOST, ARMOR }
+
+    public Type type;
+    /** Seat (index into the player list) of the player making the move. */
+    public int player;
+    /** Board position the move is about (BUY_TILE, UPGRADE). */
+    public int position;
+    /** BRIBE: pay it (true) or go to quarantine (false). */
+    public boolean accept;
+    public TradeItem item;
+    /** TRADE: how many (medicine only). */
+    public int amount;
+    /** Set by the host on the echo: null when applied, otherwise why it was refused. */
+    public String rejected;
+    /** Lockstep COMMAND only: the version the move produces; 0 otherwise. */
+    public long version;
+    /** Sender's wall clock when the frame was encoded, for {@link SyncMetrics} latency; 0 if unknown. */
+    public long sentAt;
+
+    public GameAction() { }
+
+    private GameAction(Type type, int player) {
+        this.type = type;
+        this.player = player;
+    }
+
+    public static GameAction roll(int player) {
+        return new GameAction(Type.ROLL, player);
+    }
+
+    public static GameAction endTurn(int player) {
+        return new GameAction(Type.END_TURN, player);
+    }
+
+    public static GameAction buyTile(int player, int position) {
+        GameAction a = new GameAction(Type.BUY_TILE, player);
+        a.position = position;
+        return a;
+    }
+
+    public static GameAction upgrade(int player, int position) {
+        GameAction a = new GameAction(Type.UPGRADE, player);
+        a.position = position;
+        return a;
+    }
+
+    public static GameAction bribe(int player, boolean pay) {
+        GameAction a = new GameAction(Type.BRIBE, player);
+        a.accept = pay;
+        return a;
+    }
+
+    public static GameAction trade(int player, TradeItem item, int amount) {
+        GameAction a = new GameAction(Type.TRADE, player);
+        a.item = item;
+        a.amount = amount;
+        return a;
+    }
+
+    @Override
+    public String toString() {
+        return "GameAction{" + type + ", player=" + player +
+                (rejected != null ? ", rejected='" + rejected + '\'' : "") + '}';
+    }
+}
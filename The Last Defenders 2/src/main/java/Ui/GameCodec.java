@@ -0,0 +1,436 @@
+package Ui;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * The one JSON setup for snapshots, deltas, actions and save files. Snapshots, players,
+ * tiles and history entries are written and read by hand-written streaming adapters
+ * instead of reflection; the field names are the ones reflection produced, so saves and
+ * peers from before read the same. Gson instances are built once and are thread-safe.
+ */
+public final class GameCodec {
+    private static final Gson GSON = new GsonBuilder()
+            .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter().nullSafe())
+            .registerTypeAdapter(PlayerHistory.HistoryEntry.class, new HistoryEntryAdapter().nullSafe())
+            .registerTypeAdapter(Player.class, new PlayerAdapter().nullSafe())
+            .registerTypeAdapter(Tile.class, new TileAdapter().nullSafe())
+            .registerTypeAdapter(GameState.GameSnapshot.class, new SnapshotAdapter().nullSafe())
+            .create();
+    private static final Gson PRETTY = GSON.newBuilder().setPrettyPrinting().create();
+
+    private GameCodec() { }
+
+    /** Compact JSON, for the wire. */
+    public static Gson gson() { return GSON; }
+
+    /** Indented JSON, for save files people may open. */
+    public static Gson prettyGson() { return PRETTY; }
+
+    /**
+     * ISO_LOCAL_DATE_TIME text, written and read digit by digit: every history entry has
+     * a timestamp, and the formatter was most of the cost of a snapshot. Anything outside
+     * the fixed layout (years past 9999, odd input) goes through the formatter as before.
+     */
+    static final class LocalDateTimeAdapter extends TypeAdapter<LocalDateTime> {
+        @Override
+        public void write(JsonWriter out, LocalDateTime value) throws IOException {
+            int year = value.getYear();
+            if (year < 0 || year > 9999) {
+                out.value(value.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+                return;
+            }
+            char[] c = new char[29];
+            digits(c, 0, year, 4);
+            c[4] = '-';
+            digits(c, 5, value.getMonthValue(), 2);
+            c[7] = '-';
+            digits(c, 8, value.getDayOfMonth(), 2);
+            c[10] = 'T';
+            digits(c, 11, value.getHour(), 2);
+            c[13] = ':';
+            digits(c, 14, value.getMinute(), 2);
+            c[16] = ':';
+            digits(c, 17, value.getSecond(), 2);
+            int len = 19;
+            int nano = value.getNano();
+            if (nano != 0) {
+                c[19] = '.';
+                digits(c, 20, nano, 9);
+                // The formatter drops trailing zeros of the fraction
+                len = 29;
+                while (c[len - 1] == '0') len--;
+            }
+            out.value(new String(c, 0, len));
+        }
+
+        @Override
+        public LocalDateTime read(JsonReader in) throws IOException {
+            String s = in.nextString();
+            int len = s.length();
+            if (len >= 19 && len <= 29 && len != 20 && s.charAt(4) == '-' && s.charAt(7) == '-'
+                    && s.charAt(10) == 'T' && s.charAt(13) == ':' && s.charAt(16) == ':'
+                    && (len == 19 || s.charAt(19) == '.')) {
+                int year = number(s, 0, 4), month = number(s, 5, 2), day = number(s, 8, 2);
+                int hour = number(s, 11, 2), minute = number(s, 14, 2), second = number(s, 17, 2);
+                int nano = len == 19 ? 0 : number(s, 20, len - 20);
+                for (int i = len; i < 29; i++) nano *= 10;
+                if ((year | month | day | hour | minute | second | nano) >= 0) {
+                    try {
+                        return LocalDateTime.of(year, month, day, hour, minute, second, nano);
+                    } catch (DateTimeException ignored) {
+                        // Out of range: let the formatter report it
+                    }
+                }
+            }
+            return LocalDateTime.parse(s, DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        }
+
+        private static void digits(char[] c, int at, int value, int width) {
+            for (int i = at + width - 1; i >= at; i--) {
+                c[i] = (char) ('0' + value % 10);
+                value /= 10;
+            }
+        }
+
+        // -1 unless every char is a digit
+        private static int number(String s, int at, int width) {
+            int v = 0;
+            for (int i = at; i < at + width; i++) {
+                int d = s.charAt(i) - '0';
+                if (d < 0 || d > 9) return -1;
+                v = v * 10 + d;
+            }
+            return v;
+        }
+    }
+
+    static final class HistoryEntryAdapter extends TypeAdapter<PlayerHistory.HistoryEntry> {
+        private final LocalDateTimeAdapter time = new LocalDateTimeAdapter();
+
+        @Override
+        public void write(JsonWriter out, PlayerHistory.HistoryEntry e) throws IOException {
+            out.beginObject();
+            if (e.getType() != null) out.name("type").value(e.getType().name());
+            if (e.getDescription() != null) out.name("description").value(e.getDescription());
+            out.name("amount").value(e.getAmount());
+            if (e.getTimestamp() != null) {
+                out.name("timestamp");
+                time.write(out, e.getTimestamp());
+            }
+            out.endObject();
+        }
+
+        @Override
+        public PlayerHistory.HistoryEntry read(JsonReader in) throws IOException {
+            PlayerHistory.HistoryEntry.Type type = null;
+            String description = null;
+            int amount = 0;
+            LocalDateTime timestamp = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    continue;
+                }
+                switch (name) {
+                    case "type" -> type = enumValue(PlayerHistory.HistoryEntry.Type.class, in.nextString());
+                    case "description" -> description = in.nextString();
+                    case "amount" -> amount = in.nextInt();
+                    case "timestamp" -> timestamp = time.read(in);
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return new PlayerHistory.HistoryEntry(type, description, amount, timestamp);
+        }
+    }
+
+    static final class PlayerAdapter extends TypeAdapter<Player> {
+        private final HistoryEntryAdapter entries = new HistoryEntryAdapter();
+
+        @Override
+        public void write(JsonWriter out, Player p) throws IOException {
+            out.beginObject();
+            out.name("id").value(p.getId());
+            if (p.getName() != null) out.name("name").value(p.getName());
+            out.name("health").value(p.getHealth());
+            out.name("maxHealth").value(p.getMaxHealth());
+            out.name("money").value(p.getMoney());
+            out.name("attack").value(p.getAttack());
+            out.name("influence").value(p.getInfluence());
+            out.name("medicine").value(p.getMedicine());
+            out.name("pos").value(p.getPos());
+            if (p.getColor() != null) out.name("color").value(p.getColor());
+            out.name("inQuarantine").value(p.isInQuarantine());
+            out.name("labCureFunded").value(p.isLabCureFunded());
+            out.name("labPassesRemaining").value(p.getLabPassesRemaining());
+            out.name("labCureComplete").value(p.isLabCureComplete());
+            out.name("isAI").value(p.isAI());
+            if (p.getHistory() != null) {
+                out.name("history").beginObject().name("history").beginArray();
+                for (PlayerHistory.HistoryEntry e : p.getHistory().entries()) entries.write(out, e);
+                out.endArray().endObject();
+            }
+            out.endObject();
+        }
+
+        @Override
+        public Player read(JsonReader in) throws IOException {
+            Player p = new Player(null, null);
+            int health = -1;
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    continue;
+                }
+                switch (name) {
+                    case "id" -> p.setId(in.nextInt());
+                    case "name" -> p.setName(in.nextString());
+                    // Clamped against maxHealth, so set once both are known
+                    case "health" -> health = in.nextInt();
+                    case "maxHealth" -> p.setMaxHealth(in.nextInt());
+                    case "money" -> p.setMoney(in.nextInt());
+                    case "attack" -> p.setAttack(in.nextInt());
+                    case "influence" -> p.setInfluence(in.nextInt());
+                    case "medicine" -> p.setMedicine(in.nextInt());
+                    case "pos" -> p.setPos(in.nextInt());
+                    case "color" -> p.setColor(in.nextString());
+                    case "inQuarantine" -> p.setInQuarantine(in.nextBoolean());
+                    case "labCureFunded" -> p.setLabCureFunded(in.nextBoolean());
+                    case "labPassesRemaining" -> p.setLabPassesRemaining(in.nextInt());
+                    case "labCureComplete" -> p.setLabCureComplete(in.nextBoolean());
+                    case "isAI" -> p.setAI(in.nextBoolean());
+                    case "history" -> readHistory(in, p.getHistory());
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            if (health >= 0) p.setHealth(health);
+            return p;
+        }
+
+        private void readHistory(JsonReader in, PlayerHistory history) throws IOException {
+            in.beginObject();
+            while (in.hasNext()) {
+                if (in.nextName().equals("history") && in.peek() == JsonToken.BEGIN_ARRAY) {
+                    in.beginArray();
+                    while (in.hasNext()) history.addEntry(entries.read(in));
+                    in.endArray();
+                } else {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+        }
+    }
+
+    static final class TileAdapter extends TypeAdapter<Tile> {
+        @Override
+        public void write(JsonWriter out, Tile t) throws IOException {
+            out.beginObject();
+            if (t.getType() != null) out.name("type").value(t.getType().name());
+            if (t.getName() != null) out.name("name").value(t.getName());
+            out.name("position").value(t.getPosition());
+            out.name("ownerId").value(t.getOwnerId());
+            out.name("influenceValue").value(t.getInfluenceValue());
+            out.name("isOwned").value(t.isOwned());
+            out.name("upgradeLevel").value(t.getUpgradeLevel());
+            out.name("tradePercentage").value(t.getTradePercentage());
+            out.name("medicineReward").value(t.getMedicineReward());
+            out.name("attackReward").value(t.getAttackReward());
+            out.name("canSetPrices").value(t.canSetPrices());
+            out.endObject();
+        }
+
+        @Override
+        public Tile read(JsonReader in) throws IOException {
+            return read(in, null);
+        }
+
+        /**
+         * Read a tile from a save. Saves from before player ids embed the owning player
+         * instead of naming its id; for those {@code legacyOwner}, if given, is handed the
+         * tile and the embedded player's name (null if it has none) to resolve.
+         */
+        Tile read(JsonReader in, BiConsumer<Tile, String> legacyOwner) throws IOException {
+            TileType type = null;
+            String tileName = null;
+            int position = 0, ownerId = 0, upgradeLevel = 0;
+            boolean owned = false, canSetPrices = false, hasOwnerId = false, embedded = false;
+            String ownerName = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    continue;
+                }
+                switch (name) {
+                    case "type" -> type = enumValue(TileType.class, in.nextString());
+                    case "name" -> tileName = in.nextString();
+                    case "position" -> position = in.nextInt();
+                    case "ownerId" -> {
+                        ownerId = in.nextInt();
+                        hasOwnerId = true;
+                    }
+                    case "owner" -> {
+                        if (legacyOwner == null || in.peek() != JsonToken.BEGIN_OBJECT) {
+                            in.skipValue();
+                            continue;
+                        }
+                        embedded = true;
+                        // Only the name is needed; the rest, history and all, is skipped unread
+                        in.beginObject();
+                        while (in.hasNext()) {
+                            if (in.nextName().equals("name") && in.peek() == JsonToken.STRING) ownerName = in.nextString();
+                            else in.skipValue();
+                        }
+                        in.endObject();
+                    }
+                    case "isOwned" -> owned = in.nextBoolean();
+                    case "upgradeLevel" -> upgradeLevel = in.nextInt();
+                    case "canSetPrices" -> canSetPrices = in.nextBoolean();
+                    // Influence and the Safe Haven rates follow from type and level
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            Tile t = new Tile(type != null ? type : TileType.FREE, tileName, position);
+            t.restoreOwner(ownerId, owned);
+            t.setUpgradeLevel(upgradeLevel);
+            t.setCanSetPrices(canSetPrices);
+            if (embedded && !hasOwnerId && owned) legacyOwner.accept(t, ownerName);
+            return t;
+        }
+    }
+
+    static final class SnapshotAdapter extends TypeAdapter<GameState.GameSnapshot> {
+        private final PlayerAdapter players = new PlayerAdapter();
+        private final TileAdapter tiles = new TileAdapter();
+
+        @Override
+        public void write(JsonWriter out, GameState.GameSnapshot s) throws IOException {
+            out.beginObject();
+            out.name("version").value(s.version);
+            out.name("session").value(s.session);
+            if (s.players != null) {
+                out.name("players").beginArray();
+                for (Player p : s.players) players.write(out, p);
+                out.endArray();
+            }
+            out.name("currentIndex").value(s.currentIndex);
+            out.name("lastRoll").value(s.lastRoll);
+            out.name("turn").value(s.turn);
+            out.name("dice1").value(s.dice1);
+            out.name("dice2").value(s.dice2);
+            if (s.tiles != null) {
+                out.name("tiles").beginObject();
+                for (Map.Entry<Integer, Tile> e : s.tiles.entrySet()) {
+                    out.name(String.valueOf(e.getKey()));
+                    tiles.write(out, e.getValue());
+                }
+                out.endObject();
+            }
+            out.name("rolledThisTurn").value(s.rolledThisTurn);
+            out.name("landedOn").value(s.landedOn);
+            out.name("landingTileUsed").value(s.landingTileUsed);
+            out.name("bribeOwed").value(s.bribeOwed);
+            out.name("seed").value(s.seed);
+            if (s.randomDraws != null) {
+                out.name("randomDraws").beginArray();
+                for (long d : s.randomDraws) out.value(d);
+                out.endArray();
+            }
+            if (s.sentAt != 0) out.name("sentAt").value(s.sentAt);
+            out.endObject();
+        }
+
+        @Override
+        public GameState.GameSnapshot read(JsonReader in) throws IOException {
+            GameState.GameSnapshot s = new GameState.GameSnapshot();
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    continue;
+                }
+                switch (name) {
+                    case "version" -> s.version = in.nextLong();
+                    case "session" -> s.session = in.nextLong();
+                    case "players" -> {
+                        List<Player> list = new ArrayList<>();
+                        in.beginArray();
+                        while (in.hasNext()) list.add(players.read(in));
+                        in.endArray();
+                        s.players = list;
+                    }
+                    case "currentIndex" -> s.currentIndex = in.nextInt();
+                    case "lastRoll" -> s.lastRoll = in.nextInt();
+                    case "turn" -> s.turn = in.nextInt();
+                    case "dice1" -> s.dice1 = in.nextInt();
+                    case "dice2" -> s.dice2 = in.nextInt();
+                    case "tiles" -> {
+                        Map<Integer, Tile> map = new HashMap<>();
+                        in.beginObject();
+                        while (in.hasNext()) {
+                            int key = Integer.parseInt(in.nextName());
+                            map.put(key, tiles.read(in));
+                        }
+                        in.endObject();
+                        s.tiles = map;
+                    }
+                    case "rolledThisTurn" -> s.rolledThisTurn = in.nextBoolean();
+                    case "landedOn" -> s.landedOn = in.nextInt();
+                    case "landingTileUsed" -> s.landingTileUsed = in.nextBoolean();
+                    case "bribeOwed" -> s.bribeOwed = in.nextBoolean();
+                    case "seed" -> s.seed = in.nextLong();
+                    case "randomDraws" -> {
+                        long[] draws = new long[GameRandom.Stream.values().length];
+                        int n = 0;
+                        in.beginArray();
+                        while (in.hasNext()) {
+                            long d = in.nextLong();
+                            if (n == draws.length) draws = Arrays.copyOf(draws, n * 2);
+                            draws[n++] = d;
+                        }
+                        in.endArray();
+                        s.randomDraws = Arrays.copyOf(draws, n);
+                    }
+                    case "sentAt" -> s.sentAt = in.nextLong();
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return s;
+        }
+    }
+
+    // Unknown constants read as null, as reflection did
+    private static <E extends Enum<E>> E enumValue(Class<E> type, String name) {
+        try {
+            return Enum.valueOf(type, name);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
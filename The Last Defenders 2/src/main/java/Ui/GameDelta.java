@@ -0,0 +1,63 @@
+package Ui;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Versioned diff between two synced game states. Only fields that changed are set;
+ * everything left null means "unchanged". Values are absolute (not increments) and
+ * history entries carry their starting index, so applying a delta twice is harmless.
+ */
+public class GameDelta {
+    public long baseVersion;
+    public long version;
+    public int playerCount;
+    // Wall clock of the peer that sent it, for latency figures; 0 if unknown
+    public long sentAt;
+    // Random id of the client that proposed it, which takes the host's echo as its ack; 0 from a host
+    public long origin;
+
+    public Integer currentIndex;
+    public Integer lastRoll;
+    public Integer turn;
+    public Integer dice1;
+    public Integer dice2;
+
+    public List<PlayerChange> players = new ArrayList<>();
+    public List<TileChange> tiles = new ArrayList<>();
+
+    public boolean isEmpty() {
+        return currentIndex == null && lastRoll == null && turn == null && dice1 == null && dice2 == null
+                && players.isEmpty() && tiles.isEmpty();
+    }
+
+    /** Changed fields of the player at {@code index} in the player list. */
+    public static class PlayerChange {
+        public int index;
+        public Integer health;
+        public Integer maxHealth;
+        public Integer money;
+        public Integer attack;
+        public Integer influence;
+        public Integer medicine;
+        public Integer pos;
+        public Boolean inQuarantine;
+        public Boolean labCureFunded;
+        public Integer labPassesRemaining;
+        public Boolean labCureComplete;
+        public Boolean ai;
+        // History entries appended since the base version, starting at historyFrom
+        public int historyFrom;
+        public List<PlayerHistory.HistoryEntry> history;
+    }
+
+    /** Full state of a tile whose ownership or level changed (tiles are tiny). */
+    public static class TileChange {
+        public int position;
+        public TileType type;
+        public String name;
+        public int ownerId; // Player.getId(), 0 when unowned
+        public int upgradeLevel;
+        public boolean canSetPrices;
+    }
+}
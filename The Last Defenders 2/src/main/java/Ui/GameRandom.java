@@ -0,0 +1,82 @@
+package Ui;
+
+import java.io.Serial;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Every random draw the game makes, split into independent streams by purpose so a
+ * draw in one (a scenario card, an AI's mood) never shifts another (the dice). A stream
+ * is a counter run through SplitMix64, so its whole state is the game seed plus how many
+ * draws it has made: that is what lockstep peers share and what snapshots carry.
+ */
+public class GameRandom {
+    public enum Stream { DICE, SCENARIO, SCENARIO_OUTCOME, EVENT, AI }
+
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private volatile long seed;
+    private final Draws[] streams = new Draws[Stream.values().length];
+
+    public GameRandom(long seed) {
+        this.seed = seed;
+        for (Stream s : Stream.values()) streams[s.ordinal()] = new Draws(s.ordinal());
+    }
+
+    public long getSeed() { return seed; }
+
+    /** The stream for {@code purpose}; hand it to code that expects a {@link Random}. */
+    public Random stream(Stream purpose) {
+        return streams[purpose.ordinal()];
+    }
+
+    /** Start every stream over from a new seed. */
+    public void reseed(long newSeed) {
+        seed = newSeed;
+        for (Draws d : streams) d.setCount(0);
+    }
+
+    /** Draws made so far, by {@link Stream} ordinal. */
+    public long[] draws() {
+        long[] counts = new long[streams.length];
+        for (int i = 0; i < streams.length; i++) counts[i] = streams[i].count();
+        return counts;
+    }
+
+    /** Put every stream back where {@link #getSeed()} and {@link #draws()} said it was. */
+    public void restore(long seed, long[] draws) {
+        this.seed = seed;
+        long[] counts = Arrays.copyOf(draws, streams.length);
+        for (int i = 0; i < streams.length; i++) streams[i].setCount(counts[i]);
+    }
+
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    private final class Draws extends Random {
+        // Random is Serializable, though these streams are never serialized
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final long salt;
+        private long count;
+
+        Draws(int index) {
+            super(0);
+            this.salt = mix64((index + 1) * GOLDEN_GAMMA);
+        }
+
+        @Override
+        protected synchronized int next(int bits) {
+            count++;
+            return (int) (mix64(mix64(seed ^ salt) + count * GOLDEN_GAMMA) >>> (64 - bits));
+        }
+
+        synchronized long count() { return count; }
+
+        synchronized void setCount(long count) { this.count = count; }
+    }
+}
@@ -0,0 +1,123 @@
+package Ui;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * One hosted game: its own {@link GameState} (players, board registry, sync) and a
+ * single scheduler thread that does all of the room's work. On that thread
+ * {@link GameState#get()} and {@link BoardRegistry} resolve to this room, so the
+ * existing game code runs unchanged; run anything that touches the room through
+ * {@link #execute}, {@link #call} or {@link #schedule}.
+ */
+public class GameRoom implements AutoCloseable {
+    private static final String[] SEAT_COLORS = {"#ff3b30", "#34c759", "#007aff", "#ffcc00"};
+
+    private final int code;
+    private final int port;
+    private final GameState state = new GameState();
+    private final ScheduledExecutorService scheduler;
+    private final SyncServer server;
+
+    /** Open room {@code code}, its server listening on {@code port}. */
+    public static GameRoom open(int code, int port, NetworkSync.ServerKind serverKind) {
+        GameRoom room = new GameRoom(code, port, serverKind);
+        room.setUp();
+        return room;
+    }
+
+    private GameRoom(int code, int port, NetworkSync.ServerKind serverKind) {
+        this.code = code;
+        this.port = port;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(GameState.bindTo(state, r), "room-" + code);
+            t.setDaemon(true);
+            return t;
+        });
+        // Windowed broadcasts must also run where the room's state lives
+        state.updates().setFlushExecutor(scheduler);
+        this.server = serverKind == NetworkSync.ServerKind.NIO
+                ? new NioSocketServer(port, scheduler)
+                : new SocketServer(port, NetworkSync.getThreadMode(), scheduler);
+    }
+
+    // Hands the room to its thread, so only once it is fully built
+    private void setUp() {
+        execute(() -> {
+            // Seats fill from JOIN frames rather than the built-in demo players
+            state.players().clear();
+            state.setCoopMode(true);
+            state.setHostRole(true);
+            GameState.setSync(server);
+            server.subscribe(new GameSync.GameSyncListener() {
+                @Override
+                public void onUpdate(GameState s) { }
+
+                @Override
+                public void onPlayerJoined(String playerName) {
+                    seat(playerName);
+                }
+
+                @Override
+                public void onStartGame() {
+                    // No host UI here: a peer's START goes to everyone
+                    server.broadcastStartGame();
+                }
+            });
+        });
+        // Peers' frames queue on the room thread behind the set-up above
+        server.start();
+    }
+
+    // Room thread only
+    private void seat(String playerName) {
+        var players = state.players();
+        if (players.size() >= SEAT_COLORS.length) return;
+        for (Player p : players) {
+            if (p.getName().equals(playerName)) return;
+        }
+        Player player = new Player(playerName, SEAT_COLORS[players.size()]);
+        player.setAI(false);
+        players.add(player);
+        GameState.notifyUpdate();
+    }
+
+    /** Tell every connected peer to load the board. */
+    public void start() {
+        execute(server::broadcastStartGame);
+    }
+
+    public int getCode() { return code; }
+    public int getPort() { return port; }
+    public GameState getState() { return state; }
+    public SyncServer getServer() { return server; }
+
+    public void execute(Runnable task) {
+        scheduler.execute(task);
+    }
+
+    /** Run {@code task} on the room thread and hand back its result. */
+    public <T> CompletableFuture<T> call(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(task, scheduler);
+    }
+
+    /** Turn timers, AI delays and the like, run on the room thread. */
+    public ScheduledFuture<?> schedule(Runnable task, long delay, TimeUnit unit) {
+        return scheduler.schedule(task, delay, unit);
+    }
+
+    @Override
+    public void close() {
+        server.close();
+        scheduler.shutdownNow();
+    }
+
+    @Override
+    public String toString() {
+        return "GameRoom{code=" + code + ", port=" + port + '}';
+    }
+}
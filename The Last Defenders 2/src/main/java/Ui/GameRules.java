@@ -0,0 +1,343 @@
+package Ui;
+
+/**
+ * The game's rules without any UI: what a move costs, whether it is allowed and what
+ * it changes. {@link TileEventManager} asks the player and then calls in here; a host
+ * applies {@link GameAction}s from clients through {@link #apply}. Methods that can
+ * refuse return the reason, or null when the move was made.
+ */
+public final class GameRules {
+    static final int CHECKPOST_POSITION = 10;
+    static final int QUARANTINE_POSITION = 30;
+
+    static final int BRIBE_MONEY = 150;
+    static final int BRIBE_MEDICINE = 1;
+    static final int START_MONEY = 200;
+    static final int START_MEDICINE = 2;
+    static final int RESOURCE_MONEY = 100;
+    static final int RESOURCE_MEDICINE = 1;
+
+    static final int SAFE_HAVEN_COST = 1000;
+    static final int SAFE_HAVEN_INFLUENCE = 180;
+    static final int SAFE_HAVEN_UPGRADE_STEP = 500;
+
+    static final int MEDICINE_PRICE = 50;
+    // Most medicine one trade may buy; a client's amount is not trusted further than this
+    static final int MAX_MEDICINE_PER_TRADE = 1000;
+    static final int ATTACK_BOOST_PRICE = 100;
+    static final int ATTACK_BOOST = 10;
+    static final int ARMOR_PRICE = 200;
+    static final int ARMOR_HEALTH = 20;
+
+    private GameRules() { }
+
+    /**
+     * Check {@code action} against the current state and apply it. Every action must come
+     * from the player whose turn it is and, apart from ROLL and END_TURN, be about the
+     * tile this turn's roll landed on. That tile may be bought or upgraded once, and a
+     * turn ends only once its roll has been made and a check-post landing answered.
+     */
+    public static String apply(GameAction action) {
+        GameState state = GameState.get();
+        if (action == null || action.type == null) return "Unknown action";
+        if (state.players().isEmpty()) return "No game in progress";
+        if (action.player != state.getCurrentIndex()) return "Not your turn";
+        Player player = state.current();
+        return switch (action.type) {
+            case ROLL -> {
+                if (state.hasRolledThisTurn()) yield "Already rolled this turn";
+                state.roll();
+                resolveLanding(player, BoardLayout.tileAt(player.getPos()));
+                yield null;
+            }
+            case END_TURN -> {
+                // The roll moves the player and applies the tile; a turn cannot skip it
+                if (!state.hasRolledThisTurn()) yield "Roll before ending your turn";
+                if (state.isBribeOwed()) yield "Answer the check-post before ending your turn";
+                state.endTurn();
+                state.applyStartOfTurnBonuses();
+                yield null;
+            }
+            case BRIBE -> {
+                if (!state.isBribeOwed() || player.getPos() != CHECKPOST_POSITION) yield "Not at the check-post";
+                state.settleBribe();
+                if (action.accept && canPayBribe(player)) {
+                    payBribe(player);
+                    yield null;
+                }
+                sendToQuarantine(player);
+                yield action.accept ? "Not enough money or medicine for the bribe" : null;
+            }
+            case BUY_TILE -> {
+                Tile tile = landingTile(state, player, action.position);
+                if (tile == null) yield "Not the tile you landed on";
+                if (state.isLandingTileUsed()) yield "Already bought or upgraded this turn";
+                if (tile.isOwned()) yield "Already owned";
+                String refused;
+                if (tile.getType() == TileType.SAFEHAVEN) {
+                    refused = buySafeHaven(player, tile);
+                } else {
+                    TerritorySpec spec = TerritoryCatalog.getSpecForPosition(tile.getPosition());
+                    if (tile.getType() != TileType.TERRITORY || spec == null) yield "Not for sale";
+                    refused = claimTerritory(player, tile, spec);
+                }
+                if (refused == null) state.markLandingTileUsed();
+                yield refused;
+            }
+            case UPGRADE -> {
+                Tile tile = landingTile(state, player, action.position);
+                if (tile == null) yield "Not the tile you landed on";
+                if (state.isLandingTileUsed()) yield "Already bought or upgraded this turn";
+                if (!tile.isOwnedBy(player)) yield "Not your tile";
+                String refused;
+                if (tile.getType() == TileType.SAFEHAVEN) {
+                    refused = upgradeSafeHaven(player, tile);
+                } else {
+                    TerritorySpec spec = TerritoryCatalog.getSpecForPosition(tile.getPosition());
+                    if (spec == null) yield "Cannot be upgraded";
+                    refused = upgradeTerritory(player, tile, spec);
+                }
+                if (refused == null) state.markLandingTileUsed();
+                yield refused;
+            }
+            case TRADE -> {
+                Tile tile = landingTile(state, player, player.getPos());
+                if (tile == null || tile.getType() != TileType.SAFEHAVEN) yield "Trading needs a Safe Haven";
+                yield trade(player, action.item, action.amount);
+            }
+        };
+    }
+
+    // The tile at position if this turn's roll landed the player there and they are still on it
+    private static Tile landingTile(GameState state, Player player, int position) {
+        if (state.getLandedOn() != position || player.getPos() != position) return null;
+        return BoardLayout.tileAt(position);
+    }
+
+    /**
+     * What landing on {@code tile} does without asking the player: start bonus, rent,
+     * Safe Haven rewards, zombies and resources. Choices (buying, upgrading, the bribe)
+     * and scenario/event cards are not applied here.
+     */
+    static void resolveLanding(Player player, Tile tile) {
+        switch (tile.getType()) {
+            case START -> collectStart(player);
+            case RESOURCE -> collectResources(player);
+            case ZOMBIE -> zombieHit(tile.getPosition(), player.getAttack()).applyTo(player);
+            case SAFEHAVEN -> {
+                if (tile.isOwned() && !tile.isOwnedBy(player)) collectSafeHavenRewards(player, tile);
+            }
+            case TERRITORY -> {
+                TerritorySpec spec = TerritoryCatalog.getSpecForPosition(tile.getPosition());
+                if (spec != null && tile.isOwned() && !tile.isOwnedBy(player)) payRent(player, tile, spec);
+            }
+            default -> { }
+        }
+        GameState.notifyUpdate();
+    }
+
+    static void collectStart(Player player) {
+        if (player.isInQuarantine()) return;
+        player.addMoney(START_MONEY);
+        player.addMedicine(START_MEDICINE);
+        GameState.notifyUpdate();
+    }
+
+    static void collectResources(Player player) {
+        player.addMoney(RESOURCE_MONEY);
+        player.addMedicine(RESOURCE_MEDICINE);
+        GameState.notifyUpdate();
+    }
+
+    static void collectSafeHavenRewards(Player player, Tile tile) {
+        player.addMedicine(tile.getMedicineReward());
+        player.increaseAttack(tile.getAttackReward());
+        GameState.notifyUpdate();
+    }
+
+    static void payRent(Player player, Tile tile, TerritorySpec spec) {
+        int level = tile.getUpgradeLevel();
+        int rentMedicine = spec.rentMedicine[level];
+        player.spendMoney(spec.rentMoney[level]);
+        if (rentMedicine > 0) player.addMedicine(-rentMedicine);
+        tile.getOwner().addMoney(spec.rentMoney[level]);
+        if ("Hospital".equals(tile.getName())) tile.getOwner().addMedicine(5);
+        GameState.notifyUpdate();
+    }
+
+    /** Damage a zombie tile deals, by board zone and the player's attack. */
+    static ZombieHit zombieHit(int pos, int attack) {
+        if (pos >= 21 && pos <= 29) return new ZombieHit("Residential", attack >= 50 ? 50 : 100, 10);
+        if (pos >= 31 && pos <= 39) return new ZombieHit("Commercial", attack >= 120 ? 75 : 150, 12);
+        if (pos >= 1 && pos <= 9) return new ZombieHit("Industrial", attack >= 200 ? 100 : 200, 16);
+        return new ZombieHit("Military", attack >= 300 ? 120 : 250, 20);
+    }
+
+    static class ZombieHit {
+        final String zone;
+        final int damage;
+        final int attackLoss;
+
+        ZombieHit(String zone, int damage, int attackLoss) {
+            this.zone = zone;
+            this.damage = damage;
+            this.attackLoss = attackLoss;
+        }
+
+        void applyTo(Player player) {
+            player.takeDamage(damage);
+            player.increaseAttack(-attackLoss);
+            GameState.notifyUpdate();
+        }
+    }
+
+    static boolean canPayBribe(Player player) {
+        return player.getMoney() >= BRIBE_MONEY && player.getMedicine() >= BRIBE_MEDICINE;
+    }
+
+    static void payBribe(Player player) {
+        player.spendMoney(BRIBE_MONEY);
+        player.addMedicine(-BRIBE_MEDICINE);
+        GameState.notifyUpdate();
+    }
+
+    static void sendToQuarantine(Player player) {
+        player.setInQuarantine(true);
+        player.setPos(QUARANTINE_POSITION);
+        GameState.notifyUpdate();
+    }
+
+    /**
+     * Buy an unowned territory. Too little attack to clear it costs health and is
+     * reported like any other refusal.
+     */
+    static String claimTerritory(Player player, Tile tile, TerritorySpec spec) {
+        if (player.getInfluence() < spec.influenceRequirement) {
+            return "You need at least " + spec.influenceRequirement + " influence to buy this tile.";
+        }
+        if (player.getAttack() < spec.attackRequirement) {
+            player.takeDamage(spec.failHealthLoss);
+            GameState.notifyUpdate();
+            return "Insufficient attack to secure the area";
+        }
+        if (player.getMoney() < spec.buyCost) {
+            return "You need " + spec.buyCost + "M to restore this tile.";
+        }
+        // buyTile charges the cost and records it in the history
+        player.buyTile(tile, spec.buyCost);
+        tile.setOwner(player);
+        tile.setUpgradeLevel(0);
+        player.increaseInfluence(spec.influenceOnClaim);
+        player.increaseAttack(spec.attackBonusOnClaim);
+        if (spec.medicineBonusOnClaim > 0) player.addMedicine(spec.medicineBonusOnClaim);
+
+        // Radio Tower lets its owner set prices at their Safe Havens
+        if ("Radio Tower".equals(tile.getName())) {
+            BoardRegistry.tiles().values().forEach(t -> {
+                if (t.getType() == TileType.SAFEHAVEN && t.isOwnedBy(player)) {
+                    t.setCanSetPrices(true);
+                }
+            });
+        }
+
+        GameState.notifyUpdate();
+        return null;
+    }
+
+    /** Next territory level, or the reason there is none (Hospital, already level 3). */
+    static String checkTerritoryUpgrade(Tile tile) {
+        if ("Hospital".equals(tile.getName())) return "Hospital cannot be upgraded.";
+        if (tile.getUpgradeLevel() + 1 > 3) return "This base is fully upgraded.";
+        return null;
+    }
+
+    static String upgradeTerritory(Player player, Tile tile, TerritorySpec spec) {
+        String blocked = checkTerritoryUpgrade(tile);
+        if (blocked != null) return blocked;
+        int nextLevel = tile.getUpgradeLevel() + 1;
+        int upgradeCost = spec.upgradeCosts[nextLevel - 1];
+        if (player.getMoney() < upgradeCost) return "You need " + upgradeCost + "M to upgrade.";
+        player.spendMoney(upgradeCost);
+        tile.setUpgradeLevel(nextLevel);
+        player.increaseAttack(spec.perRoundAttack[nextLevel]);
+        if (spec.perRoundMedicine[nextLevel] > 0) player.addMedicine(spec.perRoundMedicine[nextLevel]);
+        GameState.notifyUpdate();
+        return null;
+    }
+
+    static boolean canBuySafeHaven(Player player) {
+        return player.getMoney() >= SAFE_HAVEN_COST && player.getInfluence() >= SAFE_HAVEN_INFLUENCE;
+    }
+
+    static String buySafeHaven(Player player, Tile tile) {
+        if (!canBuySafeHaven(player)) {
+            return "You need " + SAFE_HAVEN_COST + " money and " + SAFE_HAVEN_INFLUENCE + " influence to buy this Safe Haven!";
+        }
+        player.buyTile(tile, SAFE_HAVEN_COST);
+        tile.setOwner(player);
+        GameState.notifyUpdate();
+        return null;
+    }
+
+    static int safeHavenUpgradeCost(Tile tile) {
+        return SAFE_HAVEN_UPGRADE_STEP * (tile.getUpgradeLevel() + 1);
+    }
+
+    static String upgradeSafeHaven(Player player, Tile tile) {
+        int upgradeCost = safeHavenUpgradeCost(tile);
+        if (player.getMoney() < upgradeCost) return "You need " + upgradeCost + " money to upgrade!";
+        player.spendMoney(upgradeCost);
+        tile.setUpgradeLevel(tile.getUpgradeLevel() + 1);
+        GameState.notifyUpdate();
+        return null;
+    }
+
+    /** Buy supplies at the Safe Haven the player is on; its owner gets their cut. */
+    static String trade(Player player, GameAction.TradeItem item, int amount) {
+        if (item == null) return "Nothing to buy";
+        int cost;
+        switch (item) {
+            case MEDICINE -> {
+                if (amount <= 0 || amount > MAX_MEDICINE_PER_TRADE) return "Please enter a valid number!";
+                try {
+                    cost = Math.multiplyExact(amount, MEDICINE_PRICE);
+                } catch (ArithmeticException e) {
+                    return "Please enter a valid number!";
+                }
+                if (player.getMoney() < cost) return "You don't have enough money!";
+                player.spendMoney(cost);
+                player.addMedicine(amount);
+            }
+            case ATTACK_BOOST -> {
+                cost = ATTACK_BOOST_PRICE;
+                if (player.getMoney() < cost) return "You don't have enough money!";
+                player.spendMoney(cost);
+                player.increaseAttack(ATTACK_BOOST);
+            }
+            case ARMOR -> {
+                cost = ARMOR_PRICE;
+                if (player.getMoney() < cost) return "You don't have enough money!";
+                player.spendMoney(cost);
+                player.increaseMaxHealth(ARMOR_HEALTH);
+            }
+            default -> {
+                return "Nothing to buy";
+            }
+        }
+        creditSafeHavenOwnerOnTrade(player, cost);
+        GameState.notifyUpdate();
+        return null;
+    }
+
+    private static void creditSafeHavenOwnerOnTrade(Player buyer, int spend) {
+        // Determine if buyer is on a Safe Haven owned by someone
+        Tile current = BoardRegistry.getOrCreate(buyer.getPos(), TileType.SAFEHAVEN, TileType.SAFEHAVEN.getDisplayName());
+        if (current == null || current.getType() != TileType.SAFEHAVEN) return;
+        if (!current.isOwned()) return;
+        Player owner = current.getOwner();
+        if (owner == null || current.isOwnedBy(buyer)) return;
+        int pct = Math.max(0, Math.min(100, current.getTradePercentage()));
+        int credit = (spend * pct) / 100;
+        if (credit > 0) owner.addMoney(credit);
+    }
+}
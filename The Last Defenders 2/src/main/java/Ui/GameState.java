@@ -3,27 +3,48 @@ package Ui;
 import com.google.gson.*;
 import javafx.beans.property.*;
 import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
-import com.google.gson.reflect.TypeToken;
-import java.lang.reflect.Type;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.List;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
 
 public class GameState {
     private static final GameState INSTANCE = new GameState();
-    public static GameState get() { return INSTANCE; }
+    // Threads that run a hosted room see that room's state instead of the app's
+    private static final ThreadLocal<GameState> BOUND = new ThreadLocal<>();
+    public static GameState get() {
+        GameState bound = BOUND.get();
+        return bound != null ? bound : INSTANCE;
+    }
+
+    /** Wrap a task so that, on whatever thread runs it, {@link #get()} returns {@code state}. */
+    static Runnable bindTo(GameState state, Runnable task) {
+        return () -> {
+            GameState previous = BOUND.get();
+            BOUND.set(state);
+            try {
+                task.run();
+            } finally {
+                if (previous != null) BOUND.set(previous); else BOUND.remove();
+            }
+        };
+    }
 
     public static final int BOARD_SIZE = 11;
     public static final int PERIMETER = 4 * (BOARD_SIZE - 1); // 40
 
     private final ObservableList<Player> players = FXCollections.observableArrayList();
+    // Player id -> player, rebuilt whenever the list changes; ids are small, so an array
+    private Player[] playersById = new Player[0];
     private final IntegerProperty currentIndex = new SimpleIntegerProperty(0);
     private final IntegerProperty lastRoll = new SimpleIntegerProperty(0);
+    // Turns ended since the game began; saves show it in their listing
+    private final IntegerProperty turn = new SimpleIntegerProperty(0);
     private final IntegerProperty dice1 = new SimpleIntegerProperty(0);
     private final IntegerProperty dice2 = new SimpleIntegerProperty(0);
     private final BooleanProperty startGameEnabled = new SimpleBooleanProperty(false);
@@ -32,21 +53,43 @@ public class GameState {
     private boolean isAutoCoop = false;
     private boolean isHostRole = false;
 
-    private final Random rng = new Random();
-    private static final String SAVE_FILE = "savegame.txt";
+    // Every draw the rules make; lockstep peers share its seed
+    private final GameRandom random = new GameRandom(ThreadLocalRandom.current().nextLong());
+    // Set by roll(), cleared by endTurn(); lets a host refuse a second roll
+    private boolean rolledThisTurn;
+    // What this turn's roll still owes: the tile landed on (-1 before the roll), whether
+    // it has been bought or upgraded, and the check-post's bribe-or-quarantine answer
+    private int landedOn = -1;
+    private boolean landingTileUsed;
+    private boolean bribeOwed;
+    private final BoardRegistry board = new BoardRegistry();
+    private static final SaveStore SAVES = new SaveStore(Path.of(SaveStore.DEFAULT_DIRECTORY));
+    // The one save from before slots, binary or older JSON; imported as the slot "savegame"
+    private static final String LEGACY_SLOT = "savegame";
+    private static final String LEGACY_SAVE_FILE = "savegame.sav";
+    private static final String LEGACY_JOURNAL_FILE = "savegame.journal";
+    private static final String LEGACY_JSON_FILE = "savegame.txt";
+    // Open while a single-player game is on the board; every committed change is appended
+    private SaveJournal journal;
+    // The slot this game saves into; set while the journal is open
+    private String saveSlot;
 
     // Optional networking sync. When set, state changes can be broadcast to peers.
-    private static GameSync sync;
+    private GameSync sync;
+    // Our own listener on sync, dropped when sync is replaced
+    private GameSync.Subscription syncSubscription;
+    // Bursts of change notifications go out as one broadcast per step / time window
+    private final UpdateCoalescer updates = new UpdateCoalescer(
+            Long.getLong("sync.coalesceMillis", 20), bindTo(this, this::flushBroadcast));
     private static Integer coopRoomCode = null;
     private static boolean isNetworkHost = false;
     private static int coopPlayerCount = 2;
     private static boolean boardLoaded = false;
     private static String playerName = "Player1";
 
-    private GameState() {
-        // Clear any previous game data on initialization
-        BoardRegistry.clearAll();
-
+    // Package-private so GameRoom can host more than one game; the app uses get()
+    GameState() {
+        players.addListener((ListChangeListener<Player>) change -> indexPlayers());
         // Default 4 players with distinct colors
         players.add(new Player("Alice",   "#ff3b30")); // red
         players.add(new Player("Bob",     "#34c759")); // green
@@ -55,10 +98,33 @@ public class GameState {
     }
 
     public ObservableList<Player> players() { return players; }
+
+    /** The player with {@link Player#getId()} {@code id}, or null. */
+    public Player playerById(int id) {
+        Player[] index = playersById;
+        return id > 0 && id < index.length ? index[id] : null;
+    }
+
+    // Give newcomers (and any clashing id) the next free id, then index everyone by id
+    private void indexPlayers() {
+        int max = 0;
+        for (Player p : players) max = Math.max(max, p.getId());
+        Player[] index = new Player[max + players.size() + 1];
+        for (Player p : players) {
+            if (p.getId() <= 0 || index[p.getId()] != null) p.setId(++max);
+            index[p.getId()] = p;
+        }
+        playersById = index;
+    }
     public int getCurrentIndex() { return currentIndex.get(); }
     public int getLastRoll() { return lastRoll.get(); }
     public IntegerProperty currentIndexProperty() { return currentIndex; }
+    BoardRegistry board() { return board; }
+    public GameRandom getRandom() { return random; }
+    UpdateCoalescer updates() { return updates; }
     public IntegerProperty lastRollProperty() { return lastRoll; }
+    public int getTurn() { return turn.get(); }
+    public IntegerProperty turnProperty() { return turn; }
     public int getDice1() { return dice1.get(); }
     public IntegerProperty dice1Property() { return dice1; }
     public int getDice2() { return dice2.get(); }
@@ -89,6 +155,7 @@ public class GameState {
         players.clear();
         currentIndex.set(0);
         lastRoll.set(0);
+        turn.set(0);
         dice1.set(0);
         dice2.set(0);
         startGameEnabled.set(false);
@@ -96,14 +163,18 @@ public class GameState {
         isCoopMode = false;
         isAutoCoop = false;
         isHostRole = false;
+        rolledThisTurn = false;
+        clearLanding();
     }
 
     public Player current() { return players.get(getCurrentIndex()); }
 
     public int roll() {
-        int d1 = rng.nextInt(6) + 1; // 1–6
-        int d2 = rng.nextInt(6) + 1; // 1–6
+        Random dice = random.stream(GameRandom.Stream.DICE);
+        int d1 = dice.nextInt(6) + 1; // 1–6
+        int d2 = dice.nextInt(6) + 1; // 1–6
         int sum = d1 + d2;           // 2–12
+        rolledThisTurn = true;
         dice1.set(d1);
         dice2.set(d2);
         lastRoll.set(sum);
@@ -111,14 +182,41 @@ public class GameState {
         Player p = current();
         int newPos = (p.getPos() + sum) % PERIMETER;
         p.setPos(newPos);
+        landedOn = newPos;
+        landingTileUsed = false;
+        bribeOwed = newPos == GameRules.CHECKPOST_POSITION;
         broadcastIfPresent();
         return sum;
     }
 
+    public boolean hasRolledThisTurn() { return rolledThisTurn; }
+
+    /** Tile this turn's roll landed on, or -1 before the roll. */
+    public int getLandedOn() { return landedOn; }
+
+    /** The tile landed on has already been bought or upgraded this turn. */
+    public boolean isLandingTileUsed() { return landingTileUsed; }
+
+    void markLandingTileUsed() { landingTileUsed = true; }
+
+    /** The check-post landed on this turn has not had its bribe-or-quarantine answer. */
+    public boolean isBribeOwed() { return bribeOwed; }
+
+    void settleBribe() { bribeOwed = false; }
+
+    private void clearLanding() {
+        landedOn = -1;
+        landingTileUsed = false;
+        bribeOwed = false;
+    }
+
     public void endTurn() {
         // On crossing START, decrement lab passes if cure funded
         Player prev = current();
+        rolledThisTurn = false;
+        clearLanding();
         currentIndex.set((getCurrentIndex() + 1) % players.size());
+        turn.set(getTurn() + 1);
         if (prev.isLabCureFunded() && prev.getPos() == 20) {
             int remaining = prev.getLabPassesRemaining();
             if (remaining > 0) {
@@ -144,7 +242,7 @@ public class GameState {
         boolean ownInd1 = false, ownInd2 = false, ownInd3 = false, ownInd4 = false; // 1,2,4,9
 
         for (Tile t : BoardRegistry.tiles().values()) {
-            if (t.getOwner() != p) continue;
+            if (!t.isOwnedBy(p)) continue;
             int pos = t.getPosition();
             TerritorySpec spec = TerritoryCatalog.getSpecForPosition(pos);
             if (spec != null) {
@@ -211,6 +309,7 @@ public class GameState {
         }
         currentIndex.set(0);
         lastRoll.set(0);
+        turn.set(0);
         dice1.set(0);
         dice2.set(0);
         broadcastIfPresent();
@@ -240,6 +339,7 @@ public class GameState {
         }
         currentIndex.set(0);
         lastRoll.set(0);
+        turn.set(0);
         dice1.set(0);
         dice2.set(0);
         broadcastIfPresent();
@@ -260,122 +360,178 @@ public class GameState {
         }
         currentIndex.set(0);
         lastRoll.set(0);
+        turn.set(0);
         dice1.set(0);
         dice2.set(0);
         broadcastIfPresent();
     }
 
     // --- Save/Load using JSON but into savegame.txt ---
-    public void saveToFile() {
+    /**
+     * Save on the background writer (see {@link SaveService}); returns at once, and the
+     * future completes when the save is on disk.
+     */
+    public CompletableFuture<?> saveToFile() {
         if (isCoopMode) {
             System.out.println("⏭️ Skipping save: co-op mode active");
-            return;
+            return CompletableFuture.completedFuture(null);
         }
-        try (FileWriter writer = new FileWriter(SAVE_FILE)) {
-
-            Gson gson = new GsonBuilder()
-                    .registerTypeAdapter(LocalDateTime.class, new JsonSerializer<LocalDateTime>() {
-                        @Override
-                        public JsonElement serialize(LocalDateTime src, Type typeOfSrc, JsonSerializationContext context) {
-                            return new JsonPrimitive(src.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
-                        }
-                    })
-                    .registerTypeAdapter(LocalDateTime.class, new JsonDeserializer<LocalDateTime>() {
-                        @Override
-                        public LocalDateTime deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context) throws JsonParseException {
-                            return LocalDateTime.parse(json.getAsString(), DateTimeFormatter.ISO_LOCAL_DATE_TIME);
-                        }
-                    })
-                    .setPrettyPrinting()
-                    .create();
-
-            SaveData data = new SaveData(players, getCurrentIndex(), getLastRoll(), BoardRegistry.tiles());
-            gson.toJson(data, writer);
-            System.out.println("✅ Game saved to " + SAVE_FILE);
+        // Only what changed since the journal's last record; a checkpoint the first time
+        CompletableFuture<?> saved = journal == null ? openJournal() : journal.record();
+        String slot = saveSlot;
+        return saved.thenRun(() -> System.out.println("✅ Game saved to " + slot));
+    }
+
+    /** Saved games, newest first, described from their headers alone. */
+    public static List<SaveStore.SlotInfo> listSaves() {
+        try {
+            SAVES.importSave(LEGACY_SLOT, Path.of(LEGACY_SAVE_FILE), Path.of(LEGACY_JOURNAL_FILE));
+            SAVES.importSave(LEGACY_SLOT, Path.of(LEGACY_JSON_FILE), Path.of(LEGACY_JOURNAL_FILE));
         } catch (IOException e) {
-            e.printStackTrace();
+            System.out.println("⚠️ Could not import the old save: " + e);
+        }
+        try {
+            return SAVES.list();
+        } catch (IOException e) {
+            System.out.println("⚠️ Could not list saves: " + e);
+            return List.of();
         }
     }
 
+    /** Load the most recent save. */
     public void loadFromFile() {
-        try (FileReader reader = new FileReader(SAVE_FILE)) {
-
-            Gson gson = new GsonBuilder()
-                    .registerTypeAdapter(LocalDateTime.class, new JsonSerializer<LocalDateTime>() {
-                        @Override
-                        public JsonElement serialize(LocalDateTime src, Type typeOfSrc, JsonSerializationContext context) {
-                            return new JsonPrimitive(src.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
-                        }
-                    })
-                    .registerTypeAdapter(LocalDateTime.class, new JsonDeserializer<LocalDateTime>() {
-                        @Override
-                        public LocalDateTime deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context) throws JsonParseException {
-                            return LocalDateTime.parse(json.getAsString(), DateTimeFormatter.ISO_LOCAL_DATE_TIME);
-                        }
-                    })
-                    .create();
-
-            Type type = new TypeToken<SaveData>() {}.getType();
-            SaveData data = gson.fromJson(reader, type);
-
-            players.clear();
-            players.addAll(data.players);
-            currentIndex.set(data.currentIndex);
-            lastRoll.set(data.lastRoll);
-            // restore tiles/ownership if present
-            try {
-                if (data.tiles != null) {
-                    BoardRegistry.clearAll();
-                    for (Tile t : data.tiles.values()) {
-                        BoardRegistry.tiles().put(t.getPosition(), t);
-                    }
-                    // Fix owner references: match by name since Gson creates new Player instances
-                    for (Tile t : data.tiles.values()) {
-                        if (t.isOwned() && t.getOwner() != null) {
-                            String ownerName = t.getOwner().getName();
-                            Player matchingPlayer = players.stream()
-                                .filter(p -> p.getName().equals(ownerName))
-                                .findFirst()
-                                .orElse(null);
-                            if (matchingPlayer != null) {
-                                t.setOwner(matchingPlayer);
-                            } else {
-                                // If no match, clear ownership
-                                t.setOwner(null);
-                            }
-                        }
-                    }
-                }
-            } catch (Throwable ignore) {}
+        List<SaveStore.SlotInfo> slots = listSaves();
+        if (slots.isEmpty()) {
+            System.out.println("⚠️ No saved game found or failed to load.");
+            return;
+        }
+        loadFromFile(slots.get(0).slot);
+    }
 
-            System.out.println("✅ Game loaded from " + SAVE_FILE);
+    /** Load save slot {@code slot}; this game goes on saving into it. */
+    public void loadFromFile(String slot) {
+        // Loading may rewrite the same files, so the current game stops recording first
+        closeJournal();
+        SaveJournal loaded = null;
+        try {
+            loaded = SAVES.journal(slot);
+            int replayed = loaded.load();
+            journal = loaded;
+            saveSlot = slot;
+            System.out.println("✅ Game loaded from " + slot + " (" + replayed + " journal records)");
         } catch (Exception e) {
+            if (loaded != null) loaded.close();
             System.out.println("⚠️ No saved game found or failed to load.");
             e.printStackTrace();
         }
     }
 
+    /**
+     * Start saving this game as it is played, in a new slot: a checkpoint now, then every
+     * committed change appended to the journal. Does nothing if the journal is already open.
+     */
+    public CompletableFuture<?> openJournal() {
+        if (journal != null) return CompletableFuture.completedFuture(null);
+        String slot = SAVES.newSlot();
+        try {
+            journal = SAVES.journal(slot);
+        } catch (IOException e) {
+            System.out.println("⚠️ Could not create save slot " + slot + ": " + e);
+            return CompletableFuture.failedFuture(e);
+        }
+        saveSlot = slot;
+        return journal.checkpoint();
+    }
+
+    /** Stop journaling, e.g. when the game is left for the lobby; the slot is checkpointed first. */
+    public void closeJournal() {
+        if (journal == null) return;
+        journal.close();
+        journal = null;
+        saveSlot = null;
+    }
+
+    /** The slot this game is saving into, or null if it is not being saved. */
+    public String getSaveSlot() { return saveSlot; }
+
+    /**
+     * Write this game as an indented JSON save, the format from before {@link BinarySave},
+     * for reading or for older builds. Returns at once; the future completes when written.
+     */
+    public CompletableFuture<SaveService.Result> exportJson(Path file) {
+        // No checkpoint id: loaded back, it starts a journal of its own
+        return SaveService.shared().save(file, saveTree(0, 0));
+    }
+
+    // A full JSON save of this game, detached from the live objects
+    JsonElement saveTree(long checkpoint, long version) {
+        SaveData data = new SaveData(players, getCurrentIndex(), getLastRoll(), BoardRegistry.tiles());
+        data.turn = getTurn();
+        data.checkpoint = checkpoint;
+        data.version = version;
+        return GameCodec.gson().toJsonTree(data);
+    }
+
+    // Replace this game with a full save, binary or JSON
+    SaveJournal.Checkpoint readSave(Path file) throws IOException {
+        return readSave(file, null);
+    }
+
+    // As above; a JSON save reports its progress to {@code progress}, if given
+    SaveJournal.Checkpoint readSave(Path file, JsonSaveReader.Progress progress) throws IOException {
+        BinarySave.Contents c = BinarySave.isBinary(file) ? BinarySave.read(file) : JsonSaveReader.read(file, progress);
+        restore(c);
+        return new SaveJournal.Checkpoint(c.checkpoint, c.version);
+    }
+
+    private void restore(BinarySave.Contents c) {
+        players.clear();
+        players.addAll(c.players);
+        currentIndex.set(c.currentIndex);
+        lastRoll.set(c.lastRoll);
+        turn.set(c.turn);
+        java.util.Map<Integer, Tile> tiles = c.tiles;
+        // restore tiles/ownership if present
+        try {
+            if (tiles != null) {
+                BoardRegistry.clearAll();
+                for (Tile t : tiles.values()) {
+                    BoardRegistry.tiles().put(t.getPosition(), t);
+                }
+                dropMissingOwners(tiles);
+            }
+        } catch (Throwable ignore) {}
+    }
+
     // --- Networking helpers ---
     public static GameSync getSync() {
-        return sync;
+        return get().sync;
     }
 
+    /** Sync this game through {@code gameSync} (null for none); the sync it replaces is closed. */
     public static void setSync(GameSync gameSync) {
-        sync = gameSync;
-        if (sync != null) {
-            sync.subscribe(new GameSync.GameSyncListener() {
+        GameState self = get();
+        if (self.syncSubscription != null) {
+            self.syncSubscription.unsubscribe();
+            self.syncSubscription = null;
+        }
+        GameSync previous = self.sync;
+        self.sync = gameSync;
+        if (previous != null && previous != gameSync) previous.close();
+        if (gameSync != null) {
+            self.syncSubscription = gameSync.subscribe(new GameSync.GameSyncListener() {
                 @Override
                 public void onUpdate(GameState state) {
                     // Apply incoming state snapshot to local instance
-                    if (state != null && state != INSTANCE) {
-                        INSTANCE.applyFrom(state);
+                    if (state != null && state != self) {
+                        self.applyFrom(state);
                     }
                 }
 
                 @Override
                 public void onPlayerJoined(String playerName) {
                     // Enable the Start Game button for the host
-                    INSTANCE.enableStartGame();
+                    self.enableStartGame();
                 }
 
                 @Override
@@ -398,15 +554,118 @@ public class GameState {
     public static void setPlayerName(String name) { playerName = name; }
 
     private void broadcastIfPresent() {
-        if (sync != null) {
-            sync.broadcast(this);
+        if (sync != null || journal != null) {
+            updates.request();
         }
     }
 
-    // Public notifier for UI/gameplay code to force a sync broadcast
+    // Public notifier for UI/gameplay code to request a sync broadcast
     public static void notifyUpdate() {
-        if (sync != null) {
-            sync.broadcast(INSTANCE);
+        get().broadcastIfPresent();
+    }
+
+    /**
+     * Open a game step. Notifications inside it are held back and the outermost
+     * {@link #commitStep()} broadcasts the final state once. Always pair in try/finally.
+     */
+    public static void beginStep() {
+        get().updates.beginStep();
+    }
+
+    public static void commitStep() {
+        get().updates.commitStep();
+    }
+
+    /**
+     * Make a rule-checked move (see {@link GameRules}). When the sync sends actions the
+     * move goes to the host, which answers with the resulting update; otherwise it is
+     * applied here as one step. Returns why it was refused, or null if applied or sent.
+     */
+    public static String submit(GameAction action) {
+        GameSync s = getSync();
+        if (s != null && s.sendsActions()) {
+            return s.sendAction(action);
+        }
+        beginStep();
+        try {
+            return GameRules.apply(action);
+        } finally {
+            commitStep();
+        }
+    }
+
+    /**
+     * False when moves go through the sync as actions (a command-mode client, or any
+     * lockstep peer): the rules then run only where the action is applied.
+     */
+    public static boolean appliesRules() {
+        GameSync s = getSync();
+        return s == null || !s.sendsActions();
+    }
+
+    /** The {@code purpose} stream of this game's {@link GameRandom}. */
+    public static Random randomStream(GameRandom.Stream purpose) {
+        return get().random.stream(purpose);
+    }
+
+    /**
+     * A hash of the state lockstep peers must agree on: turn, dice, every player's stats
+     * and position, who owns which tile at what level, and how far the dice stream has
+     * got. Histories and cosmetic fields are left out.
+     */
+    public static long stateHash() {
+        GameState state = get();
+        long h = 0xcbf29ce484222325L;
+        h = mix(h, state.getCurrentIndex());
+        h = mix(h, state.getLastRoll());
+        h = mix(h, state.getDice1());
+        h = mix(h, state.getDice2());
+        h = mix(h, state.rolledThisTurn ? 1 : 0);
+        h = mix(h, state.landedOn);
+        h = mix(h, (state.landingTileUsed ? 1 : 0) | (state.bribeOwed ? 2 : 0));
+        for (Player p : state.players) {
+            h = mix(h, p.getName().hashCode());
+            h = mix(h, p.getMoney());
+            h = mix(h, p.getHealth());
+            h = mix(h, p.getMaxHealth());
+            h = mix(h, p.getAttack());
+            h = mix(h, p.getInfluence());
+            h = mix(h, p.getMedicine());
+            h = mix(h, p.getPos());
+            h = mix(h, p.isInQuarantine() ? 1 : 0);
+        }
+        // Peers create unowned tiles lazily, so only ownership and upgrades count
+        for (Tile t : new TreeMap<>(BoardRegistry.tiles()).values()) {
+            if (!t.isOwned() && t.getUpgradeLevel() == 0) continue;
+            h = mix(h, t.getPosition());
+            h = mix(h, t.getOwnerId());
+            h = mix(h, t.getUpgradeLevel());
+        }
+        return mix(h, state.random.draws()[GameRandom.Stream.DICE.ordinal()]);
+    }
+
+    // FNV-1a over the eight bytes of v
+    private static long mix(long h, long v) {
+        for (int i = 0; i < 8; i++) {
+            h ^= (v >>> (i * 8)) & 0xff;
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    public static UpdateCoalescer getUpdateCoalescer() {
+        return get().updates;
+    }
+
+    private void flushBroadcast() {
+        SaveJournal j = journal;
+        if (j != null) {
+            // Failures are reported by the writer, and the next record retries with a checkpoint
+            j.record();
+        }
+        GameSync s = sync;
+        if (s != null) {
+            s.broadcast(this);
         }
     }
 
@@ -417,6 +676,7 @@ public class GameState {
         players.addAll(other.players);
         currentIndex.set(other.getCurrentIndex());
         lastRoll.set(other.getLastRoll());
+        turn.set(other.getTurn());
         dice1.set(other.getDice1());
         dice2.set(other.getDice2());
         isAIMode = other.isAIMode;
@@ -427,55 +687,130 @@ public class GameState {
 
     // --- Network DTO snapshot helpers ---
     public static class GameSnapshot {
+        public long version;
+        public long session;
         public List<Player> players;
         public int currentIndex;
         public int lastRoll;
+        public int turn;
         public int dice1;
         public int dice2;
         public java.util.Map<Integer, Tile> tiles;
+        public boolean rolledThisTurn;
+        public int landedOn = -1;
+        public boolean landingTileUsed;
+        public boolean bribeOwed;
+        // Random streams, so a peer that joins or resyncs draws what everyone else draws
+        public long seed;
+        public long[] randomDraws;
+        // Wall clock of the host that sent it, for latency figures; 0 in saves
+        public long sentAt;
     }
 
     public static GameSnapshot createSnapshot() {
+        GameState state = get();
         GameSnapshot s = new GameSnapshot();
-        s.players = new java.util.ArrayList<>(INSTANCE.players);
-        s.currentIndex = INSTANCE.getCurrentIndex();
-        s.lastRoll = INSTANCE.getLastRoll();
-        s.dice1 = INSTANCE.getDice1();
-        s.dice2 = INSTANCE.getDice2();
+        s.players = new java.util.ArrayList<>(state.players);
+        s.currentIndex = state.getCurrentIndex();
+        s.lastRoll = state.getLastRoll();
+        s.turn = state.getTurn();
+        s.dice1 = state.getDice1();
+        s.dice2 = state.getDice2();
         s.tiles = new java.util.HashMap<>(BoardRegistry.tiles());
+        s.rolledThisTurn = state.rolledThisTurn;
+        s.landedOn = state.landedOn;
+        s.landingTileUsed = state.landingTileUsed;
+        s.bribeOwed = state.bribeOwed;
+        s.seed = state.random.getSeed();
+        s.randomDraws = state.random.draws();
         return s;
     }
 
     public static void applySnapshot(GameSnapshot s) {
+        GameState state = get();
         if (s == null) return;
         BoardRegistry.clearAll();
-        INSTANCE.players.clear();
-        if (s.players != null) INSTANCE.players.addAll(s.players);
-        INSTANCE.currentIndex.set(Math.max(0, Math.min(Math.max(0, INSTANCE.players.size() - 1), s.currentIndex)));
-        INSTANCE.lastRoll.set(s.lastRoll);
-        INSTANCE.dice1.set(s.dice1);
-        INSTANCE.dice2.set(s.dice2);
+        state.players.clear();
+        if (s.players != null) state.players.addAll(s.players);
+        state.currentIndex.set(Math.max(0, Math.min(Math.max(0, state.players.size() - 1), s.currentIndex)));
+        state.lastRoll.set(s.lastRoll);
+        state.turn.set(s.turn);
+        state.dice1.set(s.dice1);
+        state.dice2.set(s.dice2);
+        state.rolledThisTurn = s.rolledThisTurn;
+        state.landedOn = s.landedOn;
+        state.landingTileUsed = s.landingTileUsed;
+        state.bribeOwed = s.bribeOwed;
+        // Older peers send no streams; keep ours
+        if (s.randomDraws != null) state.random.restore(s.seed, s.randomDraws);
         if (s.tiles != null) {
             for (var e : s.tiles.entrySet()) {
                 BoardRegistry.tiles().put(e.getKey(), e.getValue());
             }
-            // Fix owner references: match by name since Gson creates new Player instances
+            // Owners are player ids; drop any that name no current player
             for (Tile t : s.tiles.values()) {
-                if (t.isOwned() && t.getOwner() != null) {
-                    String ownerName = t.getOwner().getName();
-                    Player matchingPlayer = INSTANCE.players.stream()
-                        .filter(p -> p.getName().equals(ownerName))
-                        .findFirst()
-                        .orElse(null);
-                    if (matchingPlayer != null) {
-                        t.setOwner(matchingPlayer);
-                    } else {
-                        // If no match, clear ownership
-                        t.setOwner(null);
-                    }
+                if (t.isOwned() && state.playerById(t.getOwnerId()) == null) t.setOwner(null);
+            }
+        }
+    }
+
+    /**
+     * Apply a delta produced by {@link DeltaTracker}. Returns false if it does not fit the
+     * local player list, in which case the caller should request a full snapshot.
+     */
+    public static boolean applyDelta(GameDelta d) {
+        GameState state = get();
+        if (d == null || d.playerCount != state.players.size()) return false;
+        for (GameDelta.PlayerChange c : d.players) {
+            if (c.index < 0 || c.index >= state.players.size()) return false;
+        }
+        for (GameDelta.PlayerChange c : d.players) {
+            Player p = state.players.get(c.index);
+            if (c.maxHealth != null) p.setMaxHealth(c.maxHealth);
+            if (c.health != null) p.setHealth(c.health);
+            if (c.money != null) p.setMoney(c.money);
+            if (c.attack != null) p.setAttack(c.attack);
+            if (c.influence != null) p.setInfluence(c.influence);
+            if (c.medicine != null) p.setMedicine(c.medicine);
+            if (c.pos != null) p.setPos(c.pos);
+            if (c.inQuarantine != null) p.setInQuarantine(c.inQuarantine);
+            if (c.labCureFunded != null) p.setLabCureFunded(c.labCureFunded);
+            if (c.labPassesRemaining != null) p.setLabPassesRemaining(c.labPassesRemaining);
+            if (c.labCureComplete != null) p.setLabCureComplete(c.labCureComplete);
+            if (c.ai != null) p.setAI(c.ai);
+            if (c.history != null) {
+                // Skip entries we already have (e.g. our own changes echoed back)
+                int have = p.getHistory().size();
+                for (int i = 0; i < c.history.size(); i++) {
+                    if (c.historyFrom + i >= have) p.getHistory().addEntry(c.history.get(i));
                 }
             }
         }
+        for (GameDelta.TileChange c : d.tiles) {
+            Tile t = BoardRegistry.tiles().get(c.position);
+            if (t == null || t.getType() != c.type) {
+                t = new Tile(c.type, c.name, c.position);
+                BoardRegistry.tiles().put(c.position, t);
+            }
+            t.setOwner(state.playerById(c.ownerId));
+            t.setUpgradeLevel(c.upgradeLevel);
+            t.setCanSetPrices(c.canSetPrices);
+        }
+        if (d.currentIndex != null) {
+            state.currentIndex.set(Math.max(0, Math.min(Math.max(0, state.players.size() - 1), d.currentIndex)));
+        }
+        if (d.lastRoll != null) state.lastRoll.set(d.lastRoll);
+        if (d.turn != null) state.turn.set(d.turn);
+        if (d.dice1 != null) state.dice1.set(d.dice1);
+        if (d.dice2 != null) state.dice2.set(d.dice2);
+        return true;
+    }
+
+    // Saved owners are player ids (JsonSaveReader has already matched legacy ones); drop any naming no one
+    private void dropMissingOwners(java.util.Map<Integer, Tile> tiles) {
+        for (Tile t : tiles.values()) {
+            if (t.isOwned() && playerById(t.getOwnerId()) == null) t.setOwner(null);
+        }
     }
 
     // --- DTO for saving ---
@@ -483,7 +818,11 @@ public class GameState {
         List<Player> players;
         int currentIndex;
         int lastRoll;
+        int turn;
         java.util.Map<Integer, Tile> tiles;
+        // Which checkpoint this is and the version it holds (see SaveJournal); 0 in older saves
+        long checkpoint;
+        long version;
 
         SaveData(List<Player> players, int currentIndex, int lastRoll, java.util.Map<Integer, Tile> tiles) {
             this.players = players;
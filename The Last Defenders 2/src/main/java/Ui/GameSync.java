@@ -1,16 +1,58 @@
 package Ui;
 
+import java.util.concurrent.Executor;
+
 // A simple interface you can later back with sockets/WebSocket/db.
-public interface GameSync {
+public interface GameSync extends AutoCloseable {
     void broadcast(GameState state);
     void broadcastPlayerJoined(String playerName);
     void broadcastStartGame();
-    void subscribe(GameSyncListener listener);
+
+    /** Listen on whichever thread the update arrives on; the returned handle stops it. */
+    default Subscription subscribe(GameSyncListener listener) { return subscribe(listener, null); }
+
+    /**
+     * Listen with callbacks run by {@code executor} (e.g. {@code Platform::runLater} or a
+     * game thread), or inline when it is null. The current state is delivered first.
+     */
+    Subscription subscribe(GameSyncListener listener, Executor executor);
+
+    /** Callback timings, or null where nothing is measured. */
+    default ListenerRegistry.DispatchStats getDispatchStats() { return null; }
+
+    /** Traffic, timings and errors of this endpoint, or null where nothing is measured. */
+    default SyncMetrics getMetrics() { return null; }
+
+    /** True when rule-checked moves go to a host as {@link GameAction}s instead of being applied here. */
+    default boolean sendsActions() { return false; }
+
+    /**
+     * Send a move for the host to validate and apply; only meaningful when {@link #sendsActions()}.
+     * Returns why it was refused if that is already known here, otherwise null.
+     */
+    default String sendAction(GameAction action) { return null; }
+
+    /**
+     * Stop for good: connections are dropped, reconnecting stops and nothing more reaches
+     * listeners or the game. {@link GameState#setSync} closes the sync it replaces.
+     */
+    @Override
+    void close();
+
+    /** A listener's registration; once unsubscribed, nothing more reaches it. */
+    interface Subscription extends AutoCloseable {
+        void unsubscribe();
+
+        @Override
+        default void close() { unsubscribe(); }
+    }
 
     interface GameSyncListener {
         void onUpdate(GameState state);
         void onPlayerJoined(String playerName);
         void onStartGame();
+        /** The host's answer to one of our actions; {@code action.rejected} says why if it was refused. */
+        default void onActionResult(GameAction action) { }
     }
 }
 
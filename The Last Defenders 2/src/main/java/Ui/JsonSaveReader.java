@@ -0,0 +1,172 @@
+package Ui;
+
+import com.google.gson.Strictness;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads a JSON save (savegame.txt, or one from {@link GameState#exportJson}) in a single
+ * streaming pass. Players, their history and tiles are built straight from the
+ * {@link JsonReader} by {@link GameCodec}'s adapters, one at a time, so the file never
+ * sits in memory as text or as a JSON tree next to the game built from it; what a load
+ * holds beyond the game is the reader's buffer.
+ *
+ * Tile owners from saves before player ids are embedded players, matched by name as the
+ * tiles go by. The players come first in every save written so far; should tiles come
+ * first, their owners are matched once the players have been read.
+ */
+public final class JsonSaveReader {
+    /** Told how much of the file has been read as it goes, at most once per percent. */
+    @FunctionalInterface
+    public interface Progress {
+        void update(long bytesRead, long totalBytes);
+    }
+
+    private final GameCodec.PlayerAdapter playerAdapter = new GameCodec.PlayerAdapter();
+    private final GameCodec.TileAdapter tileAdapter = new GameCodec.TileAdapter();
+    private final Progress progress;
+    private final long total;
+    private long read;
+    private long lastPercent = -1;
+
+    private Map<String, Player> byName;
+    // Legacy owners seen before the players, matched afterwards
+    private final Map<Tile, String> unmatched = new LinkedHashMap<>();
+
+    private JsonSaveReader(long total, Progress progress) {
+        this.total = total;
+        this.progress = progress;
+    }
+
+    /** Read {@code file}; {@code progress} may be null. Tiles are null if the save has none. */
+    public static BinarySave.Contents read(Path file, Progress progress) throws IOException {
+        JsonSaveReader reader = new JsonSaveReader(Files.size(file), progress);
+        InputStream bytes = Files.newInputStream(file);
+        if (progress != null) bytes = reader.new CountingStream(bytes);
+        try (JsonReader json = new JsonReader(new InputStreamReader(bytes, StandardCharsets.UTF_8))) {
+            // As lenient as the tree parser it replaces
+            json.setStrictness(Strictness.LENIENT);
+            BinarySave.Contents c = reader.read(json);
+            if (progress != null && reader.lastPercent < 100) progress.update(reader.total, reader.total);
+            return c;
+        }
+    }
+
+    private BinarySave.Contents read(JsonReader in) throws IOException {
+        BinarySave.Contents c = new BinarySave.Contents();
+        c.players = new ArrayList<>();
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+            switch (name) {
+                case "players" -> readPlayers(in, c.players);
+                case "currentIndex" -> c.currentIndex = in.nextInt();
+                case "lastRoll" -> c.lastRoll = in.nextInt();
+                case "turn" -> c.turn = in.nextInt();
+                case "tiles" -> c.tiles = readTiles(in);
+                case "checkpoint" -> c.checkpoint = in.nextLong();
+                case "version" -> c.version = in.nextLong();
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        if (byName == null) indexPlayers(c.players);
+        unmatched.forEach((t, owner) -> t.setOwner(owner == null ? null : byName.get(owner)));
+        for (Player p : c.players) c.playerNames.add(p.getName());
+        return c;
+    }
+
+    private void readPlayers(JsonReader in, List<Player> players) throws IOException {
+        in.beginArray();
+        while (in.hasNext()) players.add(playerAdapter.read(in));
+        in.endArray();
+        indexPlayers(players);
+    }
+
+    private Map<Integer, Tile> readTiles(JsonReader in) throws IOException {
+        Map<Integer, Tile> tiles = new HashMap<>();
+        in.beginObject();
+        while (in.hasNext()) {
+            int key = Integer.parseInt(in.nextName());
+            tiles.put(key, tileAdapter.read(in, (tile, owner) -> {
+                if (byName == null) unmatched.put(tile, owner);
+                else tile.setOwner(owner == null ? null : byName.get(owner));
+            }));
+        }
+        in.endObject();
+        return tiles;
+    }
+
+    /*
+     * Give players from before ids theirs now, the same way GameState will when they are
+     * added (the next free id, in order), so a tile can take its owner's id as it is read.
+     */
+    private void indexPlayers(List<Player> players) {
+        int max = 0;
+        for (Player p : players) max = Math.max(max, p.getId());
+        Set<Integer> taken = new HashSet<>();
+        byName = new HashMap<>();
+        for (Player p : players) {
+            if (p.getId() <= 0 || !taken.add(p.getId())) {
+                p.setId(++max);
+                taken.add(max);
+            }
+            byName.putIfAbsent(p.getName(), p);
+        }
+    }
+
+    private void advance(long n) {
+        read = Math.min(read + n, total);
+        long percent = total == 0 ? 100 : read * 100 / total;
+        if (percent == lastPercent) return;
+        lastPercent = percent;
+        progress.update(read, total);
+    }
+
+    // Counts the bytes handed to the decoder, which runs at most a buffer ahead of the parse
+    private final class CountingStream extends FilterInputStream {
+        CountingStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) advance(1);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) advance(n);
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            advance(skipped);
+            return skipped;
+        }
+    }
+}
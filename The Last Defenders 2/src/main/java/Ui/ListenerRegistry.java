@@ -0,0 +1,175 @@
+package Ui;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The {@link GameSync.GameSyncListener}s of one sync implementation. Network threads
+ * dispatch while the UI subscribes and unsubscribes: the list is copy-on-write, so a
+ * dispatch never takes a lock and never sees a half-updated list. Each subscription has
+ * its own executor (the FX thread, a room thread) or runs inline on the dispatching
+ * thread when it has none. A callback that throws is counted and does not stop the
+ * others; one still queued on its executor when it is unsubscribed is skipped.
+ */
+public final class ListenerRegistry {
+    private final CopyOnWriteArrayList<Registration> registrations = new CopyOnWriteArrayList<>();
+    private final DispatchStats stats = new DispatchStats();
+
+    /** Register {@code listener}; its callbacks run on {@code executor}, or inline when null. */
+    public Registration add(GameSync.GameSyncListener listener, Executor executor) {
+        Registration r = new Registration(listener, executor);
+        registrations.add(r);
+        return r;
+    }
+
+    public void update(GameState state) {
+        for (Registration r : registrations) r.update(state);
+    }
+
+    public void playerJoined(String playerName) {
+        for (Registration r : registrations) r.dispatch(() -> r.listener.onPlayerJoined(playerName));
+    }
+
+    public void startGame() {
+        for (Registration r : registrations) r.dispatch(r.listener::onStartGame);
+    }
+
+    public void actionResult(GameAction action) {
+        for (Registration r : registrations) r.dispatch(() -> r.listener.onActionResult(action));
+    }
+
+    /** Unsubscribe everyone; callbacks still queued on an executor are skipped. */
+    public void clear() {
+        for (Registration r : registrations) r.unsubscribe();
+    }
+
+    /** Listeners currently subscribed. */
+    public int size() { return registrations.size(); }
+
+    public DispatchStats getStats() { return stats; }
+
+    /** One subscribed listener and where its callbacks run. */
+    public final class Registration implements GameSync.Subscription {
+        private final GameSync.GameSyncListener listener;
+        private final Executor executor;
+        private volatile boolean active = true;
+
+        private Registration(GameSync.GameSyncListener listener, Executor executor) {
+            this.listener = listener;
+            this.executor = executor;
+        }
+
+        /** Deliver one update to this listener alone, e.g. the state it subscribed into. */
+        public void update(GameState state) {
+            dispatch(() -> listener.onUpdate(state));
+        }
+
+        private void dispatch(Runnable callback) {
+            if (!active) return;
+            long queuedAt = System.nanoTime();
+            if (executor == null) {
+                run(callback, queuedAt);
+                return;
+            }
+            try {
+                executor.execute(() -> run(callback, queuedAt));
+            } catch (RejectedExecutionException e) {
+                // The executor is shutting down; nobody is left to hear it
+                stats.failures.incrementAndGet();
+            }
+        }
+
+        private void run(Runnable callback, long queuedAt) {
+            if (!active) return;
+            long start = System.nanoTime();
+            try {
+                callback.run();
+            } catch (RuntimeException e) {
+                stats.failures.incrementAndGet();
+                System.out.println("Sync listener failed: " + e);
+            } finally {
+                stats.record(start - queuedAt, System.nanoTime() - start);
+            }
+        }
+
+        public boolean isActive() { return active; }
+
+        @Override
+        public void unsubscribe() {
+            active = false;
+            registrations.remove(this);
+        }
+    }
+
+    /**
+     * How dispatching is going: callbacks run and failed, and for each callback how long it
+     * waited for its executor (the dispatch latency) and how long it ran. Waits are also
+     * kept in power-of-two buckets for percentiles.
+     */
+    public static class DispatchStats {
+        private static final int BUCKETS = 40;
+
+        private final AtomicLong dispatched = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        private final AtomicLong queueNanos = new AtomicLong();
+        private final AtomicLong maxQueueNanos = new AtomicLong();
+        private final AtomicLong runNanos = new AtomicLong();
+        private final AtomicLong maxRunNanos = new AtomicLong();
+        // Bucket i counts waits below 2^i ns
+        private final AtomicLongArray queueBuckets = new AtomicLongArray(BUCKETS);
+
+        void record(long queued, long ran) {
+            dispatched.incrementAndGet();
+            queueNanos.addAndGet(queued);
+            maxQueueNanos.accumulateAndGet(queued, Math::max);
+            runNanos.addAndGet(ran);
+            maxRunNanos.accumulateAndGet(ran, Math::max);
+            queueBuckets.incrementAndGet(Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(Math.max(0, queued))));
+        }
+
+        public long getDispatched() { return dispatched.get(); }
+        public long getFailures() { return failures.get(); }
+        public long getMaxQueueNanos() { return maxQueueNanos.get(); }
+        public long getMaxRunNanos() { return maxRunNanos.get(); }
+
+        public long getMeanQueueNanos() {
+            long n = dispatched.get();
+            return n == 0 ? 0 : queueNanos.get() / n;
+        }
+
+        public long getMeanRunNanos() {
+            long n = dispatched.get();
+            return n == 0 ? 0 : runNanos.get() / n;
+        }
+
+        /** Upper bound of the bucket holding the {@code percentile}th wait, in nanoseconds. */
+        public long getQueuePercentileNanos(double percentile) {
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) total += queueBuckets.get(i);
+            if (total == 0) return 0;
+            long rank = (long) Math.ceil(total * percentile / 100.0);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += queueBuckets.get(i);
+                if (seen >= rank) return 1L << i;
+            }
+            return 1L << (BUCKETS - 1);
+        }
+
+        @Override
+        public String toString() {
+            return "DispatchStats{" +
+                    "dispatched=" + getDispatched() +
+                    ", failures=" + getFailures() +
+                    ", meanQueueMicros=" + getMeanQueueNanos() / 1_000 +
+                    ", p99QueueMicros=" + getQueuePercentileNanos(99) / 1_000 +
+                    ", maxQueueMicros=" + getMaxQueueNanos() / 1_000 +
+                    ", meanRunMicros=" + getMeanRunNanos() / 1_000 +
+                    ", maxRunMicros=" + getMaxRunNanos() / 1_000 +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,373 @@
+package Ui;
+
+import com.google.gson.Gson;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Capacity check for a room host: opens M {@link GameRoom}s on loopback and N
+ * simulated clients spread across them, then plays turns for a fixed time. In every
+ * room the seated clients take turns sending ROLL and END_TURN actions; now and then a
+ * client asks for a RESYNC and is sent a full snapshot. Clients past the four seats
+ * only watch.
+ *
+ * Reports actions per second, frames and bytes delivered, p50/p99 latency from an
+ * action being sent to every client in the room having its update (and from a RESYNC to
+ * its snapshot), the CPU used by the room threads and by the whole process, and heap.
+ * Simulated clients speak the wire protocol directly rather than through
+ * {@link SocketClient}, which applies updates to the app's one {@link GameState}.
+ *
+ * Usage: LoadGenerator [clients=200] [rooms=50] [seconds=20] [server=THREADED|NIO]
+ * (-Dload.resyncEvery=25 sets how many actions pass between resync requests in a room;
+ * -Dsync.lockstep=true and the other sync.* properties apply to the host as usual)
+ */
+public class LoadGenerator {
+    private static final int BASE_PORT = 28000;
+    private static final long ROUND_TIMEOUT_MILLIS = 2000;
+
+    private static final Gson gson = GameCodec.gson();
+    private static final AtomicLong framesReceived = new AtomicLong();
+    private static final AtomicLong bytesReceived = new AtomicLong();
+
+    public static void main(String[] args) throws Exception {
+        int clientCount = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int roomCount = Math.min(clientCount, args.length > 1 ? Integer.parseInt(args[1]) : 50);
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+        NetworkSync.ServerKind serverKind = args.length > 3
+                ? NetworkSync.ServerKind.valueOf(args[3].toUpperCase()) : NetworkSync.getServerKind();
+        int resyncEvery = Integer.getInteger("load.resyncEvery", 25);
+
+        long heapBefore = usedHeap();
+        RoomHost host = new RoomHost(BASE_PORT, serverKind);
+        ExecutorService readers = NetworkSync.newConnectionExecutor(NetworkSync.getThreadMode());
+        List<SimRoom> rooms = new ArrayList<>();
+        for (int r = 0; r < roomCount; r++) rooms.add(new SimRoom(host.open(r + 1)));
+        Thread.sleep(300); // let the accept loops bind
+
+        CountDownLatch connected = new CountDownLatch(clientCount);
+        for (int i = 0; i < clientCount; i++) {
+            SimRoom room = rooms.get(i % roomCount);
+            SimClient client = new SimClient(room, "load" + i);
+            room.clients.add(client);
+            client.connect(connected, readers);
+        }
+        if (!connected.await(60, TimeUnit.SECONDS)) {
+            System.out.println("Only " + (clientCount - connected.getCount()) + " of " + clientCount + " clients connected");
+        }
+        for (SimRoom room : rooms) room.seat();
+        long heapConnected = usedHeap();
+
+        System.out.printf("Running %d clients in %d rooms on %s for %ds%n", clientCount, roomCount, serverKind, seconds);
+        HeapSampler heap = new HeapSampler();
+        long framesBefore = framesReceived.get();
+        long bytesBefore = bytesReceived.get();
+        long roomCpuBefore = roomThreadCpu();
+        long processCpuBefore = processCpu();
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(seconds);
+        ExecutorService drivers = Executors.newFixedThreadPool(roomCount);
+        for (SimRoom room : rooms) drivers.execute(() -> room.drive(deadline, resyncEvery));
+        drivers.shutdown();
+        drivers.awaitTermination(seconds + 60L, TimeUnit.SECONDS);
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        long roomCpu = roomThreadCpu() - roomCpuBefore;
+        long processCpu = processCpu() - processCpuBefore;
+        heap.stop();
+
+        long actions = 0, timeouts = 0, rejected = 0, resyncs = 0;
+        LongList actionLatency = new LongList();
+        LongList snapshotLatency = new LongList();
+        for (SimRoom room : rooms) {
+            actions += room.actions;
+            timeouts += room.timeouts;
+            rejected += room.rejected;
+            resyncs += room.resyncs;
+            actionLatency.addAll(room.actionLatency);
+            snapshotLatency.addAll(room.snapshotLatency);
+        }
+        long[] updates = actionLatency.sorted();
+        long[] snapshots = snapshotLatency.sorted();
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        System.out.printf("actions=%d (%.0f/s) rejected=%d timeouts=%d resyncs=%d%n",
+                actions, actions / elapsed, rejected, timeouts, resyncs);
+        System.out.printf("delivered frames=%d (%.0f/s) bytes=%d (%.1f MB/s)%n",
+                framesReceived.get() - framesBefore, (framesReceived.get() - framesBefore) / elapsed,
+                bytesReceived.get() - bytesBefore, (bytesReceived.get() - bytesBefore) / elapsed / 1e6);
+        System.out.printf("update latency p50=%.2fms p99=%.2fms max=%.2fms (%d deliveries)%n",
+                percentile(updates, 50) / 1e6, percentile(updates, 99) / 1e6,
+                updates.length == 0 ? 0 : updates[updates.length - 1] / 1e6, updates.length);
+        System.out.printf("snapshot latency p50=%.2fms p99=%.2fms (%d resyncs)%n",
+                percentile(snapshots, 50) / 1e6, percentile(snapshots, 99) / 1e6, snapshots.length);
+        // Clients run in this process too, so only the room threads are purely host work
+        System.out.printf("cpu rooms=%.1f%% of one core, process=%.1f%% of %d cores%n",
+                roomCpu / elapsed / 1e7, processCpu / elapsed / 1e7 / cores, cores);
+        System.out.printf("heap before=%.1fMB connected=%.1fMB (+%.1fMB) peak=%.1fMB%n",
+                heapBefore / 1e6, heapConnected / 1e6, (heapConnected - heapBefore) / 1e6, heap.peak / 1e6);
+        GameRoom sample = rooms.get(0).room;
+        System.out.println("room " + sample.getCode() + ": " + sample.getServer().getBroadcastStats());
+        System.out.println("room " + sample.getCode() + ": " + sample.getServer().getQueueStats());
+        System.out.println("room " + sample.getCode() + ": " + sample.getServer().getMetrics());
+
+        for (SimRoom room : rooms) {
+            for (SimClient c : room.clients) c.close();
+        }
+        readers.shutdownNow();
+        host.close();
+        System.exit(0);
+    }
+
+    /** One room and the simulated clients in it; the driver thread plays its turns. */
+    private static class SimRoom {
+        final GameRoom room;
+        final List<SimClient> clients = new ArrayList<>();
+        // Seated clients in seat order
+        final List<SimClient> seats = new ArrayList<>();
+        final LongList actionLatency = new LongList();
+        final LongList snapshotLatency = new LongList();
+        volatile Round round = new Round(0, null, 0);
+        long actions, timeouts, rejected, resyncs;
+
+        SimRoom(GameRoom room) {
+            this.room = room;
+        }
+
+        /** Match clients to the seats the room gave them. */
+        void seat() throws Exception {
+            List<String> names = room.call(() -> GameState.get().players().stream().map(Player::getName).toList())
+                    .get(5, TimeUnit.SECONDS);
+            for (String name : names) {
+                for (SimClient c : clients) {
+                    if (c.name.equals(name)) seats.add(c);
+                }
+            }
+            room.start();
+        }
+
+        void drive(long deadline, int resyncEvery) {
+            if (seats.isEmpty()) return;
+            int turn = 0;
+            int roundId = 0;
+            int sinceResync = 0;
+            try {
+                while (System.nanoTime() < deadline) {
+                    if (resyncEvery > 0 && sinceResync >= resyncEvery) {
+                        SimClient c = clients.get(ThreadLocalRandom.current().nextInt(clients.size()));
+                        if (play(new Round(++roundId, c, 1), c, EncodedMessage.frame(SyncFrame.Kind.RESYNC), snapshotLatency)) {
+                            resyncs++;
+                        }
+                        sinceResync = 0;
+                        continue;
+                    }
+                    SimClient seat = seats.get(turn);
+                    GameAction action = actions % 2 == 0 ? GameAction.roll(turn) : GameAction.endTurn(turn);
+                    EncodedMessage frame = EncodedMessage.json(SyncFrame.Kind.ACTION, action);
+                    if (play(new Round(++roundId, null, clients.size()), seat, frame, actionLatency)) {
+                        actions++;
+                        sinceResync++;
+                        if (action.type == GameAction.Type.END_TURN) turn = (turn + 1) % seats.size();
+                    }
+                }
+            } catch (InterruptedException ignored) {
+            } catch (IOException e) {
+                System.out.println("Room " + room.getCode() + " stopped: " + e.getMessage());
+            }
+        }
+
+        // Send one frame and wait until everyone it should reach has its answer
+        private boolean play(Round r, SimClient from, EncodedMessage frame, LongList latencies)
+                throws IOException, InterruptedException {
+            round = r;
+            r.sentAt = System.nanoTime();
+            from.send(frame);
+            if (!r.done.await(ROUND_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                timeouts++;
+                return false;
+            }
+            if (r.rejected) {
+                rejected++;
+                return false;
+            }
+            synchronized (latencies) {
+                latencies.addAll(r.latencies);
+            }
+            return true;
+        }
+    }
+
+    /** One request in flight in a room and who has seen its answer. */
+    private static class Round {
+        final int id;
+        // Only this client's answer counts (resync); null means every client
+        final SimClient target;
+        final CountDownLatch done;
+        final LongList latencies = new LongList();
+        volatile long sentAt;
+        volatile boolean rejected;
+
+        Round(int id, SimClient target, int expected) {
+            this.id = id;
+            this.target = target;
+            this.done = new CountDownLatch(expected);
+        }
+
+        void arrived(SimClient client) {
+            if (target != null && target != client) return;
+            if (client.lastRound == id) return;
+            client.lastRound = id;
+            long nanos = System.nanoTime() - sentAt;
+            synchronized (latencies) {
+                latencies.add(nanos);
+            }
+            done.countDown();
+        }
+
+        void refused() {
+            rejected = true;
+            while (done.getCount() > 0) done.countDown();
+        }
+    }
+
+    /** A client speaking the sync protocol directly: hello, JOIN, then whatever it is told to send. */
+    private static class SimClient {
+        final SimRoom room;
+        final String name;
+        private Socket socket;
+        private OutputStream out;
+        // Last round this client has answered; only the reader thread writes it
+        volatile int lastRound;
+
+        SimClient(SimRoom room, String name) {
+            this.room = room;
+            this.name = name;
+        }
+
+        void connect(CountDownLatch connected, ExecutorService readers) throws IOException {
+            socket = new Socket("127.0.0.1", room.room.getPort());
+            socket.setTcpNoDelay(true);
+            out = new BufferedOutputStream(socket.getOutputStream());
+            byte[] hello = ByteBuffer.allocate(17).putLong(0).putLong(0)
+                    .put((byte) SyncCompression.capabilities()).array();
+            send(EncodedMessage.frame(SyncFrame.Kind.RESUME, hello, 0, hello.length));
+            send(EncodedMessage.frame(SyncFrame.Kind.JOIN, name));
+            readers.execute(() -> readLoop(connected));
+        }
+
+        synchronized void send(EncodedMessage message) throws IOException {
+            message.writeTo(out);
+            out.flush();
+        }
+
+        private void readLoop(CountDownLatch connected) {
+            boolean first = true;
+            try (BufferedInputStream stream = new BufferedInputStream(socket.getInputStream())) {
+                SyncFrame.FrameReader in = new SyncFrame.FrameReader(stream);
+                while (in.next()) {
+                    framesReceived.incrementAndGet();
+                    bytesReceived.addAndGet(SyncFrame.HEADER_BYTES + in.length());
+                    SyncFrame.Kind kind = in.kind();
+                    if (first && kind == SyncFrame.Kind.SNAPSHOT) {
+                        first = false;
+                        connected.countDown();
+                    }
+                    if (kind == SyncFrame.Kind.ACTION) {
+                        GameAction echo = gson.fromJson(SyncFrame.payloadReader(in.buffer(), 0, in.length()), GameAction.class);
+                        if (echo.rejected != null) room.round.refused();
+                    } else if (kind.isState() && kind != SyncFrame.Kind.HASH) {
+                        room.round.arrived(this);
+                    }
+                }
+            } catch (IOException ignored) { }
+        }
+
+        void close() {
+            try { socket.close(); } catch (IOException | NullPointerException ignored) { }
+        }
+    }
+
+    /** Highest heap use seen while the load ran, sampled twice a second. */
+    private static class HeapSampler {
+        private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "heap-sampler");
+            t.setDaemon(true);
+            return t;
+        });
+        volatile long peak;
+
+        HeapSampler() {
+            timer.scheduleAtFixedRate(() -> peak = Math.max(peak,
+                    ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed()), 0, 500, TimeUnit.MILLISECONDS);
+        }
+
+        void stop() {
+            timer.shutdownNow();
+        }
+    }
+
+    /** Growable list of longs, so a long run does not box every sample. */
+    private static class LongList {
+        private long[] values = new long[1024];
+        private int size;
+
+        void add(long v) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = v;
+        }
+
+        void addAll(LongList other) {
+            for (int i = 0; i < other.size; i++) add(other.values[i]);
+        }
+
+        long[] sorted() {
+            long[] copy = Arrays.copyOf(values, size);
+            Arrays.sort(copy);
+            return copy;
+        }
+    }
+
+    // CPU nanoseconds used so far by the threads that do the rooms' game-state work
+    private static long roomThreadCpu() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long total = 0;
+        for (Thread t : Thread.getAllStackTraces().keySet()) {
+            if (t.getName().startsWith("room-")) total += Math.max(0, threads.getThreadCpuTime(t.threadId()));
+        }
+        return total;
+    }
+
+    private static long processCpu() {
+        if (ManagementFactory.getOperatingSystemMXBean() instanceof com.sun.management.OperatingSystemMXBean os) {
+            return os.getProcessCpuTime();
+        }
+        return 0;
+    }
+
+    private static long usedHeap() {
+        System.gc();
+        Runtime rt = Runtime.getRuntime();
+        return rt.totalMemory() - rt.freeMemory();
+    }
+
+    private static double percentile(long[] sorted, int p) {
+        if (sorted.length == 0) return 0;
+        int idx = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, idx))];
+    }
+}
@@ -10,6 +10,8 @@ import javafx.stage.Stage;
 import javafx.application.Platform;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 
 public class LobbyController {
@@ -66,6 +68,8 @@ public class LobbyController {
     // Data
     private String playerName = "Player1";
     private boolean soundEnabled = true;
+    // Lobby listeners on the room's sync, run on the FX thread and dropped once the board loads
+    private final List<GameSync.Subscription> syncSubscriptions = new ArrayList<>();
 
     @FXML
     private void initialize() {
@@ -152,15 +156,29 @@ public class LobbyController {
         to.setManaged(true);
     }
 
-    // --- Load previous save ---
+    // --- Load previous save: pick a slot, listed from headers only ---
     private void loadPreviousGame() {
-        GameState.get().loadFromFile();
-        loadBoard();
+        List<SaveStore.SlotInfo> saves = GameState.listSaves();
+        if (saves.isEmpty()) {
+            new Alert(Alert.AlertType.INFORMATION, "There are no saved games yet.").showAndWait();
+            return;
+        }
+        ChoiceDialog<SaveStore.SlotInfo> dialog = new ChoiceDialog<>(saves.get(0), saves);
+        dialog.setHeaderText(null);
+        dialog.setTitle("Load Game");
+        dialog.setContentText("Saved game:");
+        dialog.showAndWait().ifPresent(save -> {
+            GameState.get().loadFromFile(save.slot);
+            loadBoard();
+        });
     }
 
 
     // --- Load board.fxml ---
     private void loadBoard() {
+        // The board subscribes for itself; a second start event must not load it again
+        syncSubscriptions.forEach(GameSync.Subscription::unsubscribe);
+        syncSubscriptions.clear();
         try {
             Parent root = FXMLLoader.load(Objects.requireNonNull(getClass().getResource("/Ui/Board.fxml")));
             Stage stage = null;
@@ -272,7 +290,7 @@ public class LobbyController {
         GameState.setNetworkHost(false);
         NetworkSync ns = new NetworkSync(false, hostIp, port);
         final java.util.concurrent.atomic.AtomicBoolean joinAnnounced = new java.util.concurrent.atomic.AtomicBoolean(false);
-        ns.subscribe(new GameSync.GameSyncListener() {
+        syncSubscriptions.add(ns.subscribe(new GameSync.GameSyncListener() {
             @Override
             public void onUpdate(GameState state) {
                 // Notify host once that this client has joined
@@ -288,12 +306,10 @@ public class LobbyController {
 
             @Override
             public void onStartGame() {
-                Platform.runLater(() -> {
-                    // Client loads board directly (names are synced from host)
-                    loadBoard();
-                });
+                // Client loads board directly (names are synced from host)
+                loadBoard();
             }
-        });
+        }, Platform::runLater));
         GameState.setSync(ns);
         showWaitingScreen(coopSubMenu, false, 0); // Client doesn't know player count yet
     }
@@ -395,25 +411,6 @@ public class LobbyController {
             "Waiting for " + (playerCount - 1) + " more player(s) to join...\nRoom Code: " + String.format("%04d", GameState.getCoopRoomCode()) :
             "Waiting for host to start the game...");
 
-        if (!isHost) {
-            // Client subscribes to sync for updates
-            GameState.getSync().subscribe(new GameSync.GameSyncListener() {
-                @Override
-                public void onUpdate(GameState state) {}
-
-                @Override
-                public void onPlayerJoined(String playerName) {}
-
-                @Override
-                public void onStartGame() {
-                    Platform.runLater(() -> {
-                        // Client loads board directly (names are synced from host)
-                        loadBoard();
-                    });
-                }
-            });
-        }
-
         switchMenu(from, waitingSubMenu);
     }
 
@@ -444,21 +441,19 @@ public class LobbyController {
 
         // For auto-coop, subscribe listener immediately to handle early client connections
         if (GameState.get().isAutoCoop()) {
-            GameState.getSync().subscribe(new GameSync.GameSyncListener() {
+            syncSubscriptions.add(GameState.getSync().subscribe(new GameSync.GameSyncListener() {
                 @Override
                 public void onUpdate(GameState state) {}
 
                 @Override
                 public void onPlayerJoined(String playerName) {
-                    Platform.runLater(() -> {
-                        // Auto-start with default names
-                        autoStartGame();
-                    });
+                    // Auto-start with default names
+                    autoStartGame();
                 }
 
                 @Override
                 public void onStartGame() {}
-            });
+            }, Platform::runLater));
         }
 
         // Go to waiting screen
@@ -478,7 +473,7 @@ public class LobbyController {
         // Start client sync and go to waiting screen
         GameState.get().setCoopMode(true);
         NetworkSync ns = new NetworkSync(false, "127.0.0.1", port);
-        ns.subscribe(new GameSync.GameSyncListener() {
+        syncSubscriptions.add(ns.subscribe(new GameSync.GameSyncListener() {
             @Override
             public void onUpdate(GameState state) {
                 // Client joined successfully
@@ -489,12 +484,10 @@ public class LobbyController {
 
             @Override
             public void onStartGame() {
-                Platform.runLater(() -> {
-                    // Client auto-starts game with default names
-                    autoStartGame();
-                });
+                // Client auto-starts game with default names
+                autoStartGame();
             }
-        });
+        }, Platform::runLater));
         GameState.setSync(ns);
         showWaitingScreen(coopSubMenu, false, 0); // Client waits for host
     }
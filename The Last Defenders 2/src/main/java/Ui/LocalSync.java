@@ -1,33 +1,54 @@
 package Ui;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.concurrent.Executor;
 
 // Local in-memory sync (single-JVM). Swap this later with real networking.
 public class LocalSync implements GameSync {
-    private final List<GameSyncListener> listeners = new ArrayList<>();
+    private final ListenerRegistry listeners = new ListenerRegistry();
+    // Nothing is encoded here, so only message counts; bytes stay 0
+    private final SyncMetrics metrics = new SyncMetrics();
+
+    public LocalSync() {
+        MetricsEndpoint.publish("local", metrics);
+    }
 
     @Override
     public void broadcast(GameState state) {
         // push updates to all listeners
-        for (var l : listeners) l.onUpdate(state);
+        metrics.recordOut(SyncFrame.Kind.SNAPSHOT, 0);
+        listeners.update(state);
     }
 
     @Override
     public void broadcastPlayerJoined(String playerName) {
-        for (var l : listeners) l.onPlayerJoined(playerName);
+        metrics.recordOut(SyncFrame.Kind.JOIN, 0);
+        listeners.playerJoined(playerName);
     }
 
     @Override
     public void broadcastStartGame() {
-        for (var l : listeners) l.onStartGame();
+        metrics.recordOut(SyncFrame.Kind.START, 0);
+        listeners.startGame();
     }
 
     @Override
-    public void subscribe(GameSyncListener listener) {
-        listeners.add(listener);
+    public Subscription subscribe(GameSyncListener listener, Executor executor) {
+        ListenerRegistry.Registration r = listeners.add(listener, executor);
         // initial snapshot
-        listener.onUpdate(GameState.get());
+        r.update(GameState.get());
+        return r;
+    }
+
+    @Override
+    public ListenerRegistry.DispatchStats getDispatchStats() { return listeners.getStats(); }
+
+    @Override
+    public SyncMetrics getMetrics() { return metrics; }
+
+    @Override
+    public void close() {
+        listeners.clear();
+        MetricsEndpoint.unpublish(metrics);
     }
 }
 
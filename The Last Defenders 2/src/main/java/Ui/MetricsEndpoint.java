@@ -0,0 +1,74 @@
+package Ui;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The {@link SyncMetrics} of every live sync endpoint in this process, under a name
+ * such as {@code host:20000}. With {@code -Dsync.metricsPort=<port>} they are also
+ * served as JSON at {@code http://127.0.0.1:<port>/metrics}, loopback only; without it
+ * nothing is kept and publishing costs nothing.
+ */
+public final class MetricsEndpoint {
+    private static final int PORT = Integer.getInteger("sync.metricsPort", 0);
+    private static final Map<String, SyncMetrics> published = new LinkedHashMap<>();
+    private static HttpServer server;
+
+    private MetricsEndpoint() { }
+
+    public static boolean isEnabled() { return PORT > 0; }
+
+    /** List {@code metrics} under {@code name} (made unique if taken) until {@link #unpublish}. */
+    public static synchronized void publish(String name, SyncMetrics metrics) {
+        if (!isEnabled()) return;
+        String key = name;
+        for (int n = 2; published.containsKey(key); n++) key = name + "#" + n;
+        published.put(key, metrics);
+        if (server == null) start();
+    }
+
+    public static synchronized void unpublish(SyncMetrics metrics) {
+        published.values().removeIf(m -> m == metrics);
+    }
+
+    /** A report from every published endpoint, by name. */
+    public static synchronized Map<String, SyncMetrics.Report> reports() {
+        Map<String, SyncMetrics.Report> out = new LinkedHashMap<>();
+        published.forEach((name, m) -> out.put(name, m.report()));
+        return out;
+    }
+
+    private static void start() {
+        try {
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), PORT), 0);
+            server.createContext("/metrics", exchange -> {
+                byte[] body = GameCodec.prettyGson().toJson(reports()).getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            });
+            // The dispatcher thread takes its daemon flag from the thread that starts it;
+            // started from here it would keep the game running after its window closes
+            Thread starter = new Thread(server::start, "sync-metrics-start");
+            starter.setDaemon(true);
+            starter.start();
+            starter.join();
+            System.out.println("Sync metrics at http://127.0.0.1:" + PORT + "/metrics");
+        } catch (IOException e) {
+            System.out.println("Could not serve sync metrics on port " + PORT + ": " + e);
+        } catch (InterruptedException e) {
+            // The server may be up regardless; the caller's thread still wants to know
+            Thread.currentThread().interrupt();
+            System.out.println("Interrupted starting sync metrics on port " + PORT);
+        }
+    }
+}
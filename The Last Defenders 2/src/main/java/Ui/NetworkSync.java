@@ -1,11 +1,111 @@
 package Ui;
 
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 /**
  * Minimal TCP-based sync: host accepts one or more clients; all state updates are
  * serialized via Gson and broadcast to all peers. Joining peer gets a full snapshot
  * and then live updates.
  */
 public class NetworkSync implements GameSync {
+    /** How a host drives its sockets. */
+    public enum ServerKind {
+        /** One blocking reader thread per client ({@link SocketServer}). */
+        THREADED,
+        /** One selector thread for all clients ({@link NioSocketServer}). */
+        NIO
+    }
+
+    // Can be overridden with -Dsync.server=nio
+    private static ServerKind serverKind =
+            "nio".equalsIgnoreCase(System.getProperty("sync.server")) ? ServerKind.NIO : ServerKind.THREADED;
+
+    public static ServerKind getServerKind() { return serverKind; }
+    public static void setServerKind(ServerKind kind) { serverKind = kind; }
+
+    /** Which threads run blocking connection handlers in SocketServer/SocketClient. */
+    public enum ThreadMode {
+        /** Cached pool of platform threads. */
+        POOLED,
+        /** One virtual thread per connection/task (Java 21). */
+        VIRTUAL
+    }
+
+    // Can be overridden with -Dsync.threads=virtual
+    private static ThreadMode threadMode =
+            "virtual".equalsIgnoreCase(System.getProperty("sync.threads")) ? ThreadMode.VIRTUAL : ThreadMode.POOLED;
+
+    public static ThreadMode getThreadMode() { return threadMode; }
+    public static void setThreadMode(ThreadMode mode) { threadMode = mode; }
+
+    /** What a host does when a client's outbound queue is full. */
+    public enum SlowConsumerPolicy {
+        /** Throw away the client's backlog and queue one fresh full snapshot instead. */
+        SKIP_TO_LATEST,
+        /** Drop the new update; disconnect once too many have been dropped. */
+        DISCONNECT
+    }
+
+    // Can be overridden with -Dsync.slowConsumer=disconnect, -Dsync.maxQueue and -Dsync.maxDrops
+    private static SlowConsumerPolicy slowConsumerPolicy =
+            "disconnect".equalsIgnoreCase(System.getProperty("sync.slowConsumer"))
+                    ? SlowConsumerPolicy.DISCONNECT : SlowConsumerPolicy.SKIP_TO_LATEST;
+    private static int maxQueuedMessages = Integer.getInteger("sync.maxQueue", 256);
+    private static int maxDroppedUpdates = Integer.getInteger("sync.maxDrops", 64);
+
+    public static SlowConsumerPolicy getSlowConsumerPolicy() { return slowConsumerPolicy; }
+    public static void setSlowConsumerPolicy(SlowConsumerPolicy policy) { slowConsumerPolicy = policy; }
+    /** Frames a host will hold for one client before the slow-consumer policy kicks in. */
+    public static int getMaxQueuedMessages() { return maxQueuedMessages; }
+    public static void setMaxQueuedMessages(int max) { maxQueuedMessages = Math.max(1, max); }
+    /** Updates a client may miss under {@link SlowConsumerPolicy#DISCONNECT} before it is dropped. */
+    public static int getMaxDroppedUpdates() { return maxDroppedUpdates; }
+    public static void setMaxDroppedUpdates(int max) { maxDroppedUpdates = Math.max(0, max); }
+
+    // Can be overridden with -Dsync.commands=true
+    private static boolean commandMode = Boolean.getBoolean("sync.commands");
+
+    /** Whether new clients send their moves as {@link GameAction}s rather than as changed state. */
+    public static boolean isCommandMode() { return commandMode; }
+    public static void setCommandMode(boolean on) { commandMode = on; }
+
+    // Can be overridden with -Dsync.lockstep=true and -Dsync.hashEvery=<versions>
+    private static boolean lockstep = Boolean.getBoolean("sync.lockstep");
+    private static int hashEvery = Integer.getInteger("sync.hashEvery", 16);
+
+    /**
+     * Whether a new host runs lockstep: it sends a seed and the accepted moves, and every
+     * peer applies them with the same rules and random streams (see {@link GameRandom}).
+     */
+    public static boolean isLockstep() { return lockstep; }
+    public static void setLockstep(boolean on) { lockstep = on; }
+    /** A lockstep host sends its state hash after every this many versions. */
+    public static int getHashEvery() { return hashEvery; }
+    public static void setHashEvery(int versions) { hashEvery = Math.max(1, versions); }
+
+    // Can be overridden with -Dsync.spectate=true
+    private static boolean spectate = Boolean.getBoolean("sync.spectate");
+
+    /** Whether new clients join read-only, as spectators ({@link SyncFrame#CAP_SPECTATOR}). */
+    public static boolean isSpectating() { return spectate; }
+    public static void setSpectating(boolean on) { spectate = on; }
+
+    // Can be overridden with -Dsync.pingMillis=<millis>; 0 turns pings off
+    private static long pingMillis = Long.getLong("sync.pingMillis", 2000);
+
+    /** How often a new client pings its host while idle, to measure round trips ({@link SyncMetrics}). */
+    public static long getPingMillis() { return pingMillis; }
+    public static void setPingMillis(long millis) { pingMillis = Math.max(0, millis); }
+
+    /** Executor for connection handlers in the given mode. */
+    static ExecutorService newConnectionExecutor(ThreadMode mode) {
+        return mode == ThreadMode.VIRTUAL
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newCachedThreadPool();
+    }
+
     private final boolean isHost;
     private final String host;
     private final int port;
@@ -16,9 +116,11 @@ public class NetworkSync implements GameSync {
         this.host = host;
         this.port = port;
         if (isHost) {
-            delegate = new SocketServer(port);
+            SyncServer server = serverKind == ServerKind.NIO ? new NioSocketServer(port) : new SocketServer(port);
+            server.start();
+            delegate = server;
         } else {
-            delegate = new SocketClient(host, port);
+            delegate = new SocketClient(host, port, threadMode, spectate);
         }
     }
 
@@ -38,8 +140,33 @@ public class NetworkSync implements GameSync {
     }
 
     @Override
-    public void subscribe(GameSyncListener listener) {
-        delegate.subscribe(listener);
+    public Subscription subscribe(GameSyncListener listener, Executor executor) {
+        return delegate.subscribe(listener, executor);
+    }
+
+    @Override
+    public ListenerRegistry.DispatchStats getDispatchStats() {
+        return delegate.getDispatchStats();
+    }
+
+    @Override
+    public SyncMetrics getMetrics() {
+        return delegate.getMetrics();
+    }
+
+    @Override
+    public boolean sendsActions() {
+        return delegate.sendsActions();
+    }
+
+    @Override
+    public String sendAction(GameAction action) {
+        return delegate.sendAction(action);
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
     }
 }
 
@@ -0,0 +1,231 @@
+package Ui;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+
+/**
+ * Host that serves every connection from one selector thread. Reads and writes are
+ * non-blocking; each channel has its own bounded write queue that is drained with a
+ * single gathering write whenever the socket can take more. Speaks the same framed
+ * protocol as {@link SocketServer}.
+ */
+public class NioSocketServer extends SyncServer {
+    private static final int READ_BUFFER_SIZE = 16 * 1024;
+
+    private final int port;
+    private final List<Connection> connections = new CopyOnWriteArrayList<>();
+    private volatile Selector selector;
+    private volatile ServerSocketChannel serverChannel;
+
+    public NioSocketServer(int port) {
+        this(port, null);
+    }
+
+    /** A host whose game-state work runs on {@code stateExecutor} (a room's thread). */
+    public NioSocketServer(int port, Executor stateExecutor) {
+        super(stateExecutor);
+        this.port = port;
+    }
+
+    @Override
+    public void start() {
+        MetricsEndpoint.publish("host:" + port, getMetrics());
+        Thread loop = new Thread(this::runLoop, "nio-sync-server-" + port);
+        loop.setDaemon(true);
+        loop.start();
+    }
+
+    private void runLoop() {
+        try (Selector sel = Selector.open(); ServerSocketChannel server = ServerSocketChannel.open()) {
+            selector = sel;
+            serverChannel = server;
+            server.bind(new InetSocketAddress(port));
+            server.configureBlocking(false);
+            server.register(sel, SelectionKey.OP_ACCEPT);
+            while (server.isOpen()) {
+                sel.select();
+                Iterator<SelectionKey> it = sel.selectedKeys().iterator();
+                while (it.hasNext()) {
+                    SelectionKey key = it.next();
+                    it.remove();
+                    try {
+                        if (!key.isValid()) continue;
+                        if (key.isAcceptable()) accept(server);
+                        if (key.isValid() && key.isReadable()) ((Connection) key.attachment()).read();
+                        if (key.isValid() && key.isWritable()) ((Connection) key.attachment()).flush();
+                    } catch (IOException e) {
+                        if (key.attachment() instanceof Connection c) {
+                            getMetrics().recordError(SyncMetrics.ErrorType.IO, e);
+                            c.close();
+                        }
+                    }
+                }
+            }
+        } catch (IOException ignored) { }
+    }
+
+    private void accept(ServerSocketChannel server) throws IOException {
+        SocketChannel ch = server.accept();
+        if (ch == null) return;
+        ch.configureBlocking(false);
+        ch.socket().setTcpNoDelay(true);
+        Connection c = new Connection(ch);
+        c.key = ch.register(selector, SelectionKey.OP_READ, c);
+        onPeerConnected(c, () -> {
+            if (c.isOpen()) connections.add(c);
+        });
+    }
+
+    /** Stop the selector loop and drop every connection. */
+    @Override
+    public void close() {
+        try {
+            if (serverChannel != null) serverChannel.close();
+        } catch (IOException ignored) { }
+        for (Connection c : connections) c.close();
+        if (selector != null) selector.wakeup();
+        MetricsEndpoint.unpublish(getMetrics());
+    }
+
+    @Override
+    protected Iterable<Connection> peers() {
+        return connections;
+    }
+
+    private class Connection extends Peer {
+        private final SocketChannel channel;
+        private SelectionKey key;
+        private ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        private final ArrayDeque<ByteBuffer> writeQueue = new ArrayDeque<>();
+        private SyncCompression.Decoder decoder;
+
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        protected boolean send(EncodedMessage message) {
+            if (!channel.isOpen()) return false;
+            synchronized (writeQueue) {
+                if (writeQueue.size() >= getMaxQueuedMessages()) return false;
+                writeQueue.add(message.asBuffer());
+            }
+            wantWrite();
+            return true;
+        }
+
+        @Override
+        protected boolean isOpen() { return channel.isOpen(); }
+
+        @Override
+        protected int queueDepth() {
+            synchronized (writeQueue) {
+                return writeQueue.size();
+            }
+        }
+
+        @Override
+        protected int dropQueuedState() {
+            synchronized (writeQueue) {
+                int before = writeQueue.size();
+                // A frame already partly on the wire has to finish or the stream is corrupt
+                writeQueue.removeIf(b -> b.position() == 0 && isStateFrame(b.get(0)));
+                return before - writeQueue.size();
+            }
+        }
+
+        @Override
+        protected void forceSend(EncodedMessage message) {
+            if (!channel.isOpen()) return;
+            synchronized (writeQueue) {
+                writeQueue.add(message.asBuffer());
+            }
+            wantWrite();
+        }
+
+        private boolean isStateFrame(byte code) {
+            SyncFrame.Kind kind = SyncFrame.kindOf(code);
+            return kind != null && kind.isState();
+        }
+
+        @Override
+        protected void disconnect() {
+            close();
+        }
+
+        // Any thread may queue; only the selector thread touches the socket
+        private void wantWrite() {
+            try {
+                key.interestOpsOr(SelectionKey.OP_WRITE);
+                selector.wakeup();
+            } catch (CancelledKeyException ignored) { }
+        }
+
+        void flush() throws IOException {
+            synchronized (writeQueue) {
+                if (!writeQueue.isEmpty()) {
+                    channel.write(writeQueue.toArray(new ByteBuffer[0]));
+                    while (!writeQueue.isEmpty() && !writeQueue.peek().hasRemaining()) writeQueue.poll();
+                }
+                // Stay interested in writes only while the kernel buffer is full
+                if (writeQueue.isEmpty()) key.interestOps(SelectionKey.OP_READ);
+            }
+        }
+
+        void read() throws IOException {
+            int n = channel.read(readBuffer);
+            if (n < 0) {
+                close();
+                return;
+            }
+            readBuffer.flip();
+            // Dispatch every complete frame straight out of the read buffer
+            while (readBuffer.remaining() >= SyncFrame.HEADER_BYTES) {
+                int at = readBuffer.position();
+                byte code = readBuffer.get(at);
+                int len = SyncFrame.checkedLength(readBuffer.getInt(at + 1));
+                if (readBuffer.remaining() < SyncFrame.HEADER_BYTES + len) {
+                    if (readBuffer.capacity() < SyncFrame.HEADER_BYTES + len) grow(SyncFrame.HEADER_BYTES + len);
+                    break;
+                }
+                readBuffer.position(at + SyncFrame.HEADER_BYTES + len);
+                SyncFrame.Kind kind = SyncFrame.kindOf(code);
+                if (kind == null) continue;
+                getMetrics().recordIn(kind, SyncFrame.HEADER_BYTES + len);
+                if (SyncFrame.isCompressed(code)) {
+                    if (decoder == null) decoder = new SyncCompression.Decoder();
+                    int raw = decoder.inflate(readBuffer.array(), at + SyncFrame.HEADER_BYTES, len);
+                    handleFrame(this, kind, decoder.buffer(), 0, raw);
+                } else {
+                    handleFrame(this, kind, readBuffer.array(), at + SyncFrame.HEADER_BYTES, len);
+                }
+            }
+            readBuffer.compact();
+        }
+
+        // Make room for a frame bigger than the buffer rather than cut the message
+        private void grow(int needed) {
+            ByteBuffer bigger = ByteBuffer.allocate(Math.max(needed, readBuffer.capacity() * 2));
+            bigger.put(readBuffer);
+            bigger.flip();
+            readBuffer = bigger;
+        }
+
+        void close() {
+            connections.remove(this);
+            key.cancel();
+            try { channel.close(); } catch (IOException ignored) { }
+        }
+    }
+}
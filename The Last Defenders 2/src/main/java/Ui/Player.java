@@ -3,6 +3,9 @@ package Ui;
 
 public class Player implements Runnable {
     // --- Attributes ---
+    // Assigned by GameState when the player joins a game and kept in snapshots and saves;
+    // tiles name their owner by it. 0 until assigned.
+    private int id;
     private String name;
     private int health;
     private int maxHealth;
@@ -40,6 +43,7 @@ public class Player implements Runnable {
     }
 
     // --- Getters ---
+    public int getId() { return id; }
     public String getName() { return name; }
     public int getHealth() { return health; }
     public int getMaxHealth() { return maxHealth; }
@@ -58,7 +62,10 @@ public class Player implements Runnable {
     public PlayerHistory getHistory() { return history; }
 
     // --- Setters ---
+    void setId(int id) { this.id = id; }
     public void setName(String name) { this.name = name; }
+    public void setHealth(int health) { this.health = Math.max(0, Math.min(maxHealth, health)); }
+    public void setMaxHealth(int maxHealth) { this.maxHealth = Math.max(0, maxHealth); }
     public void setMoney(int money) { this.money = Math.max(0, money); }
     public void setAttack(int attack) { this.attack = Math.max(0, attack); }
     public void setInfluence(int influence) { this.influence = Math.max(0, influence); }
@@ -95,7 +102,9 @@ public class Player implements Runnable {
                 amount));
         }
     }
+    /** Pay {@code amount}; a negative amount would be income, so it is refused. */
     public void spendMoney(int amount) { 
+        if (amount < 0) throw new IllegalArgumentException("Cannot spend a negative amount: " + amount);
         this.money = Math.max(0, this.money - amount); 
         if (amount > 0) {
             history.addEntry(new PlayerHistory.HistoryEntry(
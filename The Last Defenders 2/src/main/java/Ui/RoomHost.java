@@ -0,0 +1,66 @@
+package Ui;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Runs many {@link GameRoom}s in one process, looked up by room code. Each room
+ * listens on {@code basePort + code}, the same port {@link LobbyController} derives
+ * from a code, so clients join a hosted room exactly as they join a player's host.
+ *
+ * Usage: RoomHost [code ...]  (opens the listed rooms and keeps serving)
+ */
+public class RoomHost implements AutoCloseable {
+    public static final int DEFAULT_BASE_PORT = 20000;
+
+    private final int basePort;
+    private final NetworkSync.ServerKind serverKind;
+    private final Map<Integer, GameRoom> rooms = new ConcurrentHashMap<>();
+
+    public RoomHost() {
+        this(DEFAULT_BASE_PORT, NetworkSync.getServerKind());
+    }
+
+    public RoomHost(int basePort, NetworkSync.ServerKind serverKind) {
+        this.basePort = basePort;
+        this.serverKind = serverKind;
+    }
+
+    /** The room for {@code code}, opening it if this host does not run it yet. */
+    public GameRoom open(int code) {
+        if (code < 0 || code > 9999) throw new IllegalArgumentException("Room code must be 0000-9999: " + code);
+        return rooms.computeIfAbsent(code, c -> GameRoom.open(c, basePort + c, serverKind));
+    }
+
+    /** The running room for {@code code}, or null. */
+    public GameRoom get(int code) {
+        return rooms.get(code);
+    }
+
+    public Collection<GameRoom> rooms() {
+        return List.copyOf(rooms.values());
+    }
+
+    public void close(int code) {
+        GameRoom room = rooms.remove(code);
+        if (room != null) room.close();
+    }
+
+    @Override
+    public void close() {
+        for (Integer code : new ArrayList<>(rooms.keySet())) close(code);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        RoomHost host = new RoomHost();
+        for (String arg : args) {
+            GameRoom room = host.open(Integer.parseInt(arg));
+            System.out.println("Hosting " + room);
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(host::close));
+        Thread.currentThread().join();
+    }
+}
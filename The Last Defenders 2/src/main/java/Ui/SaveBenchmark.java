@@ -0,0 +1,152 @@
+package Ui;
+
+import com.google.gson.JsonElement;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Compares the JSON save (what savegame.txt holds) with {@link BinarySave} on a
+ * synthetic game: four players taking turns, each turn adding a few history entries
+ * (a move, rent or income, sometimes a purchase or an upgrade) a few seconds apart, and
+ * tiles changing hands. Writes both formats to a temp directory and reports their sizes,
+ * how long encoding takes, and the median time for {@link GameState} to load each one
+ * back. Also checks the binary save loads back to the same game as the JSON one.
+ *
+ * Usage: SaveBenchmark [turns=500] [runs=50]
+ */
+public class SaveBenchmark {
+    public static void main(String[] args) throws Exception {
+        int turns = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+
+        GameState state = GameState.get();
+        play(state, turns);
+        int entries = state.players().stream().mapToInt(p -> p.getHistory().size()).sum();
+        JsonElement expected = state.saveTree(0, 0);
+
+        Path dir = Files.createTempDirectory("save-benchmark");
+        try {
+            Path json = dir.resolve("savegame.txt");
+            Path binary = dir.resolve("savegame.sav");
+            state.exportJson(json).join();
+            long[] encodeNanos = new long[runs];
+            for (int i = 0; i < runs; i++) {
+                long start = System.nanoTime();
+                BinarySave.encode(state, 1, 1);
+                encodeNanos[i] = System.nanoTime() - start;
+            }
+            SaveService.shared().save(binary, BinarySave.encode(state, 1, 1)).join();
+            long[] jsonEncodeNanos = new long[runs];
+            for (int i = 0; i < runs; i++) {
+                long start = System.nanoTime();
+                GameCodec.prettyGson().toJson(state.saveTree(0, 0));
+                jsonEncodeNanos[i] = System.nanoTime() - start;
+            }
+
+            long[] jsonLoad = load(state, json, runs);
+            boolean jsonSame = expected.equals(state.saveTree(0, 0));
+            long[] binaryLoad = load(state, binary, runs);
+            boolean binarySame = expected.equals(state.saveTree(0, 0));
+
+            long jsonBytes = Files.size(json);
+            long binaryBytes = Files.size(binary);
+            System.out.printf("%d turns, %d players, %d history entries, %d tiles%n",
+                    turns, state.players().size(), entries, BoardRegistry.tiles().size());
+            System.out.printf("size    json=%d B  binary=%d B  (%.1fx smaller, %s)%n", jsonBytes, binaryBytes,
+                    jsonBytes / (double) binaryBytes,
+                    binaryBytes > BinarySave.MAP_THRESHOLD_BYTES ? "mapped" : "read into the heap");
+            System.out.printf("encode  json=%.2f ms  binary=%.2f ms  (median of %d)%n",
+                    median(jsonEncodeNanos) / 1e6, median(encodeNanos) / 1e6, runs);
+            System.out.printf("load    json=%.2f ms  binary=%.2f ms  (%.1fx faster, median of %d)%n",
+                    median(jsonLoad) / 1e6, median(binaryLoad) / 1e6,
+                    median(jsonLoad) / (double) median(binaryLoad), runs);
+            System.out.println("round trip json=" + jsonSame + " binary=" + binarySame);
+        } finally {
+            try (Stream<Path> files = Files.list(dir)) {
+                for (Path p : files.toList()) Files.deleteIfExists(p);
+            }
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    // One warm-up pass, then the timed ones
+    private static long[] load(GameState state, Path file, int runs) throws IOException {
+        for (int i = 0; i < Math.max(5, runs / 5); i++) state.readSave(file);
+        long[] nanos = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            long start = System.nanoTime();
+            state.readSave(file);
+            nanos[i] = System.nanoTime() - start;
+        }
+        return nanos;
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    private static void play(GameState state, int turns) {
+        Random random = new Random(42);
+        TileType[] types = TileType.values();
+        BoardRegistry.clearAll();
+        for (int pos = 0; pos < GameState.PERIMETER; pos++) {
+            TileType type = pos == 20 ? TileType.START : types[1 + random.nextInt(types.length - 1)];
+            BoardRegistry.tiles().put(pos, new Tile(type, type.getDisplayName() + " " + pos, pos));
+        }
+        LocalDateTime clock = LocalDateTime.of(2026, 3, 14, 19, 30).plusNanos(123_456_000L);
+        int players = state.players().size();
+        for (int turn = 0; turn < turns; turn++) {
+            Player p = state.players().get(turn % players);
+            PlayerHistory history = p.getHistory();
+            int roll = 2 + random.nextInt(6) + random.nextInt(6);
+            int pos = (p.getPos() + roll) % GameState.PERIMETER;
+            p.setPos(pos);
+            Tile tile = BoardRegistry.tiles().get(pos);
+            clock = clock.plusNanos(2_000_000_000L + random.nextInt(20_000_000) * 1000L);
+            history.addEntry(new PlayerHistory.HistoryEntry(PlayerHistory.HistoryEntry.Type.OTHER,
+                    "Rolled " + roll + " and moved to " + tile.getName(), 0, clock));
+            clock = clock.plusNanos(random.nextInt(900_000) * 1000L);
+            Player owner = tile.getOwner();
+            if (owner != null && owner != p) {
+                int rent = 25 * (1 + tile.getUpgradeLevel());
+                p.setMoney(p.getMoney() - rent);
+                owner.setMoney(owner.getMoney() + rent);
+                history.addEntry(new PlayerHistory.HistoryEntry(PlayerHistory.HistoryEntry.Type.EXPENSE,
+                        "Paid rent to " + owner.getName() + " at " + tile.getName(), -rent, clock));
+                owner.getHistory().addEntry(new PlayerHistory.HistoryEntry(PlayerHistory.HistoryEntry.Type.INCOME,
+                        "Rent from " + p.getName() + " at " + tile.getName(), rent, clock));
+            } else if (owner == null && tile.getType() != TileType.START && random.nextInt(3) == 0) {
+                tile.setOwner(p);
+                p.setMoney(p.getMoney() - 150);
+                p.setInfluence(p.getInfluence() + tile.getInfluenceValue());
+                history.addEntry(new PlayerHistory.HistoryEntry(PlayerHistory.HistoryEntry.Type.BOUGHT_TILE,
+                        "Bought " + tile.getName(), -150, clock));
+            } else if (owner == p && random.nextInt(4) == 0) {
+                tile.setUpgradeLevel(tile.getUpgradeLevel() + 1);
+                p.setMoney(p.getMoney() - 100);
+                history.addEntry(new PlayerHistory.HistoryEntry(PlayerHistory.HistoryEntry.Type.UPGRADED_TILE,
+                        "Upgraded " + tile.getName() + " to level " + tile.getUpgradeLevel(), -100, clock));
+            }
+            if (pos < roll) {
+                p.setMoney(p.getMoney() + 200);
+                history.addEntry(new PlayerHistory.HistoryEntry(PlayerHistory.HistoryEntry.Type.INCOME,
+                        "Passed Start", 200, clock));
+            }
+            if (random.nextInt(10) == 0) {
+                p.setHealth(p.getHealth() - 50);
+                history.addEntry(new PlayerHistory.HistoryEntry(PlayerHistory.HistoryEntry.Type.DEFEND,
+                        "Fought off zombies", -50, clock));
+            }
+            state.currentIndexProperty().set((turn + 1) % players);
+            state.lastRollProperty().set(roll);
+        }
+    }
+}
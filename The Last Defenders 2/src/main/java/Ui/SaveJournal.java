@@ -0,0 +1,271 @@
+package Ui;
+
+import com.google.gson.Gson;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A single-player save kept as a checkpoint plus an append-only journal, so saving costs
+ * what changed rather than the whole game. The checkpoint is a full {@link BinarySave},
+ * tagged with an id and the {@link DeltaTracker} version it holds. The journal starts with a
+ * header line naming that checkpoint and then gets one line per change: the
+ * {@link GameDelta} since the previous line, written with a single append as the game
+ * commits it. Loading reads the checkpoint and replays the journal.
+ *
+ * Each append is forced to the disk before its future completes, so a crash, power loss
+ * included, costs at most the record being written: a line cut short is where replay
+ * stops, and the next append overwrites it. Appends come once per coalesced update
+ * ({@link UpdateCoalescer}), not per change, which keeps the syncs affordable. Once the journal outgrows the
+ * checkpoint (and {@link #MIN_COMPACT_BYTES}) it is compacted: a fresh checkpoint is
+ * written beside the old one and renamed over it, then the journal starts again. A
+ * crash in between leaves a journal naming the old checkpoint, which is ignored, since
+ * the new checkpoint already has everything in it. A change the delta format cannot
+ * express (players added or renamed, say) is also written as a checkpoint.
+ *
+ * Only the capturing happens on the caller's thread: the delta, or the encoded checkpoint. The files themselves are written in order on the
+ * {@link SaveService} writer, and each call returns a future for when its part is on disk.
+ */
+public class SaveJournal implements AutoCloseable {
+    /** The journal may grow to this size before any compaction, however small the checkpoint. */
+    public static final long MIN_COMPACT_BYTES = 64 * 1024;
+
+    private final Path checkpointPath;
+    private final Path journalPath;
+    private final SaveService service;
+    private final Gson gson = GameCodec.gson();
+    // Baseline for the next record: the game as of the journal's last line
+    private final DeltaTracker tracker = new DeltaTracker();
+
+    // Caller's side: what has been captured and queued
+    private boolean open;
+    private long checkpointId;
+    private long journalBytes;
+    private long records;
+    private long recordedBytes;
+    private long checkpoints;
+    // Records appended since the last checkpoint
+    private long sinceCheckpoint;
+
+    // Writer's side: only touched by tasks on the service's thread
+    private FileChannel journal;
+    private volatile long checkpointBytes;
+    // A write failed; the baseline is ahead of the files until the next checkpoint
+    private volatile boolean behind;
+
+    /** What a checkpoint says about itself; both 0 for saves from before journals. */
+    record Checkpoint(long id, long version) { }
+
+    // First line of the journal
+    private static class Header {
+        long checkpoint;
+    }
+
+    public SaveJournal(Path checkpointPath, Path journalPath) {
+        this(checkpointPath, journalPath, SaveService.shared());
+    }
+
+    public SaveJournal(Path checkpointPath, Path journalPath, SaveService service) {
+        this.checkpointPath = checkpointPath;
+        this.journalPath = journalPath;
+        this.service = service;
+    }
+
+    /**
+     * Save the whole live game as a new checkpoint and start an empty journal after it.
+     * The future completes once both are on disk.
+     */
+    public synchronized CompletableFuture<SaveService.Result> checkpoint() {
+        long id;
+        do {
+            id = ThreadLocalRandom.current().nextLong();
+        } while (id == 0 || id == checkpointId);
+        long version = tracker.version() + 1;
+        long start = System.nanoTime();
+        ByteBuffer encoded = BinarySave.encode(GameState.get(), id, version);
+        service.getStats().recordCapture(System.nanoTime() - start);
+        // Only now: had encoding failed, the baseline would have run ahead of the files
+        tracker.rebase(version);
+        checkpointId = id;
+        checkpoints++;
+        sinceCheckpoint = 0;
+        open = true;
+        behind = false;
+        byte[] header = header(id);
+        journalBytes = header.length;
+        CompletableFuture<SaveService.Result> saved = service.save(checkpointPath, encoded);
+        // The old journal stays valid until the new checkpoint is in place
+        CompletableFuture<Void> restarted = service.submit(() -> {
+            if (saved.isCompletedExceptionally()) {
+                behind = true;
+                return null;
+            }
+            checkpointBytes = saved.join().bytes();
+            startJournal(header);
+            return null;
+        });
+        return restarted.thenCompose(v -> saved);
+    }
+
+    /**
+     * Append whatever changed since the last record, if anything. Writes a checkpoint
+     * instead when the change is structural or the journal is due for compaction. The
+     * future completes once the change is in the file.
+     */
+    public synchronized CompletableFuture<?> record() {
+        if (!open) return CompletableFuture.completedFuture(null);
+        GameDelta delta = tracker.diff();
+        if (delta == null || behind) return checkpoint();
+        if (delta.isEmpty()) return CompletableFuture.completedFuture(null);
+        byte[] line = (gson.toJson(delta) + "\n").getBytes(StandardCharsets.UTF_8);
+        journalBytes += line.length;
+        records++;
+        sinceCheckpoint++;
+        recordedBytes += line.length;
+        if (journalBytes > Math.max(MIN_COMPACT_BYTES, checkpointBytes)) return checkpoint();
+        return service.submit(() -> {
+            // Behind a failed write this line would not follow on; the next checkpoint covers it
+            if (journal == null || behind) return null;
+            try {
+                journal.write(ByteBuffer.wrap(line));
+                journal.force(false);
+            } catch (IOException e) {
+                behind = true;
+                throw e;
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Replace the live game with the saved one: the checkpoint, then every intact journal
+     * line that follows on from it. Afterwards new records append where the replay
+     * stopped. Returns how many journal records were replayed.
+     */
+    public synchronized int load() throws IOException {
+        // Whatever is still being written for these files goes first
+        await(service.submit(() -> {
+            closeJournal();
+            return null;
+        }));
+        open = false;
+        Checkpoint cp = GameState.get().readSave(checkpointPath);
+        tracker.rebase(cp.version());
+        checkpointId = cp.id();
+        checkpointBytes = Files.size(checkpointPath);
+        open = true;
+        if (cp.id() == 0) {
+            // A save from before journals: give it an id to write records against
+            checkpoint();
+            return 0;
+        }
+        int replayed = 0;
+        long intact = 0;
+        if (Files.exists(journalPath)) {
+            byte[] bytes = Files.readAllBytes(journalPath);
+            int start = 0;
+            for (int i = 0; i < bytes.length; i++) {
+                if (bytes[i] != '\n') continue;
+                Reader line = SyncFrame.payloadReader(bytes, start, i - start);
+                try {
+                    if (start == 0) {
+                        Header h = gson.fromJson(line, Header.class);
+                        // Written for a checkpoint that has since been replaced
+                        if (h == null || h.checkpoint != cp.id()) break;
+                    } else if (tracker.apply(gson.fromJson(line, GameDelta.class))) {
+                        replayed++;
+                    } else {
+                        break;
+                    }
+                } catch (RuntimeException e) {
+                    break;
+                }
+                start = i + 1;
+                intact = start;
+            }
+        }
+        sinceCheckpoint = replayed;
+        long keep = intact;
+        byte[] header = header(cp.id());
+        journalBytes = keep == 0 ? header.length : keep;
+        await(service.submit(() -> {
+            if (keep == 0) {
+                startJournal(header);
+            } else {
+                journal = FileChannel.open(journalPath, StandardOpenOption.WRITE);
+                // Drop a torn last line; the next record goes where it started
+                journal.truncate(keep);
+                journal.position(keep);
+            }
+            return null;
+        }));
+        return replayed;
+    }
+
+    private static byte[] header(long checkpoint) {
+        return ("{\"checkpoint\":" + checkpoint + "}\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    // On the writer
+    private void startJournal(byte[] header) throws IOException {
+        closeJournal();
+        journal = FileChannel.open(journalPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        journal.write(ByteBuffer.wrap(header));
+        journal.force(false);
+    }
+
+    private static void await(CompletableFuture<?> f) throws IOException {
+        try {
+            f.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException io) throw io;
+            throw e;
+        }
+    }
+
+    // On the writer
+    private void closeJournal() {
+        if (journal == null) return;
+        try {
+            journal.close();
+        } catch (IOException ignored) { }
+        journal = null;
+    }
+
+    public synchronized boolean isOpen() { return open; }
+    /** Change records appended since this journal was opened. */
+    public synchronized long getRecords() { return records; }
+    public synchronized long getRecordedBytes() { return recordedBytes; }
+    /** Checkpoints written (first save, structural changes and compactions). */
+    public synchronized long getCheckpoints() { return checkpoints; }
+    /** Journal size once everything queued is written. */
+    public synchronized long getJournalBytes() { return journalBytes; }
+    public long getCheckpointBytes() { return checkpointBytes; }
+
+    /**
+     * Stop recording. A game that changed since its checkpoint gets a fresh one first, so
+     * the checkpoint alone (its header, say) is the game as it was left. Everything is
+     * still written after this returns; then the file is closed.
+     */
+    @Override
+    public synchronized void close() {
+        if (!open) return;
+        GameDelta pending = tracker.diff();
+        if (pending == null || !pending.isEmpty() || sinceCheckpoint > 0) checkpoint();
+        open = false;
+        service.submit(() -> {
+            closeJournal();
+            return null;
+        });
+    }
+}
@@ -0,0 +1,215 @@
+package Ui;
+
+import com.google.gson.JsonElement;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes saves on a background thread so the FX thread never waits on the disk. The
+ * caller captures what to save (the encoded bytes, or a detached JSON tree) and gets a
+ * future back; the writer puts it in a temp file beside the target, fsyncs it, and
+ * renames it over the target, so a crash at any point leaves either the old save or
+ * the new one, never half of one. Other file work that must stay in order with the
+ * saves (the journal's appends) goes through {@link #submit} on the same thread.
+ *
+ * The writer thread is not a daemon, so a save queued as the window closes still
+ * finishes; it exits once idle for {@link #IDLE_SECONDS}.
+ *
+ * Windows will not replace a file that is still memory-mapped, and a mapping lasts until
+ * its buffer is collected (see {@link BinarySave#read}); a rename refused that way is
+ * retried once after a collection.
+ */
+public final class SaveService {
+    public static final int IDLE_SECONDS = 1;
+
+    private static final SaveService SHARED = new SaveService();
+
+    private final ThreadPoolExecutor writer;
+    private final Stats stats = new Stats();
+
+    /** A piece of file work to run on the writer thread. */
+    @FunctionalInterface
+    public interface IoTask<T> {
+        T run() throws IOException;
+    }
+
+    // Puts a save's bytes into the temp file
+    @FunctionalInterface
+    private interface Body {
+        void writeTo(FileChannel ch) throws IOException;
+    }
+
+    /** One finished save: where, how big, and how long each part took. */
+    public record Result(Path path, long bytes, long queuedNanos, long writeNanos, long syncNanos) { }
+
+    public SaveService() {
+        writer = new ThreadPoolExecutor(1, 1, IDLE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread t = new Thread(r, "save-writer");
+            t.setDaemon(false);
+            return t;
+        });
+        writer.allowCoreThreadTimeOut(true);
+    }
+
+    /** The service the game's saves go through. */
+    public static SaveService shared() { return SHARED; }
+
+    /**
+     * Write {@code tree} to {@code target}, replacing it atomically. {@code tree} must not
+     * be touched by anyone else afterwards; build it fresh with {@code toJsonTree}.
+     */
+    public CompletableFuture<Result> save(Path target, JsonElement tree) {
+        long queuedAt = System.nanoTime();
+        return submit(() -> write(target, ch -> {
+            Writer out = Channels.newWriter(ch, StandardCharsets.UTF_8);
+            GameCodec.prettyGson().toJson(tree, out);
+            out.flush();
+        }, queuedAt));
+    }
+
+    /** Write {@code bytes} (position to limit) to {@code target}, replacing it atomically. */
+    public CompletableFuture<Result> save(Path target, ByteBuffer bytes) {
+        long queuedAt = System.nanoTime();
+        ByteBuffer data = bytes.duplicate();
+        return submit(() -> write(target, ch -> {
+            while (data.hasRemaining()) ch.write(data);
+        }, queuedAt));
+    }
+
+    /** Run {@code task} on the writer thread after everything queued before it. */
+    public <T> CompletableFuture<T> submit(IoTask<T> task) {
+        CompletableFuture<T> done = new CompletableFuture<>();
+        writer.execute(() -> {
+            try {
+                done.complete(task.run());
+            } catch (IOException | RuntimeException e) {
+                stats.failures.incrementAndGet();
+                System.out.println("⚠️ Save failed: " + e);
+                done.completeExceptionally(e);
+            }
+        });
+        return done;
+    }
+
+    /** Wait up to {@code millis} for everything queued so far to be written; false on timeout. */
+    public boolean flush(long millis) {
+        try {
+            submit(() -> null).get(millis, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException | TimeoutException e) {
+            return false;
+        }
+    }
+
+    public Stats getStats() { return stats; }
+
+    private Result write(Path target, Body body, long queuedAt) throws IOException {
+        long start = System.nanoTime();
+        stats.queue.record(start - queuedAt);
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        long bytes;
+        long synced;
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            body.writeTo(ch);
+            bytes = ch.size();
+            synced = System.nanoTime();
+            ch.force(true);
+        }
+        try {
+            replace(tmp, target);
+        } catch (FileSystemException e) {
+            // Most likely an old mapping of the target that has not been collected yet
+            System.gc();
+            replace(tmp, target);
+        }
+        syncDirectory(target);
+        long end = System.nanoTime();
+        stats.saves.incrementAndGet();
+        stats.bytes.addAndGet(bytes);
+        stats.write.record(synced - start);
+        stats.sync.record(end - synced);
+        stats.total.record(end - queuedAt);
+        return new Result(target, bytes, start - queuedAt, synced - start, end - synced);
+    }
+
+    private static void replace(Path tmp, Path target) throws IOException {
+        try {
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /** Make a rename durable; only some platforms allow a directory to be opened for this. */
+    static void syncDirectory(Path file) {
+        Path dir = file.toAbsolutePath().getParent();
+        if (dir == null) return;
+        try (FileChannel ch = FileChannel.open(dir, StandardOpenOption.READ)) {
+            ch.force(true);
+        } catch (IOException ignored) { }
+    }
+
+    /**
+     * How saving is going: saves written and failed, bytes written, and time spent capturing
+     * (on the caller's thread), waiting for the writer, serializing, fsyncing and renaming,
+     * and in total from queueing to done.
+     */
+    public static class Stats {
+        private final AtomicLong saves = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        private final AtomicLong bytes = new AtomicLong();
+        private final SyncMetrics.Histogram capture = new SyncMetrics.Histogram();
+        private final SyncMetrics.Histogram queue = new SyncMetrics.Histogram();
+        private final SyncMetrics.Histogram write = new SyncMetrics.Histogram();
+        private final SyncMetrics.Histogram sync = new SyncMetrics.Histogram();
+        private final SyncMetrics.Histogram total = new SyncMetrics.Histogram();
+
+        /** The caller spent {@code nanos} building what it handed to {@link #save}. */
+        public void recordCapture(long nanos) { capture.record(nanos); }
+
+        public long getSaves() { return saves.get(); }
+        public long getFailures() { return failures.get(); }
+        public long getBytes() { return bytes.get(); }
+        public SyncMetrics.Histogram getCaptureHistogram() { return capture; }
+        public SyncMetrics.Histogram getQueueHistogram() { return queue; }
+        public SyncMetrics.Histogram getWriteHistogram() { return write; }
+        public SyncMetrics.Histogram getSyncHistogram() { return sync; }
+        public SyncMetrics.Histogram getTotalHistogram() { return total; }
+
+        @Override
+        public String toString() {
+            return "SaveService.Stats{" +
+                    "saves=" + getSaves() +
+                    ", failures=" + getFailures() +
+                    ", bytes=" + getBytes() +
+                    ", capture=" + capture.report() +
+                    ", queue=" + queue.report() +
+                    ", write=" + write.report() +
+                    ", sync=" + sync.report() +
+                    ", total=" + total.report() +
+                    '}';
+        }
+    }
+}
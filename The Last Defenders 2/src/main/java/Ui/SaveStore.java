@@ -0,0 +1,176 @@
+package Ui;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Saved games, one slot each, in one directory ({@code saves/} by default). A slot is a
+ * {@link BinarySave} checkpoint, {@code <slot>.sav}, and its {@link SaveJournal},
+ * {@code <slot>.journal}. The checkpoint's header says who is playing, on which turn,
+ * and when it was written, so {@link #list()} reads a few hundred bytes per slot and
+ * builds no game; only the slot picked is read in full. A journal closed normally ends
+ * with a checkpoint, so the header is current; after a crash it is as of the last
+ * checkpoint, and the time and size listed still count the journal.
+ */
+public class SaveStore {
+    public static final String DEFAULT_DIRECTORY = "saves";
+    private static final String CHECKPOINT_SUFFIX = ".sav";
+    private static final String JOURNAL_SUFFIX = ".journal";
+    private static final DateTimeFormatter SLOT_NAME = DateTimeFormatter.ofPattern("'game-'yyyyMMdd-HHmmss");
+    private static final DateTimeFormatter LISTED = DateTimeFormatter.ofPattern("d MMM yyyy HH:mm");
+
+    private final Path directory;
+
+    public SaveStore(Path directory) {
+        this.directory = directory;
+    }
+
+    public Path getDirectory() { return directory; }
+
+    /** One slot as its header describes it. */
+    public static class SlotInfo {
+        public final String slot;
+        public final List<String> players;
+        public final int turn;
+        public final long savedAtMillis;
+        public final long bytes;
+
+        SlotInfo(String slot, List<String> players, int turn, long savedAtMillis, long bytes) {
+            this.slot = slot;
+            this.players = List.copyOf(players);
+            this.turn = turn;
+            this.savedAtMillis = savedAtMillis;
+            this.bytes = bytes;
+        }
+
+        /** One line for a list of saves, e.g. "Alice, Bob – turn 12 – 14 Mar 2026 19:30 – 25 KB". */
+        @Override
+        public String toString() {
+            String when = LocalDateTime.ofInstant(Instant.ofEpochMilli(savedAtMillis), ZoneId.systemDefault()).format(LISTED);
+            String size = bytes < 1024 ? bytes + " B" : (bytes + 1023) / 1024 + " KB";
+            return String.join(", ", players) + " – turn " + turn + " – " + when + " – " + size;
+        }
+    }
+
+    /** Every readable slot, newest first. Slots whose header will not read are left out. */
+    public List<SlotInfo> list() throws IOException {
+        List<SlotInfo> slots = new ArrayList<>();
+        if (!Files.isDirectory(directory)) return slots;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + CHECKPOINT_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    slots.add(info(name.substring(0, name.length() - CHECKPOINT_SUFFIX.length())));
+                } catch (IOException e) {
+                    System.out.println("⚠️ Skipping unreadable save " + name + ": " + e.getMessage());
+                }
+            }
+        }
+        slots.sort(Comparator.comparingLong((SlotInfo s) -> s.savedAtMillis).reversed());
+        return slots;
+    }
+
+    /** Describe one slot from its header. */
+    public SlotInfo info(String slot) throws IOException {
+        Path checkpoint = checkpointPath(slot);
+        BinarySave.Header h = BinarySave.readHeader(checkpoint);
+        long savedAt = h.savedAtMillis;
+        long bytes = Files.size(checkpoint);
+        Path journal = journalPath(slot);
+        try {
+            // Changes since the checkpoint are in the journal
+            savedAt = Math.max(savedAt, Files.getLastModifiedTime(journal).toMillis());
+            bytes += Files.size(journal);
+        } catch (NoSuchFileException ignored) { }
+        return new SlotInfo(slot, h.playerNames, h.turn, savedAt, bytes);
+    }
+
+    public boolean exists(String slot) {
+        return Files.exists(checkpointPath(slot));
+    }
+
+    /** A journal for {@code slot}: {@link SaveJournal#checkpoint()} starts it, {@link SaveJournal#load()} reads it. */
+    public SaveJournal journal(String slot) throws IOException {
+        Files.createDirectories(directory);
+        return new SaveJournal(checkpointPath(slot), journalPath(slot));
+    }
+
+    /** A name for a new slot, from the time, that no slot has yet. */
+    public String newSlot() {
+        String base = LocalDateTime.now().format(SLOT_NAME);
+        String slot = base;
+        for (int n = 2; exists(slot) || Files.exists(journalPath(slot)); n++) slot = base + "-" + n;
+        return slot;
+    }
+
+    public void delete(String slot) throws IOException {
+        Files.deleteIfExists(journalPath(slot));
+        Files.deleteIfExists(checkpointPath(slot));
+    }
+
+    /**
+     * Bring a save from elsewhere into slot {@code slot}: a binary checkpoint is moved in
+     * with its journal, if it has one; a JSON save is converted and the original left
+     * where it was. Does nothing if the slot exists already.
+     */
+    public void importSave(String slot, Path save, Path journal) throws IOException {
+        if (exists(slot) || !Files.exists(save)) return;
+        Files.createDirectories(directory);
+        if (BinarySave.isBinary(save)) {
+            if (Files.exists(journal)) Files.move(journal, journalPath(slot), StandardCopyOption.REPLACE_EXISTING);
+            Files.move(save, checkpointPath(slot));
+            return;
+        }
+        // Read into a game of its own; the live one is not touched
+        GameState scratch = new GameState();
+        ByteBuffer[] encoded = new ByteBuffer[1];
+        long[] quarters = {0};
+        try {
+            GameState.bindTo(scratch, () -> {
+                try {
+                    scratch.readSave(save, (read, total) -> {
+                        // Each quarter, so a large old save shows it is getting somewhere
+                        long quarter = read * 4 / total;
+                        if (quarter <= quarters[0]) return;
+                        quarters[0] = quarter;
+                        System.out.println("Importing " + save.getFileName() + ": " + quarter * 25 + "%");
+                    });
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                // No checkpoint id: the first load gives it one and starts its journal
+                encoded[0] = BinarySave.encode(scratch, 0, 0);
+            }).run();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        try {
+            SaveService.shared().save(checkpointPath(slot), encoded[0]).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException io) throw io;
+            throw e;
+        }
+    }
+
+    private Path checkpointPath(String slot) {
+        return directory.resolve(slot + CHECKPOINT_SUFFIX);
+    }
+
+    private Path journalPath(String slot) {
+        return directory.resolve(slot + JOURNAL_SUFFIX);
+    }
+}
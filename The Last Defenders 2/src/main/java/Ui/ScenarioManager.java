@@ -6,12 +6,10 @@ import javafx.scene.control.ButtonType;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-import java.util.Random;
 
 public class ScenarioManager{
 
     private static final List<ScenarioData> scenarios = new ArrayList<>();
-    private static final Random random = new Random();
 
     static {
         // Add your scenarios
@@ -98,7 +96,7 @@ public class ScenarioManager{
     }
 
     public static void triggerRandomScenario(Player player) {
-        ScenarioData scenario = scenarios.get(random.nextInt(scenarios.size()));
+        ScenarioData scenario = scenarios.get(GameState.randomStream(GameRandom.Stream.SCENARIO).nextInt(scenarios.size()));
         showScenarioDialog(player, scenario);
     }
 
@@ -1,119 +1,536 @@
 package Ui;
 
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonDeserializer;
-import com.google.gson.JsonPrimitive;
-import com.google.gson.JsonSerializer;
 
-import java.io.BufferedReader;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
-import java.io.PrintWriter;
+import java.io.OutputStream;
 import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Handles client-side networking: connects to server, receives updates.
+ * Local changes go upstream as deltas on top of the last host version we applied, one
+ * at a time: the host's echo of our delta is its ack, and changes made meanwhile wait
+ * for it so the next delta follows on from that version. A delta the host could not
+ * apply (another peer's got there first) is answered with the host's snapshot.
+ * A dropped connection is retried with backoff; the first frame on every connection
+ * is a RESUME carrying the host session and our version, so a short outage costs only
+ * the deltas we missed.
+ *
+ * Everything sent to the host goes through one ordered queue per connection, drained
+ * by a single writer that writes whatever has piled up and flushes once. Frames reach
+ * the host in the order the send methods were called (JSON is encoded on the calling
+ * thread, before queueing). Frames sent while disconnected are dropped; the resume
+ * handshake brings state back in line.
+ *
+ * In command mode ({@link NetworkSync#isCommandMode()}) rule-checked moves go up as
+ * small ACTION frames and the host sends back what they changed. A change no action
+ * covers still goes up as a delta, but the host refuses it and answers with its own
+ * snapshot, so only moves the host's rules accepted ever stick.
+ *
+ * A SEED from the host switches the client to lockstep: its moves go up as actions and
+ * every move the host accepts comes back as a COMMAND that is applied here with the same
+ * rules and random streams. A COMMAND out of version order, or a HASH that disagrees with
+ * our own state, is answered with RESYNC.
+ *
+ * A spectator client says so in its hello ({@link SyncFrame#CAP_SPECTATOR}) and only
+ * ever receives: it sends nothing upstream but its hello and RESYNC requests, and
+ * refuses every local move.
+ *
+ * The writer also sends a PING every {@link NetworkSync#getPingMillis()}; the answers
+ * give round trips and the host's clock offset, and with them how old each update is on
+ * arrival ({@link #getMetrics()}).
  */
 public class SocketClient implements GameSync {
+    private static final long RECONNECT_MIN_MILLIS = 250;
+    private static final long RECONNECT_MAX_MILLIS = 5000;
+
     private final String host;
     private final int port;
-    private final ExecutorService executor = Executors.newCachedThreadPool();
-    private final List<GameSync.GameSyncListener> listeners = new ArrayList<>();
-    private final Gson gson = new GsonBuilder()
-            .registerTypeAdapter(LocalDateTime.class, (JsonSerializer<LocalDateTime>) (src, typeOfSrc, context) ->
-                    new JsonPrimitive(src.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME)))
-            .registerTypeAdapter(LocalDateTime.class, (JsonDeserializer<LocalDateTime>) (json, typeOfT, context) ->
-                    LocalDateTime.parse(json.getAsString(), DateTimeFormatter.ISO_LOCAL_DATE_TIME))
-            .create();
-    private volatile GameState.GameSnapshot lastSnapshot;
-
-    private Socket clientSocket;
+    private final ExecutorService executor;
+    private final boolean spectator;
+    // State our frames are applied to; null for whatever GameState.get() resolves to
+    private final GameState state;
+    private final ListenerRegistry listeners = new ListenerRegistry();
+    private final Gson gson = GameCodec.gson();
+    // The game the reader applies frames to, and whether it has had a snapshot yet
+    private volatile GameState target;
+    private volatile boolean received;
+    private final DeltaTracker tracker = new DeltaTracker();
+    // Marks our deltas, so the host's echo of one is known as ours
+    private final long origin = ThreadLocalRandom.current().nextLong() | 1;
+    // Version our unacknowledged delta proposes, 0 when none is in flight, and whether
+    // local changes are waiting on it; both guarded by upstreamLock
+    private final Object upstreamLock = new Object();
+    private long inFlight;
+    private boolean held;
+
+    private volatile Connection connection;
+    private final AtomicLong framesWritten = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    // Host run our version belongs to; 0 until the first snapshot
+    private volatile long session;
+    private volatile boolean closed;
+    // The host said it reads compressed frames
+    private volatile boolean compressUpstream;
+    private volatile boolean commandMode = NetworkSync.isCommandMode();
+    private volatile boolean lockstep;
+    private final AtomicLong commandsApplied = new AtomicLong();
+    private final AtomicLong hashChecks = new AtomicLong();
+    private final AtomicLong desyncs = new AtomicLong();
+    private final SyncMetrics metrics = new SyncMetrics();
+    private final long pingNanos = NetworkSync.getPingMillis() * 1_000_000L;
 
     public SocketClient(String host, int port) {
+        this(host, port, NetworkSync.getThreadMode());
+    }
+
+    public SocketClient(String host, int port, NetworkSync.ThreadMode threadMode) {
+        this(host, port, threadMode, false);
+    }
+
+    public SocketClient(String host, int port, NetworkSync.ThreadMode threadMode, boolean spectator) {
+        this(host, port, threadMode, spectator, null);
+    }
+
+    /** A client whose reader applies everything to {@code state} (a relay's mirror, say). */
+    SocketClient(String host, int port, NetworkSync.ThreadMode threadMode, boolean spectator, GameState state) {
         this.host = host;
         this.port = port;
+        this.spectator = spectator;
+        this.state = state;
+        this.executor = NetworkSync.newConnectionExecutor(threadMode);
+        MetricsEndpoint.publish("client:" + host + ":" + port, metrics);
         start();
     }
 
     private void start() {
-        executor.execute(() -> {
+        executor.execute(state != null ? GameState.bindTo(state, this::connectLoop) : this::connectLoop);
+    }
+
+    private void connectLoop() {
+        target = GameState.get();
+        long backoff = RECONNECT_MIN_MILLIS;
+        while (!closed) {
+            Connection conn = null;
+            try (Socket socket = new Socket(host, port)) {
+                backoff = RECONNECT_MIN_MILLIS;
+                compressUpstream = false;
+                conn = new Connection(socket);
+                // Introduce ourselves before the connection is visible to senders
+                conn.offer(resumeFrame());
+                connection = conn;
+                synchronized (upstreamLock) {
+                    // An unacked delta went down with the old connection; what it held goes now
+                    inFlight = 0;
+                    if (held) proposeUpstream();
+                }
+                executor.execute(conn::writeLoop);
+                SyncFrame.FrameReader in = new SyncFrame.FrameReader(new BufferedInputStream(socket.getInputStream()));
+                while (in.next()) {
+                    metrics.recordIn(in.kind(), in.wireLength());
+                    handleFrame(in.kind(), in.buffer(), in.length());
+                }
+            } catch (IOException e) {
+                if (!closed) metrics.recordError(SyncMetrics.ErrorType.IO, e);
+            }
+            connection = null;
+            if (conn != null) conn.close();
+            if (closed) break;
             try {
-                clientSocket = new Socket(host, port);
-                BufferedReader in = new BufferedReader(new InputStreamReader(clientSocket.getInputStream()));
-                String line;
-                while ((line = in.readLine()) != null) {
-                    if (line.startsWith("PLAYER_JOINED:")) {
-                        String playerName = line.substring("PLAYER_JOINED:".length());
-                        for (var l : listeners) l.onPlayerJoined(playerName);
-                    } else if ("PLAYER_JOINED".equals(line)) {
-                        for (var l : listeners) l.onPlayerJoined("Unknown Player");
-                    } else if ("START_GAME".equals(line)) {
-                        for (var l : listeners) l.onStartGame();
+                Thread.sleep(backoff);
+            } catch (InterruptedException e) {
+                break;
+            }
+            backoff = Math.min(backoff * 2, RECONNECT_MAX_MILLIS);
+        }
+    }
+
+    private EncodedMessage resumeFrame() {
+        long s = session;
+        byte[] payload = ByteBuffer.allocate(17)
+                .putLong(s)
+                .putLong(s == 0 ? 0 : tracker.version())
+                .put((byte) (SyncCompression.capabilities() | (spectator ? SyncFrame.CAP_SPECTATOR : 0)))
+                .array();
+        return EncodedMessage.frame(SyncFrame.Kind.RESUME, payload, 0, payload.length);
+    }
+
+    /** Disconnect for good: no further reconnect attempts, and nothing more is applied or delivered. */
+    @Override
+    public void close() {
+        closed = true;
+        listeners.clear();
+        Connection conn = connection;
+        if (conn != null) conn.close();
+        executor.shutdownNow();
+        MetricsEndpoint.unpublish(metrics);
+    }
+
+    private EncodedMessage encode(SyncFrame.Kind kind, Object value) {
+        long start = System.nanoTime();
+        EncodedMessage message = EncodedMessage.json(kind, value);
+        metrics.recordEncode(System.nanoTime() - start);
+        return message;
+    }
+
+    private <T> T decode(byte[] buf, int len, Class<T> type) {
+        long start = System.nanoTime();
+        T value = gson.fromJson(SyncFrame.payloadReader(buf, 0, len), type);
+        metrics.recordDecode(System.nanoTime() - start);
+        return value;
+    }
+
+    private EncodedMessage pingFrame() {
+        byte[] payload = ByteBuffer.allocate(24)
+                .putLong(System.nanoTime())
+                .putLong(System.currentTimeMillis())
+                .putLong(metrics.getClockOffsetMillis())
+                .array();
+        return EncodedMessage.frame(SyncFrame.Kind.PING, payload, 0, payload.length);
+    }
+
+    private void handleFrame(SyncFrame.Kind kind, byte[] buf, int len) {
+        // A frame read just before close() is dropped, not applied to the game
+        if (closed) return;
+        switch (kind) {
+            case JOIN -> {
+                String playerName = len == 0 ? "Unknown Player" : SyncFrame.payloadString(buf, 0, len);
+                listeners.playerJoined(playerName);
+            }
+            case START -> {
+                listeners.startGame();
+            }
+            case RESYNC -> {
+                // An older host could not apply our delta; take its state rather than push ours over it
+                sendToHost(EncodedMessage.frame(SyncFrame.Kind.RESYNC));
+            }
+            case DELTA -> {
+                try {
+                    GameDelta delta = decode(buf, len, GameDelta.class);
+                    metrics.recordLatency(delta.sentAt, metrics.getClockOffsetMillis());
+                    if (acknowledge(delta)) {
+                        // Our own change coming back: already applied here
+                    } else if (tracker.apply(delta)) {
+                        listeners.update(GameState.get());
+                    } else {
+                        // Missed an update; ask for a full snapshot
+                        sendToHost(EncodedMessage.frame(SyncFrame.Kind.RESYNC));
+                    }
+                } catch (Exception e) {
+                    metrics.recordError(SyncMetrics.ErrorType.DECODE, e);
+                }
+            }
+            case SNAPSHOT -> {
+                try {
+                    GameState.GameSnapshot snapshot = decode(buf, len, GameState.GameSnapshot.class);
+                    metrics.recordLatency(snapshot.sentAt, metrics.getClockOffsetMillis());
+                    GameState.applySnapshot(snapshot);
+                    synchronized (upstreamLock) {
+                        // Whatever we had in flight or waiting was replaced with the host's game
+                        tracker.rebase(snapshot.version);
+                        inFlight = 0;
+                        held = false;
+                    }
+                    session = snapshot.session;
+                    received = true;
+                    listeners.update(GameState.get());
+                } catch (Exception e) {
+                    metrics.recordError(SyncMetrics.ErrorType.DECODE, e);
+                }
+            }
+            case RESUME -> {
+                // Host's answer to our hello: its capability bits
+                compressUpstream = len > 0 && (buf[0] & SyncCompression.capabilities() & SyncCompression.CAP_DEFLATE) != 0;
+            }
+            case ACTION -> {
+                // Host's verdict on one of our actions; the state it changed came first
+                try {
+                    GameAction action = decode(buf, len, GameAction.class);
+                    metrics.recordLatency(action.sentAt, metrics.getClockOffsetMillis());
+                    if (action.rejected != null) System.out.println("Host refused " + action);
+                    listeners.actionResult(action);
+                } catch (Exception e) {
+                    metrics.recordError(SyncMetrics.ErrorType.DECODE, e);
+                }
+            }
+            case SEED -> {
+                if (len < 8) return;
+                GameState.get().getRandom().reseed(ByteBuffer.wrap(buf, 0, len).getLong());
+                lockstep = true;
+                commandMode = true;
+            }
+            case COMMAND -> {
+                try {
+                    GameAction action = decode(buf, len, GameAction.class);
+                    metrics.recordLatency(action.sentAt, metrics.getClockOffsetMillis());
+                    if (applyCommand(action)) {
+                        listeners.update(GameState.get());
+                        listeners.actionResult(action);
                     } else {
-                        try {
-                            GameState.GameSnapshot snapshot = gson.fromJson(line, GameState.GameSnapshot.class);
-                            lastSnapshot = snapshot;
-                            GameState.applySnapshot(snapshot);
-                            for (var l : listeners) l.onUpdate(GameState.get());
-                        } catch (Exception ignored) { }
+                        sendToHost(EncodedMessage.frame(SyncFrame.Kind.RESYNC));
                     }
+                } catch (Exception e) {
+                    metrics.recordError(SyncMetrics.ErrorType.DECODE, e);
+                }
+            }
+            case HASH -> {
+                if (len < 16) return;
+                ByteBuffer payload = ByteBuffer.wrap(buf, 0, len);
+                long version = payload.getLong();
+                long hash = payload.getLong();
+                // Only comparable at the version it was taken; a resync in flight will bring us there
+                if (version != tracker.version()) return;
+                hashChecks.incrementAndGet();
+                if (hash != GameState.stateHash()) {
+                    desyncs.incrementAndGet();
+                    System.out.println("State hash mismatch at version " + version + "; resyncing");
+                    sendToHost(EncodedMessage.frame(SyncFrame.Kind.RESYNC));
                 }
-            } catch (IOException ignored) { }
-        });
+            }
+            case PONG -> {
+                if (len < 24) return;
+                ByteBuffer payload = ByteBuffer.wrap(buf, 0, len);
+                long rtt = System.nanoTime() - payload.getLong();
+                long sentMillis = payload.getLong();
+                long hostMillis = payload.getLong();
+                // The host read its clock about halfway through the round trip
+                metrics.recordPing(rtt, hostMillis - (sentMillis + rtt / 2_000_000));
+            }
+            case PING -> {
+                // Hosts do not ping
+            }
+        }
+    }
+
+    /**
+     * Apply a move the host accepted, as one step. The baseline takes what the move
+     * changed before the step commits so the change is not proposed back upstream. False
+     * when it does not follow our version or our rules refuse what the host's accepted.
+     */
+    private boolean applyCommand(GameAction action) {
+        if (action.version != tracker.version() + 1) return false;
+        String[] refused = new String[1];
+        GameState.beginStep();
+        try {
+            tracker.advance(() -> refused[0] = GameRules.apply(action), action.version);
+        } finally {
+            GameState.commitStep();
+        }
+        if (refused[0] != null) {
+            desyncs.incrementAndGet();
+            return false;
+        }
+        commandsApplied.incrementAndGet();
+        return true;
     }
 
     public void broadcast(GameState state) {
-        // Clients don't broadcast; host is authoritative
-        sendToHost(GameState.createSnapshot());
+        if (spectator) return;
+        synchronized (upstreamLock) {
+            // The next delta has to follow on from the version the one in flight brings
+            if (inFlight != 0) {
+                held = true;
+                return;
+            }
+            proposeUpstream();
+        }
+    }
+
+    // Host is authoritative: propose our changes and let it relay them. Holds upstreamLock
+    private void proposeUpstream() {
+        held = false;
+        GameDelta delta = tracker.diffUpstream();
+        if (delta == null) {
+            sendToHost(GameState.createSnapshot());
+        } else if (!delta.isEmpty()) {
+            delta.origin = origin;
+            delta.sentAt = System.currentTimeMillis();
+            inFlight = delta.version;
+            sendToHost(encode(SyncFrame.Kind.DELTA, delta));
+        }
+    }
+
+    // True when {@code delta} is the host's echo of ours: its version is now ours, and held changes go up
+    private boolean acknowledge(GameDelta delta) {
+        synchronized (upstreamLock) {
+            if (inFlight == 0 || delta.origin != origin || delta.version != inFlight
+                    || !tracker.acknowledge(delta)) return false;
+            inFlight = 0;
+            if (held) proposeUpstream();
+            return true;
+        }
     }
 
     public void broadcastPlayerJoined(String playerName) {
         // Clients can send player joined messages to host
-        sendToHost("PLAYER_JOINED:" + playerName);
+        if (!spectator) sendToHost(EncodedMessage.frame(SyncFrame.Kind.JOIN, playerName));
     }
 
     public void broadcastStartGame() {
         // Clients can send start game to host
-        sendToHost("START_GAME");
+        if (!spectator) sendToHost(EncodedMessage.frame(SyncFrame.Kind.START));
+    }
+
+    @Override
+    public boolean sendsActions() { return commandMode || spectator; }
+
+    public void setCommandMode(boolean on) { this.commandMode = on; }
+
+    /** True once the host has sent a SEED: moves come back as COMMANDs applied here. */
+    public boolean isLockstep() { return lockstep; }
+
+    public boolean isSpectator() { return spectator; }
+
+    @Override
+    public String sendAction(GameAction action) {
+        // Routed here (sendsActions) so the move is not applied locally either
+        if (spectator) return "Spectators cannot move";
+        action.sentAt = System.currentTimeMillis();
+        sendToHost(encode(SyncFrame.Kind.ACTION, action));
+        return null;
     }
 
-    public void subscribe(GameSync.GameSyncListener listener) {
-        listeners.add(listener);
-        // If a snapshot was already received, deliver immediately
-        GameState.GameSnapshot snapshot = lastSnapshot;
-        if (snapshot != null) {
+    @Override
+    public Subscription subscribe(GameSync.GameSyncListener listener, Executor executor) {
+        ListenerRegistry.Registration r = listeners.add(listener, executor);
+        // If a snapshot was already received, deliver the game as it stands. A snapshot is
+        // built only for a subscriber keeping a game of its own, not after every update
+        GameState applied = target;
+        if (received && applied != null) {
             try {
-                GameState.applySnapshot(snapshot);
-                listener.onUpdate(GameState.get());
+                GameState mine = GameState.get();
+                if (mine != applied) {
+                    GameState.GameSnapshot[] snapshot = new GameState.GameSnapshot[1];
+                    GameState.bindTo(applied, () -> snapshot[0] = GameState.createSnapshot()).run();
+                    GameState.applySnapshot(snapshot[0]);
+                }
+                r.update(mine);
             } catch (Throwable ignored) {}
         }
+        return r;
     }
 
+    @Override
+    public ListenerRegistry.DispatchStats getDispatchStats() { return listeners.getStats(); }
+
+    @Override
+    public SyncMetrics getMetrics() { return metrics; }
+
+    /** Frames written to the host so far. */
+    public long getFramesWritten() { return framesWritten.get(); }
+    /** Socket flushes so far; frames per flush is how well sends were batched. */
+    public long getFlushes() { return flushes.get(); }
+    /** Lockstep COMMANDs replayed here. */
+    public long getCommandsApplied() { return commandsApplied.get(); }
+    /** HASH frames compared against our own state. */
+    public long getHashChecks() { return hashChecks.get(); }
+    /** Hash mismatches plus COMMANDs our rules refused; each one costs a resync. */
+    public long getDesyncs() { return desyncs.get(); }
+
     private void sendToHost(GameState.GameSnapshot snapshot) {
-        executor.execute(() -> {
-            try {
-                if (clientSocket == null) return;
-                PrintWriter out = new PrintWriter(new OutputStreamWriter(clientSocket.getOutputStream()), true);
-                out.println(gson.toJson(snapshot));
-            } catch (IOException ignored) { }
-        });
+        snapshot.sentAt = System.currentTimeMillis();
+        sendToHost(encode(SyncFrame.Kind.SNAPSHOT, snapshot));
+    }
+
+    private void sendToHost(EncodedMessage message) {
+        // Nothing to write to while disconnected
+        Connection conn = connection;
+        if (conn != null) conn.offer(message);
     }
 
-    private void sendToHost(String message) {
-        executor.execute(() -> {
+    /** One socket's outbound side: an ordered queue and the only thread that writes to it. */
+    private class Connection {
+        private final Socket socket;
+        private final ArrayDeque<EncodedMessage> queue = new ArrayDeque<>();
+        // A lock rather than synchronized so a waiting writer does not pin a virtual thread
+        private final ReentrantLock queueLock = new ReentrantLock();
+        private final Condition queued = queueLock.newCondition();
+        private volatile boolean open = true;
+
+        Connection(Socket socket) {
+            this.socket = socket;
+        }
+
+        void offer(EncodedMessage message) {
+            queueLock.lock();
+            try {
+                if (!open) return;
+                queue.add(message);
+                queued.signal();
+            } finally {
+                queueLock.unlock();
+            }
+        }
+
+        void writeLoop() {
+            List<EncodedMessage> batch = new ArrayList<>();
+            // First ping right after the hello, so figures appear as soon as we connect
+            long nextPing = System.nanoTime();
             try {
-                if (clientSocket == null) return;
-                PrintWriter out = new PrintWriter(new OutputStreamWriter(clientSocket.getOutputStream()), true);
-                out.println(message);
-            } catch (IOException ignored) { }
-        });
+                OutputStream out = new BufferedOutputStream(socket.getOutputStream());
+                while (open) {
+                    queueLock.lock();
+                    try {
+                        while (open && queue.isEmpty()) {
+                            if (pingNanos <= 0) {
+                                queued.await();
+                            } else {
+                                long wait = nextPing - System.nanoTime();
+                                if (wait <= 0) break;
+                                queued.awaitNanos(wait);
+                            }
+                        }
+                        batch.addAll(queue);
+                        queue.clear();
+                    } finally {
+                        queueLock.unlock();
+                    }
+                    if (pingNanos > 0 && System.nanoTime() - nextPing >= 0) {
+                        batch.add(pingFrame());
+                        nextPing = System.nanoTime() + pingNanos;
+                    }
+                    if (batch.isEmpty()) continue;
+                    for (EncodedMessage m : batch) {
+                        // Compress here, off the caller's thread; order is already fixed
+                        EncodedMessage frame = compressUpstream ? m.compressed() : m;
+                        frame.writeTo(out);
+                        metrics.recordOut(frame.kind(), frame.length());
+                    }
+                    out.flush();
+                    framesWritten.addAndGet(batch.size());
+                    flushes.incrementAndGet();
+                    batch.clear();
+                }
+            } catch (IOException e) {
+                if (open) metrics.recordError(SyncMetrics.ErrorType.IO, e);
+            } catch (InterruptedException ignored) {
+            } finally {
+                close();
+            }
+        }
+
+        void close() {
+            queueLock.lock();
+            try {
+                open = false;
+                queue.clear();
+                queued.signal();
+            } finally {
+                queueLock.unlock();
+            }
+            try { socket.close(); } catch (IOException ignored) { }
+        }
     }
 }
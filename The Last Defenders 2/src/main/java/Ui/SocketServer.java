@@ -1,133 +1,204 @@
 package Ui;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonDeserializer;
-import com.google.gson.JsonPrimitive;
-import com.google.gson.JsonSerializer;
-
-import java.io.BufferedReader;
+import java.io.BufferedOutputStream;
+import java.io.BufferedInputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
-import java.io.PrintWriter;
+import java.io.OutputStream;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Handles server-side networking: accepts client connections, broadcasts updates.
+ * One blocking reader per client, run on pooled platform threads or on virtual
+ * threads ({@link NetworkSync.ThreadMode}); see {@link NioSocketServer} for the
+ * single-threaded selector variant. Each client also has a writer task that drains
+ * its outbound queue, so a stalled socket never blocks the game thread.
  */
-public class SocketServer implements GameSync {
+public class SocketServer extends SyncServer {
     private final int port;
-    private final ExecutorService executor = Executors.newCachedThreadPool();
-    private final List<GameSync.GameSyncListener> listeners = new ArrayList<>();
-    private final Gson gson = new GsonBuilder()
-            .registerTypeAdapter(LocalDateTime.class, (JsonSerializer<LocalDateTime>) (src, typeOfSrc, context) ->
-                    new JsonPrimitive(src.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME)))
-            .registerTypeAdapter(LocalDateTime.class, (JsonDeserializer<LocalDateTime>) (json, typeOfT, context) ->
-                    LocalDateTime.parse(json.getAsString(), DateTimeFormatter.ISO_LOCAL_DATE_TIME))
-            .create();
-    private volatile GameState.GameSnapshot lastSnapshot;
+    private final ExecutorService executor;
 
     private ServerSocket serverSocket;
-    private final List<ClientHandler> clients = new ArrayList<>();
+    private final List<ClientHandler> clients = new CopyOnWriteArrayList<>();
 
     public SocketServer(int port) {
+        this(port, NetworkSync.getThreadMode());
+    }
+
+    public SocketServer(int port, NetworkSync.ThreadMode threadMode) {
+        this(port, threadMode, null);
+    }
+
+    /** A host whose game-state work runs on {@code stateExecutor} (a room's thread). */
+    public SocketServer(int port, NetworkSync.ThreadMode threadMode, Executor stateExecutor) {
+        super(stateExecutor);
         this.port = port;
-        start();
+        this.executor = NetworkSync.newConnectionExecutor(threadMode);
     }
 
-    private void start() {
+    @Override
+    public void start() {
+        MetricsEndpoint.publish("host:" + port, getMetrics());
         executor.execute(() -> {
             try {
                 serverSocket = new ServerSocket(port);
                 while (!serverSocket.isClosed()) {
                     Socket s = serverSocket.accept();
                     ClientHandler handler = new ClientHandler(s);
-                    synchronized (clients) { clients.add(handler); }
+                    onPeerConnected(handler, () -> {
+                        if (handler.isOpen()) clients.add(handler);
+                    });
                     executor.execute(handler);
-                    // Send initial snapshot immediately so joiners see the board
-                    handler.sendSnapshot(GameState.createSnapshot());
+                    executor.execute(handler::writeLoop);
                 }
             } catch (IOException ignored) { }
         });
     }
 
-    public void broadcast(GameState state) {
-        lastSnapshot = GameState.createSnapshot();
-        synchronized (clients) {
-            for (ClientHandler c : clients) c.sendSnapshot(lastSnapshot);
-        }
-    }
-
-    public void broadcastPlayerJoined(String playerName) {
-        synchronized (clients) {
-            for (ClientHandler c : clients) c.sendMessage("PLAYER_JOINED:" + playerName);
-        }
-    }
-
-    public void broadcastStartGame() {
-        synchronized (clients) {
-            for (ClientHandler c : clients) c.sendMessage("START_GAME");
-        }
+    /** Stop accepting, drop every client and release the handler threads. */
+    @Override
+    public void close() {
+        try {
+            if (serverSocket != null) serverSocket.close();
+        } catch (IOException ignored) { }
+        for (ClientHandler c : clients) c.disconnect();
+        executor.shutdownNow();
+        MetricsEndpoint.unpublish(getMetrics());
     }
 
-    public void subscribe(GameSync.GameSyncListener listener) {
-        listeners.add(listener);
+    @Override
+    protected Iterable<ClientHandler> peers() {
+        return clients;
     }
 
-    private class ClientHandler implements Runnable {
+    private class ClientHandler extends Peer implements Runnable {
         private final Socket socket;
-        private PrintWriter out;
+        private OutputStream out;
+        private final ArrayDeque<EncodedMessage> queue = new ArrayDeque<>();
+        // A lock rather than synchronized so a waiting writer does not pin a virtual thread
+        private final ReentrantLock queueLock = new ReentrantLock();
+        private final Condition queued = queueLock.newCondition();
+        private volatile boolean open = true;
 
         ClientHandler(Socket socket) {
             this.socket = socket;
             try {
-                this.out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream()), true);
-            } catch (IOException ignored) { }
+                this.out = new BufferedOutputStream(socket.getOutputStream());
+            } catch (IOException e) {
+                open = false;
+            }
         }
 
-        void sendSnapshot(GameState.GameSnapshot snapshot) {
-            if (out != null) {
-                out.println(gson.toJson(snapshot));
+        @Override
+        protected boolean send(EncodedMessage message) {
+            queueLock.lock();
+            try {
+                if (!open || queue.size() >= getMaxQueuedMessages()) return false;
+                queue.add(message);
+                queued.signal();
+                return true;
+            } finally {
+                queueLock.unlock();
             }
         }
 
-        void sendMessage(String message) {
-            if (out != null) {
-                out.println(message);
+        @Override
+        protected boolean isOpen() { return open; }
+
+        @Override
+        protected int queueDepth() {
+            queueLock.lock();
+            try {
+                return queue.size();
+            } finally {
+                queueLock.unlock();
             }
         }
 
         @Override
-        public void run() {
+        protected int dropQueuedState() {
+            queueLock.lock();
+            try {
+                int before = queue.size();
+                queue.removeIf(m -> m.kind().isState());
+                return before - queue.size();
+            } finally {
+                queueLock.unlock();
+            }
+        }
+
+        @Override
+        protected void forceSend(EncodedMessage message) {
+            queueLock.lock();
+            try {
+                if (!open) return;
+                queue.add(message);
+                queued.signal();
+            } finally {
+                queueLock.unlock();
+            }
+        }
+
+        @Override
+        protected void disconnect() {
+            open = false;
+            clients.remove(this);
+            try { socket.close(); } catch (IOException ignored) { }
+            queueLock.lock();
+            try {
+                queue.clear();
+                queued.signal();
+            } finally {
+                queueLock.unlock();
+            }
+        }
+
+        // Takes whatever is queued, writes it in one go and flushes once
+        void writeLoop() {
+            List<EncodedMessage> batch = new ArrayList<>();
             try {
-                BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
-                String line;
-                while ((line = in.readLine()) != null) {
-                    if (line.startsWith("PLAYER_JOINED:")) {
-                        String playerName = line.substring("PLAYER_JOINED:".length());
-                        for (var l : listeners) l.onPlayerJoined(playerName);
-                    } else if ("PLAYER_JOINED".equals(line)) {
-                        for (var l : listeners) l.onPlayerJoined("Unknown Player");
-                    } else if ("START_GAME".equals(line)) {
-                        for (var l : listeners) l.onStartGame();
-                    } else {
-                        try {
-                            GameState.GameSnapshot snapshot = gson.fromJson(line, GameState.GameSnapshot.class);
-                            lastSnapshot = snapshot;
-                            GameState.applySnapshot(snapshot);
-                            for (var l : listeners) l.onUpdate(GameState.get());
-                        } catch (Exception ignored) { }
+                while (open) {
+                    queueLock.lock();
+                    try {
+                        while (open && queue.isEmpty()) queued.await();
+                        batch.addAll(queue);
+                        queue.clear();
+                    } finally {
+                        queueLock.unlock();
                     }
+                    for (EncodedMessage m : batch) m.writeTo(out);
+                    out.flush();
+                    batch.clear();
                 }
-            } catch (IOException ignored) { }
+            } catch (IOException e) {
+                if (open) getMetrics().recordError(SyncMetrics.ErrorType.IO, e);
+            } catch (InterruptedException ignored) {
+            } finally {
+                disconnect();
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                SyncFrame.FrameReader in = new SyncFrame.FrameReader(new BufferedInputStream(socket.getInputStream()));
+                while (in.next()) {
+                    getMetrics().recordIn(in.kind(), in.wireLength());
+                    handleFrame(this, in.kind(), in.buffer(), 0, in.length());
+                }
+            } catch (IOException e) {
+                if (open) getMetrics().recordError(SyncMetrics.ErrorType.IO, e);
+            } finally {
+                disconnect();
+            }
         }
     }
 }
@@ -0,0 +1,197 @@
+package Ui;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Optional Deflate layer for large sync frames. Peers advertise {@link #CAP_DEFLATE}
+ * in the RESUME hello; frames to a peer that did are compressed when the payload is
+ * over the threshold and actually shrinks. A compressed frame has {@link #COMPRESSED_FLAG}
+ * set on its kind byte and a payload of the raw length (4 bytes) followed by a Deflate
+ * stream primed with {@link #DICTIONARY}.
+ */
+public final class SyncCompression {
+    /** Capability bit: this end can read compressed frames. */
+    public static final int CAP_DEFLATE = 1;
+    /** Marks a compressed frame on the kind byte. */
+    public static final int COMPRESSED_FLAG = 0x80;
+
+    // Can be overridden with -Dsync.compress=false and -Dsync.compressAbove=<bytes>
+    private static volatile boolean enabled = !"false".equalsIgnoreCase(System.getProperty("sync.compress"));
+    private static volatile int threshold = Integer.getInteger("sync.compressAbove", 1024);
+
+    /**
+     * Preset dictionary taken from typical snapshots and deltas: field names, enum
+     * constants, player colours and the history descriptions the game writes. Deflate
+     * reaches the end of the dictionary most cheaply, so the most common text is last.
+     * Both ends must use the same bytes; changing it is a protocol change.
+     */
+    static final byte[] DICTIONARY = (
+            "\"type\":\"START\",\"type\":\"FREE\",\"type\":\"CHECKPOST\",\"type\":\"QUARANTINE\","
+            + "\"type\":\"SAFEHAVEN\",\"type\":\"ZOMBIE\",\"type\":\"RESOURCE\",\"type\":\"SCENARIO\","
+            + "\"type\":\"SPECIAL\",\"type\":\"TERRITORY\","
+            + "{\"baseVersion\":0,\"version\":1,\"playerCount\":4,\"currentIndex\":0,\"players\":[{\"index\":0,"
+            + "\"ai\":false,\"historyFrom\":0,\"history\":[]}],\"tiles\":[{\"position\":1,\"type\":\"TERRITORY\","
+            + "\"name\":\"\",\"ownerId\":0,\"upgradeLevel\":0,\"canSetPrices\":false}]}"
+            + "{\"version\":0,\"session\":0,\"players\":[{\"id\":1,\"name\":\"Player1\",\"health\":1500,\"maxHealth\":1500,"
+            + "\"money\":1000,\"attack\":100,\"influence\":0,\"medicine\":0,\"pos\":0,\"color\":\"#ff3b30\","
+            + "\"color\":\"#34c759\",\"color\":\"#007aff\",\"color\":\"#ffcc00\",\"inQuarantine\":false,"
+            + "\"labCureFunded\":false,\"labPassesRemaining\":0,\"labCureComplete\":false,\"isAI\":false,"
+            + "\"history\":{\"history\":[]}}],\"currentIndex\":0,\"lastRoll\":7,\"dice1\":3,\"dice2\":4,"
+            + "\"tiles\":{\"1\":{\"type\":\"TERRITORY\",\"name\":\"\",\"position\":1,\"ownerId\":1,"
+            + "\"influenceValue\":0,\"isOwned\":true,\"upgradeLevel\":0,\"tradePercentage\":40,"
+            + "\"medicineReward\":5,\"attackReward\":12,\"canSetPrices\":false}},"
+            + "{\"type\":\"ATTACK\",\"description\":\"Attacked \",\"amount\":0,"
+            + "{\"type\":\"MEDICINE_USED\",\"description\":\"Used medicine (+50 HP)\",\"amount\":0,"
+            + "{\"type\":\"UPGRADED_TILE\",\"description\":\"Upgraded  to level \",\"amount\":-500,"
+            + "{\"type\":\"SOLD_TILE\",\"description\":\"Sold  (Position \",\"amount\":"
+            + "{\"type\":\"BOUGHT_TILE\",\"description\":\"Bought  (Position \",\"amount\":-"
+            + "\"timestamp\":\"2026-01-01T12:00:00.000000000\"},"
+            + "{\"type\":\"EXPENSE\",\"description\":\"Money spent\",\"amount\":-100,\"timestamp\":\"2026-01-01T12:00:00.0"
+            + "{\"type\":\"INCOME\",\"description\":\"Money earned\",\"amount\":200,\"timestamp\":\"2026-01-01T12:00:00.0"
+    ).getBytes(StandardCharsets.UTF_8);
+
+    private static final ConcurrentLinkedQueue<Deflater> deflaters = new ConcurrentLinkedQueue<>();
+    private static final Stats stats = new Stats();
+
+    private SyncCompression() { }
+
+    public static boolean isEnabled() { return enabled; }
+    public static void setEnabled(boolean on) { enabled = on; }
+    /** Payloads at or below this many bytes are always sent as they are. */
+    public static int getThreshold() { return threshold; }
+    public static void setThreshold(int bytes) { threshold = Math.max(0, bytes); }
+    public static Stats stats() { return stats; }
+
+    /** Capability bits this build advertises in its hello. */
+    static int capabilities() {
+        return enabled ? CAP_DEFLATE : 0;
+    }
+
+    /**
+     * The compressed payload (raw length, then Deflate data) for {@code len} bytes at
+     * {@code off}, or null when it is under the threshold or would not be smaller.
+     */
+    static byte[] deflate(byte[] raw, int off, int len) {
+        if (!enabled || len <= threshold) return null;
+        long start = System.nanoTime();
+        Deflater deflater = deflaters.poll();
+        if (deflater == null) deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        try {
+            deflater.setDictionary(DICTIONARY);
+            deflater.setInput(raw, off, len);
+            deflater.finish();
+            // Not worth sending if it does not beat the raw payload
+            byte[] out = new byte[len];
+            out[0] = (byte) (len >>> 24);
+            out[1] = (byte) (len >>> 16);
+            out[2] = (byte) (len >>> 8);
+            out[3] = (byte) len;
+            int n = 4;
+            while (!deflater.finished() && n < out.length) {
+                n += deflater.deflate(out, n, out.length - n);
+            }
+            if (!deflater.finished()) {
+                stats.recordSkipped(System.nanoTime() - start);
+                return null;
+            }
+            stats.recordDeflate(len, n, System.nanoTime() - start);
+            return Arrays.copyOf(out, n);
+        } finally {
+            deflater.reset();
+            deflaters.offer(deflater);
+        }
+    }
+
+    /** Inflates compressed payloads into a buffer it reuses; one per connection. */
+    public static class Decoder {
+        private final Inflater inflater = new Inflater();
+        private byte[] out = new byte[8 * 1024];
+
+        /** Inflate a compressed payload; the result is {@link #buffer()}[0, returned length). */
+        public int inflate(byte[] src, int off, int len) throws IOException {
+            if (len < 4) throw new IOException("Truncated compressed frame");
+            int raw = SyncFrame.checkedLength(((src[off] & 0xff) << 24) | ((src[off + 1] & 0xff) << 16)
+                    | ((src[off + 2] & 0xff) << 8) | (src[off + 3] & 0xff));
+            if (raw > out.length) out = new byte[Math.max(raw, out.length * 2)];
+            long start = System.nanoTime();
+            inflater.reset();
+            inflater.setInput(src, off + 4, len - 4);
+            try {
+                int n = 0;
+                while (n < raw) {
+                    int got = inflater.inflate(out, n, raw - n);
+                    if (got == 0) {
+                        if (inflater.needsDictionary()) {
+                            inflater.setDictionary(DICTIONARY);
+                        } else if (inflater.finished() || inflater.needsInput()) {
+                            throw new IOException("Compressed frame shorter than declared");
+                        }
+                    }
+                    n += got;
+                }
+            } catch (DataFormatException e) {
+                throw new IOException("Bad compressed frame", e);
+            }
+            stats.recordInflate(System.nanoTime() - start);
+            return raw;
+        }
+
+        public byte[] buffer() { return out; }
+    }
+
+    /** Process-wide totals: how much compression saved and what it cost. */
+    public static class Stats {
+        private final AtomicLong compressedFrames = new AtomicLong();
+        private final AtomicLong skippedFrames = new AtomicLong();
+        private final AtomicLong rawBytes = new AtomicLong();
+        private final AtomicLong compressedBytes = new AtomicLong();
+        private final AtomicLong deflateNanos = new AtomicLong();
+        private final AtomicLong inflatedFrames = new AtomicLong();
+        private final AtomicLong inflateNanos = new AtomicLong();
+
+        void recordDeflate(int raw, int compressed, long nanos) {
+            compressedFrames.incrementAndGet();
+            rawBytes.addAndGet(raw);
+            compressedBytes.addAndGet(compressed);
+            deflateNanos.addAndGet(nanos);
+        }
+
+        void recordSkipped(long nanos) {
+            skippedFrames.incrementAndGet();
+            deflateNanos.addAndGet(nanos);
+        }
+
+        void recordInflate(long nanos) {
+            inflatedFrames.incrementAndGet();
+            inflateNanos.addAndGet(nanos);
+        }
+
+        public long getCompressedFrames() { return compressedFrames.get(); }
+        /** Frames over the threshold that did not shrink and went out raw. */
+        public long getSkippedFrames() { return skippedFrames.get(); }
+        public long getRawBytes() { return rawBytes.get(); }
+        public long getCompressedBytes() { return compressedBytes.get(); }
+        /** Compressed size over raw size for the frames that were compressed. */
+        public double getRatio() {
+            long raw = rawBytes.get();
+            return raw == 0 ? 1.0 : (double) compressedBytes.get() / raw;
+        }
+        public long getDeflateNanos() { return deflateNanos.get(); }
+        public long getInflatedFrames() { return inflatedFrames.get(); }
+        public long getInflateNanos() { return inflateNanos.get(); }
+
+        @Override
+        public String toString() {
+            return String.format("CompressionStats{compressed=%d, skipped=%d, raw=%d, out=%d, ratio=%.3f, deflateMicros=%d, inflated=%d, inflateMicros=%d}",
+                    getCompressedFrames(), getSkippedFrames(), getRawBytes(), getCompressedBytes(), getRatio(),
+                    getDeflateNanos() / 1_000, getInflatedFrames(), getInflateNanos() / 1_000);
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package Ui;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Wire framing for the sync protocol: a one-byte message kind, a four-byte big-endian
+ * payload length, then the payload. JSON payloads (snapshot, delta, action) and text
+ * payloads (player name) are UTF-8. The kind's top bit marks a compressed payload
+ * ({@link SyncCompression}).
+ */
+public final class SyncFrame {
+    public static final int HEADER_BYTES = 5;
+    public static final int MAX_PAYLOAD_BYTES = 16 * 1024 * 1024;
+    /**
+     * RESUME capability bit: this peer only watches. It is sent updates like anyone else,
+     * but the host ignores everything it sends except RESYNC.
+     */
+    public static final int CAP_SPECTATOR = 2;
+
+    public enum Kind {
+        SNAPSHOT(1),
+        DELTA(2),
+        JOIN(3),
+        START(4),
+        ACTION(5),
+        RESYNC(6),
+        /**
+         * Client hello: host session and last applied version (zeros for a new session),
+         * then capability bits. The host answers with its own capability byte.
+         */
+        RESUME(7),
+        /**
+         * Lockstep: a move the host accepted, as JSON {@link GameAction} with the version it
+         * produces. Every peer applies it with {@link GameRules} instead of receiving a delta.
+         */
+        COMMAND(8),
+        /** Lockstep: the game's random seed (8 bytes); every stream starts over from it. */
+        SEED(9),
+        /** Lockstep: a version (8 bytes) and the host's {@link GameState#stateHash()} at it (8 bytes). */
+        HASH(10),
+        /**
+         * Round-trip probe: the sender's {@code System.nanoTime()}, its wall clock and its
+         * current guess at how far the other clock is ahead (8 bytes each). Answered with a
+         * PONG; peers that predate it skip it.
+         */
+        PING(11),
+        /** A PING's first 16 bytes echoed, then the answering side's wall clock (8 bytes). */
+        PONG(12);
+
+        private final byte code;
+
+        Kind(int code) {
+            this.code = (byte) code;
+        }
+
+        public byte code() { return code; }
+
+        /**
+         * Frames that move or check game state, which a newer snapshot makes redundant and a
+         * slow peer may have thrown away.
+         */
+        public boolean isState() {
+            return this == SNAPSHOT || this == DELTA || this == COMMAND || this == HASH;
+        }
+
+        private static final Kind[] BY_CODE = new Kind[16];
+        static {
+            for (Kind k : values()) BY_CODE[k.code] = k;
+        }
+
+        /** The kind for a wire code, or null if this build does not know it. */
+        public static Kind of(byte code) {
+            return code >= 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+        }
+    }
+
+    private SyncFrame() { }
+
+    static boolean isCompressed(int code) {
+        return (code & SyncCompression.COMPRESSED_FLAG) != 0;
+    }
+
+    /** The kind for a code with the compressed bit cleared. */
+    static Kind kindOf(int code) {
+        return Kind.of((byte) (code & ~SyncCompression.COMPRESSED_FLAG));
+    }
+
+    /** Read a length from a header, rejecting sizes we will never accept. */
+    static int checkedLength(int length) throws IOException {
+        if (length < 0 || length > MAX_PAYLOAD_BYTES) throw new IOException("Bad frame length " + length);
+        return length;
+    }
+
+    /** A reader over the payload bytes, decoding UTF-8 without building a String. */
+    static Reader payloadReader(byte[] buf, int off, int len) {
+        return new Utf8Reader(buf, off, len);
+    }
+
+    static String payloadString(byte[] buf, int off, int len) {
+        return new String(buf, off, len, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads frames from a blocking stream into one reusable buffer that only grows
+     * when a larger frame arrives. The payload is valid until the next call to {@link #next()}.
+     */
+    public static class FrameReader {
+        private final DataInputStream in;
+        private byte[] buffer = new byte[8 * 1024];
+        private byte[] payload = buffer;
+        private SyncCompression.Decoder decoder;
+        private Kind kind;
+        private int length;
+        private int wireLength;
+
+        public FrameReader(InputStream in) {
+            this.in = new DataInputStream(in);
+        }
+
+        /**
+         * Read the next frame; false on a clean end of stream. Unknown kinds are skipped and
+         * compressed payloads are inflated.
+         */
+        public boolean next() throws IOException {
+            while (true) {
+                int code = in.read();
+                if (code < 0) return false;
+                int len = checkedLength(in.readInt());
+                if (len > buffer.length) buffer = new byte[Math.max(len, buffer.length * 2)];
+                try {
+                    in.readFully(buffer, 0, len);
+                } catch (EOFException e) {
+                    return false;
+                }
+                kind = kindOf(code);
+                if (kind == null) continue;
+                wireLength = HEADER_BYTES + len;
+                if (isCompressed(code)) {
+                    if (decoder == null) decoder = new SyncCompression.Decoder();
+                    length = decoder.inflate(buffer, 0, len);
+                    payload = decoder.buffer();
+                } else {
+                    length = len;
+                    payload = buffer;
+                }
+                return true;
+            }
+        }
+
+        public Kind kind() { return kind; }
+        public byte[] buffer() { return payload; }
+        public int length() { return length; }
+        /** Bytes the frame took on the wire, header included and before inflating. */
+        public int wireLength() { return wireLength; }
+    }
+
+    /**
+     * Decodes UTF-8 straight out of a byte range. Unlike an InputStreamReader it has no
+     * decoder or byte buffer of its own, so a frame is parsed without allocating more
+     * than the reader itself. Malformed input reads as U+FFFD.
+     */
+    static final class Utf8Reader extends Reader {
+        private final byte[] buf;
+        private int pos;
+        private final int end;
+        // Second half of a surrogate pair not yet handed out
+        private char low;
+
+        Utf8Reader(byte[] buf, int off, int len) {
+            this.buf = buf;
+            this.pos = off;
+            this.end = off + len;
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) {
+            if (len == 0) return 0;
+            int n = 0;
+            if (low != 0) {
+                cbuf[off + n++] = low;
+                low = 0;
+            }
+            while (n < len && pos < end) {
+                // Runs of ASCII, which is nearly all of a frame, in a tight loop
+                int run = Math.min(len - n, end - pos);
+                int i = 0;
+                while (i < run && buf[pos + i] >= 0) {
+                    cbuf[off + n + i] = (char) buf[pos + i];
+                    i++;
+                }
+                pos += i;
+                n += i;
+                if (n == len || pos == end) break;
+                int cp = decode();
+                if (cp >= 0x10000) {
+                    cbuf[off + n++] = Character.highSurrogate(cp);
+                    if (n < len) {
+                        cbuf[off + n++] = Character.lowSurrogate(cp);
+                    } else {
+                        low = Character.lowSurrogate(cp);
+                    }
+                } else {
+                    cbuf[off + n++] = (char) cp;
+                }
+            }
+            return n == 0 ? -1 : n;
+        }
+
+        // One multi-byte sequence at pos; advances past it
+        private int decode() {
+            int b = buf[pos] & 0xFF;
+            int extra = b >= 0xF0 ? 3 : b >= 0xE0 ? 2 : b >= 0xC0 ? 1 : -1;
+            if (extra < 0 || b > 0xF4 || pos + extra >= end) {
+                pos++;
+                return 0xFFFD;
+            }
+            int cp = b & (0x3F >> extra);
+            for (int i = 1; i <= extra; i++) {
+                int c = buf[pos + i] & 0xFF;
+                if ((c & 0xC0) != 0x80) {
+                    pos += i;
+                    return 0xFFFD;
+                }
+                cp = (cp << 6) | (c & 0x3F);
+            }
+            pos += extra + 1;
+            int min = extra == 1 ? 0x80 : extra == 2 ? 0x800 : 0x10000;
+            if (cp < min || cp > 0x10FFFF || (cp >= 0xD800 && cp <= 0xDFFF)) return 0xFFFD;
+            return cp;
+        }
+
+        @Override
+        public void close() { }
+    }
+}
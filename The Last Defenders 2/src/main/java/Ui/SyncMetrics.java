@@ -0,0 +1,294 @@
+package Ui;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * What one sync endpoint (a host, a client, a local sync) has been doing: frames and
+ * bytes in and out per {@link SyncFrame.Kind}, with rates over the last few seconds;
+ * how long encoding and decoding took; how old state was when it arrived; round trips
+ * of PING frames; and errors that used to be swallowed. Everything is lock-free so the
+ * network threads can record as they go, and {@link #report()} takes a plain copy the
+ * UI or {@link MetricsEndpoint} can read.
+ *
+ * Latency is measured from the {@code sentAt} wall-clock stamp that deltas, snapshots and
+ * actions carry. Pings estimate how far the other side's clock is ahead of ours (from
+ * the fastest round trip seen, where the guess is best) and the stamps are corrected by
+ * that, so hosts and clients on different machines still give sensible figures.
+ */
+public class SyncMetrics {
+    private static final int KINDS = 16;
+
+    /** What went wrong, roughly. */
+    public enum ErrorType {
+        /** A frame that would not parse or apply. */
+        DECODE,
+        /** A socket that failed while reading, writing or connecting. */
+        IO,
+        /** A frame the peer was not allowed to send, such as state in command mode. */
+        REFUSED
+    }
+
+    private final long startedNanos = System.nanoTime();
+    private final AtomicLongArray framesIn = new AtomicLongArray(KINDS);
+    private final AtomicLongArray bytesIn = new AtomicLongArray(KINDS);
+    private final AtomicLongArray framesOut = new AtomicLongArray(KINDS);
+    private final AtomicLongArray bytesOut = new AtomicLongArray(KINDS);
+    private final Rate framesInRate = new Rate();
+    private final Rate bytesInRate = new Rate();
+    private final Rate framesOutRate = new Rate();
+    private final Rate bytesOutRate = new Rate();
+    private final Histogram encode = new Histogram();
+    private final Histogram decode = new Histogram();
+    private final Histogram latency = new Histogram();
+    private final Histogram ping = new Histogram();
+    private final AtomicLongArray errors = new AtomicLongArray(ErrorType.values().length);
+    private volatile String lastError;
+    private volatile long clockOffsetMillis;
+    private volatile long bestPingNanos = Long.MAX_VALUE;
+
+    public void recordIn(SyncFrame.Kind kind, int bytes) {
+        if (kind == null) return;
+        framesIn.incrementAndGet(kind.code());
+        bytesIn.addAndGet(kind.code(), bytes);
+        framesInRate.add(1);
+        bytesInRate.add(bytes);
+    }
+
+    public void recordOut(SyncFrame.Kind kind, int bytes) {
+        if (kind == null) return;
+        framesOut.incrementAndGet(kind.code());
+        bytesOut.addAndGet(kind.code(), bytes);
+        framesOutRate.add(1);
+        bytesOutRate.add(bytes);
+    }
+
+    public void recordEncode(long nanos) { encode.record(nanos); }
+    public void recordDecode(long nanos) { decode.record(nanos); }
+
+    /**
+     * A state frame stamped {@code sentAtMillis} by a sender whose clock runs
+     * {@code senderAheadMillis} ahead of ours arrived just now. Unstamped frames are ignored.
+     */
+    public void recordLatency(long sentAtMillis, long senderAheadMillis) {
+        if (sentAtMillis <= 0) return;
+        long millis = System.currentTimeMillis() - (sentAtMillis - senderAheadMillis);
+        latency.record(Math.max(0, millis) * 1_000_000L);
+    }
+
+    /** A ping came back after {@code rttNanos}; {@code offsetMillis} is the other clock minus ours. */
+    public void recordPing(long rttNanos, long offsetMillis) {
+        ping.record(rttNanos);
+        if (rttNanos <= bestPingNanos) {
+            bestPingNanos = rttNanos;
+            clockOffsetMillis = offsetMillis;
+        }
+    }
+
+    public void recordError(ErrorType type, Throwable e) {
+        errors.incrementAndGet(type.ordinal());
+        lastError = type + ": " + e;
+    }
+
+    /** How far the other side's clock is ahead of ours, as far as pings can tell; 0 before the first. */
+    public long getClockOffsetMillis() { return clockOffsetMillis; }
+
+    public long getErrors() {
+        long n = 0;
+        for (int i = 0; i < errors.length(); i++) n += errors.get(i);
+        return n;
+    }
+
+    public long getFramesIn(SyncFrame.Kind kind) { return framesIn.get(kind.code()); }
+    public long getFramesOut(SyncFrame.Kind kind) { return framesOut.get(kind.code()); }
+    public long getBytesIn(SyncFrame.Kind kind) { return bytesIn.get(kind.code()); }
+    public long getBytesOut(SyncFrame.Kind kind) { return bytesOut.get(kind.code()); }
+    public Histogram getEncodeHistogram() { return encode; }
+    public Histogram getDecodeHistogram() { return decode; }
+    public Histogram getLatencyHistogram() { return latency; }
+    public Histogram getPingHistogram() { return ping; }
+    public String getLastError() { return lastError; }
+
+    /** A copy of everything, for display or for JSON. */
+    public Report report() {
+        Report r = new Report();
+        r.uptimeMillis = (System.nanoTime() - startedNanos) / 1_000_000;
+        for (SyncFrame.Kind kind : SyncFrame.Kind.values()) {
+            int c = kind.code();
+            if (framesIn.get(c) == 0 && framesOut.get(c) == 0) continue;
+            KindReport k = new KindReport();
+            k.framesIn = framesIn.get(c);
+            k.bytesIn = bytesIn.get(c);
+            k.framesOut = framesOut.get(c);
+            k.bytesOut = bytesOut.get(c);
+            r.kinds.put(kind.name(), k);
+            r.framesIn += k.framesIn;
+            r.bytesIn += k.bytesIn;
+            r.framesOut += k.framesOut;
+            r.bytesOut += k.bytesOut;
+        }
+        r.framesInPerSecond = framesInRate.perSecond();
+        r.bytesInPerSecond = bytesInRate.perSecond();
+        r.framesOutPerSecond = framesOutRate.perSecond();
+        r.bytesOutPerSecond = bytesOutRate.perSecond();
+        r.encode = encode.report();
+        r.decode = decode.report();
+        r.latency = latency.report();
+        r.ping = ping.report();
+        r.clockOffsetMillis = clockOffsetMillis;
+        for (ErrorType type : ErrorType.values()) r.errorsByType.put(type.name(), errors.get(type.ordinal()));
+        r.errors = getErrors();
+        r.lastError = lastError;
+        return r;
+    }
+
+    @Override
+    public String toString() {
+        Report r = report();
+        return "SyncMetrics{" +
+                "framesIn=" + r.framesIn +
+                ", bytesIn=" + r.bytesIn +
+                ", framesOut=" + r.framesOut +
+                ", bytesOut=" + r.bytesOut +
+                ", bytesInPerSecond=" + Math.round(r.bytesInPerSecond) +
+                ", bytesOutPerSecond=" + Math.round(r.bytesOutPerSecond) +
+                ", encode=" + r.encode +
+                ", decode=" + r.decode +
+                ", latency=" + r.latency +
+                ", ping=" + r.ping +
+                ", errors=" + r.errors +
+                '}';
+    }
+
+    /** Everything {@link #report()} copies; public fields so it serializes as it reads. */
+    public static class Report {
+        public long uptimeMillis;
+        public Map<String, KindReport> kinds = new LinkedHashMap<>();
+        public long framesIn;
+        public long bytesIn;
+        public long framesOut;
+        public long bytesOut;
+        public double framesInPerSecond;
+        public double bytesInPerSecond;
+        public double framesOutPerSecond;
+        public double bytesOutPerSecond;
+        public Histogram.Summary encode;
+        public Histogram.Summary decode;
+        public Histogram.Summary latency;
+        public Histogram.Summary ping;
+        public long clockOffsetMillis;
+        public long errors;
+        public Map<String, Long> errorsByType = new LinkedHashMap<>();
+        public String lastError;
+    }
+
+    /** Frames and bytes of one kind. */
+    public static class KindReport {
+        public long framesIn;
+        public long bytesIn;
+        public long framesOut;
+        public long bytesOut;
+    }
+
+    /**
+     * Durations in power-of-two nanosecond buckets: cheap to record from any thread, and
+     * percentiles come out to within a factor of two, which is all a dashboard needs.
+     */
+    public static class Histogram {
+        private static final int BUCKETS = 48;
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong total = new AtomicLong();
+        private final AtomicLong max = new AtomicLong();
+
+        public void record(long nanos) {
+            nanos = Math.max(0, nanos);
+            // Bucket i holds values below 2^i
+            buckets.incrementAndGet(Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(nanos)));
+            count.incrementAndGet();
+            total.addAndGet(nanos);
+            max.accumulateAndGet(nanos, Math::max);
+        }
+
+        public long getCount() { return count.get(); }
+        public long getMaxNanos() { return max.get(); }
+
+        public long getMeanNanos() {
+            long n = count.get();
+            return n == 0 ? 0 : total.get() / n;
+        }
+
+        /** Upper bound of the bucket holding the {@code percentile}th value. */
+        public long getPercentileNanos(double percentile) {
+            long n = 0;
+            for (int i = 0; i < BUCKETS; i++) n += buckets.get(i);
+            if (n == 0) return 0;
+            long rank = (long) Math.ceil(n * percentile / 100.0);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += buckets.get(i);
+                if (seen >= rank) return Math.min(1L << i, getMaxNanos());
+            }
+            return getMaxNanos();
+        }
+
+        public Summary report() {
+            Summary s = new Summary();
+            s.count = getCount();
+            s.meanMicros = getMeanNanos() / 1_000;
+            s.p50Micros = getPercentileNanos(50) / 1_000;
+            s.p99Micros = getPercentileNanos(99) / 1_000;
+            s.maxMicros = getMaxNanos() / 1_000;
+            return s;
+        }
+
+        /** A histogram boiled down to a few numbers, in microseconds. */
+        public static class Summary {
+            public long count;
+            public long meanMicros;
+            public long p50Micros;
+            public long p99Micros;
+            public long maxMicros;
+
+            @Override
+            public String toString() {
+                return "{n=" + count + ", mean=" + meanMicros + "us, p50=" + p50Micros +
+                        "us, p99=" + p99Micros + "us, max=" + maxMicros + "us}";
+            }
+        }
+    }
+
+    /**
+     * A count per second over the last {@link #WINDOW} whole seconds, kept in a ring of
+     * one-second slots. A slot is cleared when its second comes round again; an add that
+     * races the clearing may be lost, which a rate can live with.
+     */
+    static final class Rate {
+        static final int WINDOW = 10;
+
+        // One spare slot for the second in progress
+        private final AtomicLongArray counts = new AtomicLongArray(WINDOW + 1);
+        private final AtomicLongArray seconds = new AtomicLongArray(WINDOW + 1);
+
+        void add(long n) {
+            long now = System.nanoTime() / 1_000_000_000L;
+            int slot = (int) Math.floorMod(now, (long) (WINDOW + 1));
+            long tag = seconds.get(slot);
+            if (tag != now && seconds.compareAndSet(slot, tag, now)) counts.set(slot, 0);
+            counts.addAndGet(slot, n);
+        }
+
+        double perSecond() {
+            long now = System.nanoTime() / 1_000_000_000L;
+            long sum = 0;
+            for (int i = 0; i <= WINDOW; i++) {
+                long s = seconds.get(i);
+                if (s < now && s >= now - WINDOW) sum += counts.get(i);
+            }
+            return sum / (double) WINDOW;
+        }
+    }
+}
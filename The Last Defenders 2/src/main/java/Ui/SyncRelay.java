@@ -0,0 +1,166 @@
+package Ui;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fan-out tier between one game host and a large audience. The relay joins the host
+ * once, as a spectator {@link SocketClient}, and serves what it sees from its own
+ * {@link SyncServer} on which every peer is a spectator; however many people watch,
+ * the host serves the one connection.
+ *
+ * The upstream client keeps a mirror of the game. What each update changed is diffed
+ * off the mirror and applied to a second state, the one spectators are served from, on
+ * a single relay thread the way a {@link GameRoom} keeps its state; only a change to the
+ * player list is copied over as a whole snapshot. Spectators get versioned deltas,
+ * resumes and catch-up snapshots from that copy exactly as they would from a host. With
+ * a delay, updates and join/start events reach spectators that much later. Updates that
+ * come due together are applied in order and broadcast once.
+ *
+ * Usage: SyncRelay host hostPort listenPort [delayMillis=0]
+ */
+public class SyncRelay implements AutoCloseable {
+    private final GameState mirror = new GameState();
+    private final GameState view = new GameState();
+    private final ScheduledExecutorService scheduler;
+    private final SyncServer server;
+    private final SocketClient upstream;
+    private final long delayMillis;
+    private final ConcurrentLinkedQueue<Pending> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicLong updatesReceived = new AtomicLong();
+    private final AtomicLong updatesRelayed = new AtomicLong();
+    // Baseline of the mirror as last handed to the relay thread
+    private final DeltaTracker mirrorTracker = new DeltaTracker();
+    // Set when a change would not apply to the copy; the next update hands over everything
+    private volatile boolean catchUp;
+
+    // One upstream change (a delta, or a snapshot when the players changed) or an event
+    // to pass on, and when it is due
+    private record Pending(long dueNanos, GameDelta delta, EncodedMessage snapshot, Runnable event) { }
+
+    public SyncRelay(String host, int hostPort, int listenPort, long delayMillis) {
+        this(host, hostPort, listenPort, delayMillis, NetworkSync.getServerKind());
+    }
+
+    public SyncRelay(String host, int hostPort, int listenPort, long delayMillis, NetworkSync.ServerKind serverKind) {
+        this.delayMillis = Math.max(0, delayMillis);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(GameState.bindTo(view, r), "relay-" + listenPort);
+            t.setDaemon(true);
+            return t;
+        });
+        this.server = serverKind == NetworkSync.ServerKind.NIO
+                ? new NioSocketServer(listenPort, scheduler)
+                : new SocketServer(listenPort, NetworkSync.getThreadMode(), scheduler);
+        server.setSpectatorsOnly(true);
+        // Spectators replay nothing; they get plain deltas whatever the host runs
+        server.setLockstep(false);
+        server.start();
+        scheduler.execute(() -> view.players().clear());
+
+        this.upstream = new SocketClient(host, hostPort, NetworkSync.getThreadMode(), true, mirror);
+        upstream.subscribe(new GameSync.GameSyncListener() {
+            @Override
+            public void onUpdate(GameState s) {
+                // Upstream reader thread, bound to the mirror; the copy must not share its
+                // objects, which a delta's values never are
+                updatesReceived.incrementAndGet();
+                GameDelta delta = mirrorTracker.diff();
+                if (delta == null || catchUp) {
+                    catchUp = false;
+                    enqueue(null, EncodedMessage.json(SyncFrame.Kind.SNAPSHOT, GameState.createSnapshot()), null);
+                } else if (!delta.isEmpty()) {
+                    enqueue(delta, null, null);
+                }
+            }
+
+            @Override
+            public void onPlayerJoined(String playerName) {
+                enqueue(null, null, () -> server.broadcastPlayerJoined(playerName));
+            }
+
+            @Override
+            public void onStartGame() {
+                enqueue(null, null, server::broadcastStartGame);
+            }
+        });
+    }
+
+    private void enqueue(GameDelta delta, EncodedMessage snapshot, Runnable event) {
+        pending.add(new Pending(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMillis), delta, snapshot, event));
+        if (delayMillis == 0) {
+            scheduler.execute(this::release);
+        } else {
+            scheduler.schedule(this::release, delayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // Relay thread: apply everything that is due, in order, and broadcast the result
+    private void release() {
+        long now = System.nanoTime();
+        boolean changed = false;
+        Pending p;
+        while ((p = pending.peek()) != null && p.dueNanos - now <= 0) {
+            pending.poll();
+            if (p.event == null) {
+                changed |= show(p);
+            } else {
+                // An event goes out after the state that came before it
+                if (changed) relay();
+                changed = false;
+                p.event.run();
+            }
+        }
+        if (changed) relay();
+    }
+
+    private boolean show(Pending p) {
+        try {
+            if (p.delta == null) {
+                GameState.applySnapshot(GameCodec.gson().fromJson(p.snapshot.payloadReader(), GameState.GameSnapshot.class));
+                return true;
+            }
+            if (GameState.applyDelta(p.delta)) return true;
+            throw new IllegalStateException("Delta " + p.delta.version + " does not fit the relayed copy");
+        } catch (Exception e) {
+            server.getMetrics().recordError(SyncMetrics.ErrorType.DECODE, e);
+            catchUp = true;
+            return false;
+        }
+    }
+
+    private void relay() {
+        server.broadcast(GameState.get());
+        updatesRelayed.incrementAndGet();
+    }
+
+    public SyncServer getServer() { return server; }
+    public SocketClient getUpstream() { return upstream; }
+    public long getDelayMillis() { return delayMillis; }
+    /** Updates received from the host. */
+    public long getUpdatesReceived() { return updatesReceived.get(); }
+    /** Updates applied to the spectators' copy and broadcast; fewer when they arrive in bursts. */
+    public long getUpdatesRelayed() { return updatesRelayed.get(); }
+
+    @Override
+    public void close() {
+        upstream.close();
+        server.close();
+        scheduler.shutdownNow();
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        if (args.length < 3) {
+            System.out.println("Usage: SyncRelay host hostPort listenPort [delayMillis=0]");
+            return;
+        }
+        long delay = args.length > 3 ? Long.parseLong(args[3]) : 0;
+        SyncRelay relay = new SyncRelay(args[0], Integer.parseInt(args[1]), Integer.parseInt(args[2]), delay);
+        System.out.println("Relaying " + args[0] + ":" + args[1] + " on port " + args[2] + " (delay " + delay + "ms)");
+        Runtime.getRuntime().addShutdownHook(new Thread(relay::close));
+        Thread.currentThread().join();
+    }
+}
@@ -0,0 +1,717 @@
+package Ui;
+
+import com.google.gson.Gson;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Host side of the sync protocol, independent of how sockets are driven.
+ * A connection gets nothing until it sends its first frame. A RESUME naming this
+ * host's session and a version still covered by the {@link DeltaLog} is sent just the
+ * deltas it missed; anything else is sent a full SNAPSHOT first. After that only
+ * versioned DELTA frames are sent. A peer that detects a version gap answers RESYNC
+ * and gets a full snapshot; so does a peer whose own DELTA was based on an older
+ * version than ours, since the host's game is the one that counts. An ACTION is checked with {@link GameRules} and applied as
+ * one step; its update goes to everyone and the action is echoed to its sender.
+ * In lockstep ({@link NetworkSync#isLockstep()}) the host sends a SEED when the game
+ * starts and, instead of the update, relays each accepted action as a versioned COMMAND
+ * that every peer applies with the same rules and random streams; only refusals are
+ * echoed. In command mode ({@link NetworkSync#isCommandMode()}) and in lockstep, ACTION is
+ * the only way a peer changes the game: its DELTA and SNAPSHOT frames are refused and
+ * answered with the host's snapshot. Every {@link NetworkSync#getHashEvery()} versions a HASH of the state follows
+ * so peers can detect that they have drifted and resync.
+ * A peer whose hello carries {@link SyncFrame#CAP_SPECTATOR} (or any peer, with
+ * {@link #setSpectatorsOnly}) is read-only: it gets every update but only its RESYNC
+ * requests are acted on, so watchers can never move the game.
+ * Subclasses own the connections and expose them through {@link #peers()}.
+ * Every peer has a bounded outbound queue drained by its own writer, so a stalled
+ * client only ever fills its own queue; what happens then is the
+ * {@link NetworkSync.SlowConsumerPolicy}.
+ * A host that belongs to a {@link GameRoom} is given the room's executor and does all
+ * game-state work there; otherwise it runs on the calling thread as before.
+ * Traffic, timings and errors go to {@link #getMetrics()}; PINGs are answered at once
+ * from the network thread, ahead of any queued state work.
+ */
+public abstract class SyncServer implements GameSync {
+    protected final ListenerRegistry listeners = new ListenerRegistry();
+    protected final Gson gson = GameCodec.gson();
+    protected volatile GameState.GameSnapshot lastSnapshot;
+
+    private final BroadcastStats stats = new BroadcastStats();
+    private final QueueStats queueStats = new QueueStats();
+    private final SyncMetrics metrics = new SyncMetrics();
+    private volatile NetworkSync.SlowConsumerPolicy slowConsumerPolicy = NetworkSync.getSlowConsumerPolicy();
+    private volatile int maxQueuedMessages = NetworkSync.getMaxQueuedMessages();
+    private volatile int maxDroppedUpdates = NetworkSync.getMaxDroppedUpdates();
+    private volatile boolean lockstep = NetworkSync.isLockstep();
+    private volatile boolean commandMode = NetworkSync.isCommandMode();
+    private volatile int hashEvery = NetworkSync.getHashEvery();
+    private volatile boolean spectatorsOnly;
+    private final DeltaTracker tracker = new DeltaTracker();
+    // Versions are only meaningful within one host run; resumes from another run start over
+    private final long session = ThreadLocalRandom.current().nextLong() | 1;
+    private final DeltaLog deltaLog = new DeltaLog(Integer.getInteger("sync.resumeWindow", 256));
+    // Keeps deltas going out in version order; not synchronized so blocking writes
+    // under it do not pin virtual threads
+    private final ReentrantLock sendLock = new ReentrantLock();
+    // Null runs state work on the network thread that received it
+    private final Executor stateExecutor;
+
+    protected SyncServer() {
+        this(null);
+    }
+
+    protected SyncServer(Executor stateExecutor) {
+        this.stateExecutor = stateExecutor;
+    }
+
+    /** One connected client, however the subclass talks to it. */
+    protected abstract static class Peer {
+        private final AtomicInteger droppedUpdates = new AtomicInteger();
+        // Set once the peer has introduced itself and been brought up to date
+        private volatile boolean joined;
+        // Peer said in its hello that it reads compressed frames
+        private volatile boolean compress;
+        // Name from the peer's JOIN; null until it has joined, and it may not act before
+        private volatile String playerName;
+        // Player.getId() of the seat the peer acts for; 0 until its first move binds it
+        private volatile int playerId;
+        // Watches only; see SyncFrame.CAP_SPECTATOR
+        private volatile boolean spectator;
+        // How far the peer's clock is ahead of ours, as its pings report
+        private volatile long clockAheadMillis;
+
+        /** Queue the message for the writer; false if the peer is gone or its queue is full. */
+        protected abstract boolean send(EncodedMessage message);
+
+        protected abstract boolean isOpen();
+
+        /** Frames queued but not yet fully written. */
+        protected abstract int queueDepth();
+
+        /** Discard queued state frames ({@link SyncFrame.Kind#isState()}) that have not started on the wire; returns how many. */
+        protected abstract int dropQueuedState();
+
+        /** Queue the message even if the queue is full. */
+        protected abstract void forceSend(EncodedMessage message);
+
+        protected abstract void disconnect();
+
+        public int getDroppedUpdates() { return droppedUpdates.get(); }
+        public boolean isSpectator() { return spectator; }
+    }
+
+    /** The peers currently connected. */
+    protected abstract Iterable<? extends Peer> peers();
+
+    /** Queue the message for every connected peer and return how many took it. */
+    protected int sendToAll(EncodedMessage message) {
+        int sent = 0;
+        // A catch-up snapshot is encoded at most once however many peers overflow
+        EncodedMessage[] catchUp = new EncodedMessage[1];
+        for (Peer p : peers()) {
+            if (p.joined && deliver(p, message, catchUp)) sent++;
+        }
+        return sent;
+    }
+
+    private boolean deliver(Peer peer, EncodedMessage message, EncodedMessage[] catchUp) {
+        // Compressed once per message however many peers want it
+        if (peer.compress) message = message.compressed();
+        if (peer.send(message)) {
+            metrics.recordOut(message.kind(), message.length());
+            queueStats.observeDepth(peer.queueDepth());
+            return true;
+        }
+        if (!peer.isOpen()) return false;
+        queueStats.overflows.incrementAndGet();
+        if (slowConsumerPolicy == NetworkSync.SlowConsumerPolicy.SKIP_TO_LATEST) {
+            // Stale state frames make way for one snapshot; queued events are kept.
+            // A queue full of nothing but events falls through to dropping.
+            int discarded = peer.dropQueuedState();
+            if (discarded > 0) {
+                if (catchUp[0] == null) {
+                    sendLock.lock();
+                    try {
+                        catchUp[0] = encodeFullSnapshot();
+                    } finally {
+                        sendLock.unlock();
+                    }
+                }
+                EncodedMessage snapshot = peer.compress ? catchUp[0].compressed() : catchUp[0];
+                peer.forceSend(snapshot);
+                metrics.recordOut(snapshot.kind(), snapshot.length());
+                // The snapshot already carries any state update; an event still has to go out
+                if (!message.kind().isState()) {
+                    peer.forceSend(message);
+                    metrics.recordOut(message.kind(), message.length());
+                }
+                queueStats.dropped.addAndGet(discarded);
+                queueStats.catchUps.incrementAndGet();
+                return true;
+            }
+        }
+        queueStats.dropped.incrementAndGet();
+        if (peer.droppedUpdates.incrementAndGet() > maxDroppedUpdates) {
+            queueStats.disconnects.incrementAndGet();
+            peer.disconnect();
+        }
+        return false;
+    }
+
+    private void sendTo(Peer peer, EncodedMessage message) {
+        deliver(peer, message, new EncodedMessage[1]);
+    }
+
+    protected int getMaxQueuedMessages() { return maxQueuedMessages; }
+    public void setMaxQueuedMessages(int max) { this.maxQueuedMessages = Math.max(1, max); }
+    public void setSlowConsumerPolicy(NetworkSync.SlowConsumerPolicy policy) { this.slowConsumerPolicy = policy; }
+    public void setMaxDroppedUpdates(int max) { this.maxDroppedUpdates = Math.max(0, max); }
+    public boolean isLockstep() { return lockstep; }
+    public void setLockstep(boolean on) { this.lockstep = on; }
+    /** Whether peers may only move through ACTIONs; lockstep always implies it. */
+    public boolean isCommandMode() { return commandMode || lockstep; }
+    public void setCommandMode(boolean on) { this.commandMode = on; }
+    public void setHashEvery(int versions) { this.hashEvery = Math.max(1, versions); }
+    /** Treat every peer as a spectator, whatever its hello says (a relay's audience). */
+    public void setSpectatorsOnly(boolean on) { this.spectatorsOnly = on; }
+
+    /** Connected peers that only watch. */
+    public int getSpectatorCount() {
+        int n = 0;
+        for (Peer p : peers()) {
+            if (p.spectator) n++;
+        }
+        return n;
+    }
+
+    /** Register a new connection; it receives updates once its first frame arrives. */
+    protected void onPeerConnected(Peer peer, Runnable register) {
+        if (stateExecutor != null) {
+            stateExecutor.execute(register);
+        } else {
+            register.run();
+        }
+    }
+
+    /**
+     * Bring a peer up to date and start including it in broadcasts. {@code resume} is the
+     * RESUME payload (session, last applied version, capabilities) or null when the peer
+     * opened with some other frame.
+     */
+    private void join(Peer peer, ByteBuffer resume) {
+        sendLock.lock();
+        try {
+            long peerSession = 0;
+            long peerVersion = 0;
+            int capabilities = 0;
+            if (resume != null && resume.remaining() >= 16) {
+                peerSession = resume.getLong();
+                peerVersion = resume.getLong();
+                if (resume.hasRemaining()) capabilities = resume.get();
+            }
+            if (resume != null) {
+                // Answer the hello with what we can read so the peer may compress upstream
+                byte[] ours = {(byte) SyncCompression.capabilities()};
+                sendTo(peer, EncodedMessage.frame(SyncFrame.Kind.RESUME, ours, 0, 1));
+            }
+            peer.compress = (capabilities & SyncCompression.capabilities() & SyncCompression.CAP_DEFLATE) != 0;
+            peer.spectator = spectatorsOnly || (capabilities & SyncFrame.CAP_SPECTATOR) != 0;
+            List<EncodedMessage> missed = peerSession == session ? deltaLog.since(peerVersion) : null;
+            if (missed != null) {
+                for (EncodedMessage m : missed) sendTo(peer, m);
+                stats.recordResume(missed.size());
+            } else {
+                // Send initial snapshot immediately so joiners see the board
+                sendTo(peer, encodeFullSnapshot());
+                stats.recordSnapshotJoin();
+            }
+            peer.joined = true;
+        } finally {
+            sendLock.unlock();
+        }
+    }
+
+    public void broadcast(GameState state) {
+        sendLock.lock();
+        try {
+            // Serialize once; every peer gets the same bytes
+            long start = System.nanoTime();
+            long allocatedBefore = BufferPool.threadAllocatedBytes();
+            GameDelta delta = tracker.diff();
+            if (delta != null && delta.isEmpty()) return;
+            EncodedMessage message;
+            if (delta == null) {
+                message = encodeFullSnapshot();
+                deltaLog.reset(tracker.version());
+            } else {
+                delta.sentAt = System.currentTimeMillis();
+                message = encode(SyncFrame.Kind.DELTA, delta);
+                deltaLog.record(delta.version, message);
+            }
+            long encodeNanos = System.nanoTime() - start;
+            int fanOut = sendToAll(message);
+            stats.record(encodeNanos, message.length(), fanOut, allocatedSince(allocatedBefore));
+        } finally {
+            sendLock.unlock();
+        }
+    }
+
+    public void broadcastPlayerJoined(String playerName) {
+        sendToAll(EncodedMessage.frame(SyncFrame.Kind.JOIN, playerName));
+    }
+
+    public void broadcastStartGame() {
+        if (lockstep) {
+            sendLock.lock();
+            try {
+                // Every peer's random streams start over from one seed
+                long seed = ThreadLocalRandom.current().nextLong();
+                GameState.get().getRandom().reseed(seed);
+                // Peers that miss the seed cannot catch up from deltas alone
+                deltaLog.reset(tracker.version());
+                byte[] payload = ByteBuffer.allocate(8).putLong(seed).array();
+                sendToAll(EncodedMessage.frame(SyncFrame.Kind.SEED, payload, 0, payload.length));
+            } finally {
+                sendLock.unlock();
+            }
+        }
+        sendToAll(EncodedMessage.frame(SyncFrame.Kind.START));
+    }
+
+    /** In lockstep the host's own moves take the same path as its clients'. */
+    @Override
+    public boolean sendsActions() { return lockstep; }
+
+    @Override
+    public String sendAction(GameAction action) {
+        return handleAction(null, action);
+    }
+
+    @Override
+    public Subscription subscribe(GameSync.GameSyncListener listener, Executor executor) {
+        return listeners.add(listener, executor);
+    }
+
+    @Override
+    public ListenerRegistry.DispatchStats getDispatchStats() { return listeners.getStats(); }
+
+    @Override
+    public SyncMetrics getMetrics() { return metrics; }
+
+    public BroadcastStats getBroadcastStats() { return stats; }
+    public QueueStats getQueueStats() { return queueStats; }
+
+    /** Start listening for peers; once, after the server is configured. */
+    public abstract void start();
+
+    /** Stop accepting and drop every peer. */
+    public abstract void close();
+
+    // Caller holds sendLock so the snapshot and its version match
+    private EncodedMessage encodeFullSnapshot() {
+        GameState.GameSnapshot snapshot = GameState.createSnapshot();
+        snapshot.version = tracker.version();
+        snapshot.session = session;
+        snapshot.sentAt = System.currentTimeMillis();
+        lastSnapshot = snapshot;
+        return encode(SyncFrame.Kind.SNAPSHOT, snapshot);
+    }
+
+    private EncodedMessage encode(SyncFrame.Kind kind, Object value) {
+        long start = System.nanoTime();
+        EncodedMessage message = EncodedMessage.json(kind, value);
+        metrics.recordEncode(System.nanoTime() - start);
+        return message;
+    }
+
+    private <T> T decode(byte[] buf, int off, int len, Class<T> type) {
+        long start = System.nanoTime();
+        T value = gson.fromJson(SyncFrame.payloadReader(buf, off, len), type);
+        metrics.recordDecode(System.nanoTime() - start);
+        return value;
+    }
+
+    /** Dispatch one frame received from {@code from}; the payload is only valid during the call. */
+    protected void handleFrame(Peer from, SyncFrame.Kind kind, byte[] buf, int off, int len) {
+        if (kind == SyncFrame.Kind.PING) {
+            answerPing(from, buf, off, len);
+            return;
+        }
+        if (stateExecutor != null) {
+            // Readers reuse their buffers, so the state thread gets its own copy
+            byte[] copy = Arrays.copyOfRange(buf, off, off + len);
+            stateExecutor.execute(() -> dispatch(from, kind, copy, 0, copy.length));
+        } else {
+            dispatch(from, kind, buf, off, len);
+        }
+    }
+
+    // Straight back from the network thread; a full queue just loses this one probe
+    private void answerPing(Peer from, byte[] buf, int off, int len) {
+        if (len < 24) return;
+        ByteBuffer ping = ByteBuffer.wrap(buf, off, len);
+        long sentNanos = ping.getLong();
+        long sentMillis = ping.getLong();
+        // The peer's guess at how far our clock is ahead of its own
+        from.clockAheadMillis = -ping.getLong();
+        byte[] payload = ByteBuffer.allocate(24).putLong(sentNanos).putLong(sentMillis).putLong(System.currentTimeMillis()).array();
+        EncodedMessage pong = EncodedMessage.frame(SyncFrame.Kind.PONG, payload, 0, payload.length);
+        if (from.send(pong)) metrics.recordOut(pong.kind(), pong.length());
+    }
+
+    private void dispatch(Peer from, SyncFrame.Kind kind, byte[] buf, int off, int len) {
+        if (!from.joined) {
+            join(from, kind == SyncFrame.Kind.RESUME ? ByteBuffer.wrap(buf, off, len) : null);
+        }
+        // Spectators may ask to be brought up to date and nothing else
+        if (from.spectator && kind != SyncFrame.Kind.RESYNC) return;
+        if ((kind == SyncFrame.Kind.DELTA || kind == SyncFrame.Kind.SNAPSHOT) && isCommandMode()) {
+            // State from a peer would skip GameRules and the seat check; put it back on ours
+            metrics.recordError(SyncMetrics.ErrorType.REFUSED,
+                    new IllegalStateException(kind + " from " + from.playerName + " in command mode"));
+            sendLock.lock();
+            try {
+                sendTo(from, encodeFullSnapshot());
+            } finally {
+                sendLock.unlock();
+            }
+            return;
+        }
+        switch (kind) {
+            case JOIN -> {
+                String playerName = len == 0 ? "Unknown Player" : SyncFrame.payloadString(buf, off, len);
+                from.playerName = playerName;
+                from.playerId = 0;
+                listeners.playerJoined(playerName);
+            }
+            case START -> {
+                listeners.startGame();
+            }
+            case RESYNC -> {
+                sendLock.lock();
+                try {
+                    sendTo(from, encodeFullSnapshot());
+                } finally {
+                    sendLock.unlock();
+                }
+            }
+            case DELTA -> {
+                try {
+                    GameDelta delta = decode(buf, off, len, GameDelta.class);
+                    metrics.recordLatency(delta.sentAt, from.clockAheadMillis);
+                    boolean applied;
+                    sendLock.lock();
+                    try {
+                        applied = tracker.apply(delta);
+                        if (applied) {
+                            // Relay the same bytes to everyone; the sender uses the echo as its ack
+                            EncodedMessage relay = EncodedMessage.frame(SyncFrame.Kind.DELTA, buf, off, len);
+                            deltaLog.record(delta.version, relay);
+                            sendToAll(relay);
+                        }
+                    } finally {
+                        sendLock.unlock();
+                    }
+                    if (applied) {
+                        listeners.update(GameState.get());
+                    } else {
+                        // Client was behind us: ours is the game, so bring it up to date
+                        sendLock.lock();
+                        try {
+                            sendTo(from, encodeFullSnapshot());
+                        } finally {
+                            sendLock.unlock();
+                        }
+                    }
+                } catch (Exception e) {
+                    metrics.recordError(SyncMetrics.ErrorType.DECODE, e);
+                }
+            }
+            case SNAPSHOT -> {
+                try {
+                    GameState.GameSnapshot snapshot = decode(buf, off, len, GameState.GameSnapshot.class);
+                    metrics.recordLatency(snapshot.sentAt, from.clockAheadMillis);
+                    lastSnapshot = snapshot;
+                    GameState.applySnapshot(snapshot);
+                    // Push the client's changes on to the other peers
+                    broadcast(GameState.get());
+                    listeners.update(GameState.get());
+                } catch (Exception e) {
+                    metrics.recordError(SyncMetrics.ErrorType.DECODE, e);
+                }
+            }
+            case ACTION -> {
+                try {
+                    GameAction action = decode(buf, off, len, GameAction.class);
+                    metrics.recordLatency(action.sentAt, from.clockAheadMillis);
+                    handleAction(from, action);
+                } catch (Exception e) {
+                    metrics.recordError(SyncMetrics.ErrorType.DECODE, e);
+                }
+            }
+            case RESUME, COMMAND, SEED, HASH, PING, PONG -> {
+                // RESUME is only meaningful as the first frame and PING is answered on arrival;
+                // the rest only go to clients
+            }
+        }
+    }
+
+    /**
+     * Check and apply one move as a step; {@code from} is null for the host's own moves.
+     * Returns why it was refused, or null.
+     */
+    private String handleAction(Peer from, GameAction action) {
+        action.rejected = from != null ? checkSeat(from, action) : null;
+        if (action.rejected == null) {
+            // The step's commit broadcasts the outcome before the echo is queued
+            GameState.beginStep();
+            try {
+                action.rejected = GameRules.apply(action);
+                if (lockstep && action.rejected == null) relayCommand(action);
+            } finally {
+                GameState.commitStep();
+            }
+        }
+        if (from != null) {
+            stats.recordAction(action.rejected == null);
+            // In lockstep the sender hears about an accepted move from the COMMAND itself
+            if (!lockstep || action.rejected != null) {
+                action.sentAt = System.currentTimeMillis();
+                sendTo(from, encode(SyncFrame.Kind.ACTION, action));
+            }
+            listeners.update(GameState.get());
+        } else {
+            listeners.actionResult(action);
+        }
+        return action.rejected;
+    }
+
+    // Runs inside the action's step, so its commit finds nothing left to send as a delta
+    private void relayCommand(GameAction action) {
+        sendLock.lock();
+        try {
+            long start = System.nanoTime();
+            long allocatedBefore = BufferPool.threadAllocatedBytes();
+            GameDelta delta = tracker.diff();
+            // A move can change only what deltas do not carry (the turn's roll flag,
+            // random draws); peers still have to replay it, so it gets a version anyway
+            if (delta != null && delta.isEmpty()) tracker.rebase(tracker.version() + 1);
+            EncodedMessage message;
+            if (delta == null) {
+                message = encodeFullSnapshot();
+                deltaLog.reset(tracker.version());
+            } else {
+                action.version = tracker.version();
+                action.sentAt = System.currentTimeMillis();
+                message = encode(SyncFrame.Kind.COMMAND, action);
+                deltaLog.record(action.version, message);
+            }
+            long encodeNanos = System.nanoTime() - start;
+            int fanOut = sendToAll(message);
+            stats.record(encodeNanos, message.length(), fanOut, allocatedSince(allocatedBefore));
+            if (delta != null && action.version % hashEvery == 0) {
+                byte[] payload = ByteBuffer.allocate(16).putLong(action.version).putLong(GameState.stateHash()).array();
+                sendToAll(EncodedMessage.frame(SyncFrame.Kind.HASH, payload, 0, payload.length));
+                stats.recordHash();
+            }
+        } finally {
+            sendLock.unlock();
+        }
+    }
+
+    // Heap bytes this thread allocated since {@code before}, or -1 if the JVM cannot say
+    private static long allocatedSince(long before) {
+        return before < 0 ? -1 : BufferPool.threadAllocatedBytes() - before;
+    }
+
+    /*
+     * A peer acts only for its own seat, and only once it has joined. Its first move binds
+     * it to the player its JOIN seated (by name, since the seat is made from the JOIN),
+     * unless another peer holds that seat; after that seats compare by Player id, which
+     * a rename or reseating does not change. State thread only.
+     */
+    private String checkSeat(Peer from, GameAction action) {
+        String name = from.playerName;
+        if (name == null) return "Join the game first";
+        var players = GameState.get().players();
+        if (action.player < 0 || action.player >= players.size()) return "No such player";
+        if (from.playerId == 0) {
+            for (Player p : players) {
+                if (p.getName().equals(name) && !seatTaken(from, p.getId())) {
+                    from.playerId = p.getId();
+                    break;
+                }
+            }
+            if (from.playerId == 0) return "Not your seat";
+        }
+        if (players.get(action.player).getId() != from.playerId) return "Not your seat";
+        return null;
+    }
+
+    private boolean seatTaken(Peer from, int playerId) {
+        for (Peer p : peers()) {
+            if (p != from && p.isOpen() && p.playerId == playerId) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Outbound queue health across all peers: current and peak depth, how often a
+     * queue was full, frames thrown away, catch-up snapshots and slow-consumer kicks.
+     */
+    public class QueueStats {
+        private final AtomicLong overflows = new AtomicLong();
+        private final AtomicLong dropped = new AtomicLong();
+        private final AtomicLong catchUps = new AtomicLong();
+        private final AtomicLong disconnects = new AtomicLong();
+        private final AtomicInteger highWaterMark = new AtomicInteger();
+
+        void observeDepth(int depth) {
+            highWaterMark.accumulateAndGet(depth, Math::max);
+        }
+
+        /** Deepest queue right now. */
+        public int getMaxDepth() {
+            int max = 0;
+            for (Peer p : peers()) max = Math.max(max, p.queueDepth());
+            return max;
+        }
+
+        /** Frames queued right now across every peer. */
+        public int getTotalDepth() {
+            int total = 0;
+            for (Peer p : peers()) total += p.queueDepth();
+            return total;
+        }
+
+        public int getHighWaterMark() { return highWaterMark.get(); }
+        public long getOverflows() { return overflows.get(); }
+        public long getDroppedMessages() { return dropped.get(); }
+        public long getCatchUpSnapshots() { return catchUps.get(); }
+        public long getSlowConsumerDisconnects() { return disconnects.get(); }
+
+        @Override
+        public String toString() {
+            return "QueueStats{" +
+                    "maxDepth=" + getMaxDepth() +
+                    ", totalDepth=" + getTotalDepth() +
+                    ", highWaterMark=" + getHighWaterMark() +
+                    ", overflows=" + getOverflows() +
+                    ", dropped=" + getDroppedMessages() +
+                    ", catchUps=" + getCatchUpSnapshots() +
+                    ", disconnects=" + getSlowConsumerDisconnects() +
+                    '}';
+        }
+    }
+
+    /**
+     * Running totals for snapshot broadcasts: how long encoding took, how many bytes
+     * went out, how many peers each encoded snapshot was written to and how much heap a
+     * broadcast allocated from diff to fan-out (the garbage it leaves); and how joining
+     * peers were brought up to date (resumed from the delta log or sent a snapshot).
+     */
+    public static class BroadcastStats {
+        private final AtomicLong broadcasts = new AtomicLong();
+        private final AtomicLong encodeNanos = new AtomicLong();
+        private final AtomicLong encodedBytes = new AtomicLong();
+        private final AtomicLong bytesSent = new AtomicLong();
+        private final AtomicLong fanOut = new AtomicLong();
+        private volatile long lastEncodeNanos;
+        private volatile int lastBytes;
+        private volatile int lastFanOut;
+        private final AtomicLong resumes = new AtomicLong();
+        private final AtomicLong resumedFrames = new AtomicLong();
+        private final AtomicLong snapshotJoins = new AtomicLong();
+        private final AtomicLong actions = new AtomicLong();
+        private final AtomicLong rejectedActions = new AtomicLong();
+        private final AtomicLong hashes = new AtomicLong();
+        private final AtomicLong allocatedBytes = new AtomicLong();
+        private final AtomicLong measuredBroadcasts = new AtomicLong();
+        private volatile long lastAllocatedBytes = -1;
+
+        void record(long nanos, int bytes, int peers, long allocated) {
+            broadcasts.incrementAndGet();
+            encodeNanos.addAndGet(nanos);
+            encodedBytes.addAndGet(bytes);
+            bytesSent.addAndGet((long) bytes * peers);
+            fanOut.addAndGet(peers);
+            lastEncodeNanos = nanos;
+            lastBytes = bytes;
+            lastFanOut = peers;
+            if (allocated >= 0) {
+                allocatedBytes.addAndGet(allocated);
+                measuredBroadcasts.incrementAndGet();
+                lastAllocatedBytes = allocated;
+            }
+        }
+
+        void recordResume(int frames) {
+            resumes.incrementAndGet();
+            resumedFrames.addAndGet(frames);
+        }
+
+        void recordSnapshotJoin() {
+            snapshotJoins.incrementAndGet();
+        }
+
+        void recordAction(boolean applied) {
+            actions.incrementAndGet();
+            if (!applied) rejectedActions.incrementAndGet();
+        }
+
+        void recordHash() {
+            hashes.incrementAndGet();
+        }
+
+        public long getBroadcasts() { return broadcasts.get(); }
+        public long getTotalEncodeNanos() { return encodeNanos.get(); }
+        public long getTotalEncodedBytes() { return encodedBytes.get(); }
+        public long getTotalBytesSent() { return bytesSent.get(); }
+        public long getTotalFanOut() { return fanOut.get(); }
+        public long getLastEncodeNanos() { return lastEncodeNanos; }
+        public int getLastBytes() { return lastBytes; }
+        public int getLastFanOut() { return lastFanOut; }
+        /** Peers brought up to date from the delta log instead of a full snapshot. */
+        public long getResumes() { return resumes.get(); }
+        public long getResumedFrames() { return resumedFrames.get(); }
+        /** Peers that joined (or fell too far behind) and got a full snapshot. */
+        public long getSnapshotJoins() { return snapshotJoins.get(); }
+        /** ACTION frames received from clients, and how many of them were refused. */
+        public long getActions() { return actions.get(); }
+        public long getRejectedActions() { return rejectedActions.get(); }
+        /** Lockstep state hashes sent for peers to check against. */
+        public long getHashes() { return hashes.get(); }
+        /** Heap allocated by broadcasts so far; -1 per broadcast where the JVM does not report it. */
+        public long getTotalAllocatedBytes() { return allocatedBytes.get(); }
+        public long getLastAllocatedBytes() { return lastAllocatedBytes; }
+        public long getAllocatedBytesPerBroadcast() {
+            long n = measuredBroadcasts.get();
+            return n == 0 ? -1 : allocatedBytes.get() / n;
+        }
+
+        @Override
+        public String toString() {
+            return "BroadcastStats{" +
+                    "broadcasts=" + getBroadcasts() +
+                    ", encodeMicros=" + getTotalEncodeNanos() / 1_000 +
+                    ", encodedBytes=" + getTotalEncodedBytes() +
+                    ", bytesSent=" + getTotalBytesSent() +
+                    ", fanOut=" + getTotalFanOut() +
+                    ", resumes=" + getResumes() +
+                    ", snapshotJoins=" + getSnapshotJoins() +
+                    ", actions=" + getActions() +
+                    ", rejectedActions=" + getRejectedActions() +
+                    ", hashes=" + getHashes() +
+                    ", allocatedPerBroadcast=" + getAllocatedBytesPerBroadcast() +
+                    '}';
+        }
+    }
+}
@@ -3,62 +3,6 @@ package Ui;
 import java.util.HashMap;
 import java.util.Map;
 
-class TerritorySpec {
-    final String displayName;
-    final int buyCost;
-    final int attackRequirement;
-    final int failHealthLoss;
-    final int influenceRequirement;
-    final int influenceOnClaim;
-    final int attackBonusOnClaim;
-    final int medicineBonusOnClaim;
-    final int[] rentMoney;        // index 0..3 for level 0..3
-    final int[] rentMedicine;     // optional medicine rent component per level
-    final int[] upgradeCosts;     // to go from level n to n+1
-    final int[] perRoundAttack;   // index 0..3
-    final int[] perRoundMedicine; // index 0..3
-
-    TerritorySpec(String displayName,
-                  int buyCost,
-                  int attackRequirement,
-                  int failHealthLoss,
-                  int influenceRequirement,
-                  int influenceOnClaim,
-                  int attackBonusOnClaim,
-                  int medicineBonusOnClaim,
-                  int[] rentMoney,
-                  int[] rentMedicine,
-                  int[] upgradeCosts,
-                  int[] perRoundAttack,
-                  int[] perRoundMedicine) {
-        this.displayName = displayName;
-        this.buyCost = buyCost;
-        this.attackRequirement = attackRequirement;
-        this.failHealthLoss = failHealthLoss;
-        this.influenceRequirement = influenceRequirement;
-        this.influenceOnClaim = influenceOnClaim;
-        this.attackBonusOnClaim = attackBonusOnClaim;
-        this.medicineBonusOnClaim = medicineBonusOnClaim;
-        this.rentMoney = rentMoney;
-        this.rentMedicine = rentMedicine;
-        this.upgradeCosts = upgradeCosts;
-        this.perRoundAttack = perRoundAttack;
-        this.perRoundMedicine = perRoundMedicine;
-    }
-
-    String baseRentDescription() {
-        String med = rentMedicine[0] > 0 ? (" + " + rentMedicine[0] + "Med") : "";
-        return rentMoney[0] + "M" + med + " / " + rentMoney[1] + "M" + (rentMedicine[1] > 0 ? ("+" + rentMedicine[1] + "Med") : "") +
-               " / " + rentMoney[2] + "M" + (rentMedicine[2] > 0 ? ("+" + rentMedicine[2] + "Med") : "") +
-               " / " + rentMoney[3] + "M" + (rentMedicine[3] > 0 ? ("+" + rentMedicine[3] + "Med") : "");
-    }
-
-    String rentDescriptionForLevel(int level) {
-        String med = rentMedicine[level] > 0 ? (" + " + rentMedicine[level] + "Med") : "";
-        return rentMoney[level] + "M" + med;
-    }
-}
-
 public class TerritoryCatalog {
     private static final Map<Integer, TerritorySpec> byPosition = new HashMap<>();
 
@@ -4,7 +4,8 @@ public class Tile {
     private TileType type;
     private String name;
     private int position;
-    private Player owner;
+    // Player.getId() of the owner, resolved through the game's player index; 0 when unowned
+    private int ownerId;
     private int influenceValue;
     private boolean isOwned;
     private int upgradeLevel;
@@ -19,7 +20,7 @@ public class Tile {
         this.type = type;
         this.name = name;
         this.position = position;
-        this.owner = null;
+        this.ownerId = 0;
         this.isOwned = false;
         this.upgradeLevel = 0;
         this.tradePercentage = 40;
@@ -62,7 +63,9 @@ public class Tile {
     public TileType getType() { return type; }
     public String getName() { return name; }
     public int getPosition() { return position; }
-    public Player getOwner() { return owner; }
+    public Player getOwner() { return isOwned ? GameState.get().playerById(ownerId) : null; }
+    public int getOwnerId() { return ownerId; }
+    public boolean isOwnedBy(Player player) { return isOwned && player != null && ownerId == player.getId(); }
     public int getInfluenceValue() { return influenceValue; }
     public boolean isOwned() { return isOwned; }
     public int getUpgradeLevel() { return upgradeLevel; }
@@ -72,7 +75,7 @@ public class Tile {
     public boolean canSetPrices() { return canSetPrices; }
 
     public void setOwner(Player owner) { 
-        this.owner = owner; 
+        this.ownerId = owner != null ? owner.getId() : 0;
         this.isOwned = (owner != null);
     }
     
@@ -90,5 +93,11 @@ public class Tile {
     }
     
     public void setCanSetPrices(boolean canSet) { this.canSetPrices = canSet; }
+
+    // GameCodec only: ownership exactly as saved (old saves have the flag but no id)
+    void restoreOwner(int ownerId, boolean owned) {
+        this.ownerId = ownerId;
+        this.isOwned = owned;
+    }
 }
 
@@ -54,16 +54,14 @@ public class TileEventManager {
 
     private static void handleStartTile(Player player) {
         if (!player.isInQuarantine()) {
-            player.addMoney(200);
-            player.addMedicine(2);
-            GameState.notifyUpdate(); // Sync player data changes
+            if (GameState.appliesRules()) GameRules.collectStart(player);
 
             if (!player.isAI()) {
                 showDialog(() -> {
                     Alert alert = new Alert(Alert.AlertType.INFORMATION);
                     alert.setTitle("Start Tile");
                     alert.setHeaderText("Welcome to the Start!");
-                    alert.setContentText("You received 200 money and 2 medicine!");
+                    alert.setContentText("You received " + GameRules.START_MONEY + " money and " + GameRules.START_MEDICINE + " medicine!");
                     alert.showAndWait();
                 });
             }
@@ -99,7 +97,7 @@ public class TileEventManager {
                 decideBribe = AIPlayer.shouldAIPayBribe(ai);
             } else {
                 // Fallback for non-AIPlayer instances
-                decideBribe = player.getMoney() >= 150 && player.getMedicine() >= 1;
+                decideBribe = GameRules.canPayBribe(player);
             }
         } else {
             final Boolean[] decision = {false};
@@ -121,11 +119,10 @@ public class TileEventManager {
             decideBribe = decision[0];
         }
 
+        boolean canPay = GameRules.canPayBribe(player);
+        GameState.submit(GameAction.bribe(seatOf(player), decideBribe));
         if (decideBribe) {
-            if (player.getMoney() >= 150 && player.getMedicine() >= 1) {
-                player.spendMoney(150);
-                player.addMedicine(-1);
-                GameState.notifyUpdate();
+            if (canPay) {
                 if (!player.isAI()) {
                     showDialog(() -> {
                         Alert bribeAlert = new Alert(Alert.AlertType.INFORMATION);
@@ -136,10 +133,6 @@ public class TileEventManager {
                     });
                 }
             } else {
-                player.setInQuarantine(true);
-                // Move player to Quarantine tile (position 30)
-                player.setPos(30);
-                GameState.notifyUpdate();
                 if (!player.isAI()) {
                     showDialog(() -> {
                         Alert errorAlert = new Alert(Alert.AlertType.ERROR);
@@ -151,9 +144,6 @@ public class TileEventManager {
                 }
             }
         } else {
-            player.setInQuarantine(true);
-            // Move player to Quarantine tile (position 30)
-            player.setPos(30);
             if (!player.isAI()) {
                 showDialog(() -> {
                     Alert quarantineAlert = new Alert(Alert.AlertType.WARNING);
@@ -163,7 +153,6 @@ public class TileEventManager {
                     quarantineAlert.showAndWait();
                 });
             }
-            GameState.notifyUpdate();
         }
     }
 
@@ -187,14 +176,12 @@ public class TileEventManager {
     private static void handleSafeHavenTile(Player player, Tile tile) {
         if (tile.isOwned()) {
             // Fix: compare by name since snapshots create new Player objects
-            if (tile.getOwner() != null && tile.getOwner().getName().equals(player.getName())) {
+            if (tile.isOwnedBy(player)) {
                 handleOwnedSafeHaven(player, tile);
             } else {
                 int medicineReward = tile.getMedicineReward();
                 int attackReward = tile.getAttackReward();
-                player.addMedicine(medicineReward);
-                player.increaseAttack(attackReward);
-                GameState.notifyUpdate(); // Sync player data changes
+                if (GameState.appliesRules()) GameRules.collectSafeHavenRewards(player, tile);
                 if (!player.isAI()) {
                     showDialog(() -> {
                         Alert alert = new Alert(Alert.AlertType.INFORMATION);
@@ -213,8 +200,7 @@ public class TileEventManager {
 
     private static void handleOwnedSafeHaven(Player player, Tile tile) {
         if (player.isAI()) {
-            int upgradeCost = 500 * (tile.getUpgradeLevel() + 1);
-            if (player.getMoney() >= upgradeCost) upgradeSafeHaven(player, tile);
+            if (player.getMoney() >= GameRules.safeHavenUpgradeCost(tile)) upgradeSafeHaven(player, tile);
         } else {
             showDialog(() -> {
                 Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
@@ -242,7 +228,7 @@ public class TileEventManager {
         boolean decideBuy = false, decideTrade = false;
 
         if (player.isAI()) {
-            int cost = 1000, influenceRequired = 10;
+            int cost = GameRules.SAFE_HAVEN_COST, influenceRequired = 10;
             if (player instanceof AIPlayer) {
                 AIPlayer ai = (AIPlayer) player;
                 decideBuy = AIPlayer.shouldAIBuySafeHaven(ai, tile, cost, influenceRequired);
@@ -264,9 +250,9 @@ public class TileEventManager {
 
     private static void showTradeOptions(Player player) {
         if (player.isAI()) {
-            if (player.getMedicine() < 3 && player.getMoney() >= 50) buyMedicine(player);
-            else if (player.getMoney() >= 100) buyAttackBoost(player);
-            else if (player.getMoney() >= 200) buyArmor(player);
+            if (player.getMedicine() < 3 && player.getMoney() >= GameRules.MEDICINE_PRICE) buyMedicine(player);
+            else if (player.getMoney() >= GameRules.ATTACK_BOOST_PRICE) buyAttackBoost(player);
+            else if (player.getMoney() >= GameRules.ARMOR_PRICE) buyArmor(player);
         } else {
             showDialog(() -> {
                 List<String> options = new ArrayList<>();
@@ -291,11 +277,7 @@ public class TileEventManager {
 
     private static void buyMedicine(Player player) {
         if (player.isAI()) {
-            if (player.getMoney() >= 50) {
-                player.spendMoney(50);
-                player.addMedicine(1);
-                creditSafeHavenOwnerOnTrade(player, 50);
-            }
+            GameState.submit(GameAction.trade(seatOf(player), GameAction.TradeItem.MEDICINE, 1));
         } else {
             showDialog(() -> {
                 TextInputDialog dialog = new TextInputDialog("1");
@@ -307,12 +289,9 @@ public class TileEventManager {
                 result.ifPresent(input -> {
                     try {
                         int amount = Integer.parseInt(input);
-                        int cost = amount * 50;
-                        if (player.getMoney() >= cost) {
-                            player.spendMoney(cost);
-                            player.addMedicine(amount);
-                            creditSafeHavenOwnerOnTrade(player, cost);
-                            GameState.notifyUpdate();
+                        int cost = amount * GameRules.MEDICINE_PRICE;
+                        String refused = GameState.submit(GameAction.trade(seatOf(player), GameAction.TradeItem.MEDICINE, amount));
+                        if (refused == null) {
                             Alert success = new Alert(Alert.AlertType.INFORMATION);
                             success.setTitle("Purchase Successful");
                             success.setContentText("You bought " + amount + " medicine for " + cost + " money!");
@@ -320,7 +299,7 @@ public class TileEventManager {
                         } else {
                             Alert error = new Alert(Alert.AlertType.ERROR);
                             error.setTitle("Insufficient Money");
-                            error.setContentText("You don't have enough money!");
+                            error.setContentText(refused);
                             error.showAndWait();
                         }
                     } catch (NumberFormatException e) {
@@ -335,11 +314,8 @@ public class TileEventManager {
     }
 
     private static void buyAttackBoost(Player player) {
-        if (player.getMoney() >= 100) {
-            player.spendMoney(100);
-            player.increaseAttack(10);
-            creditSafeHavenOwnerOnTrade(player, 100);
-            GameState.notifyUpdate();
+        String refused = GameState.submit(GameAction.trade(seatOf(player), GameAction.TradeItem.ATTACK_BOOST, 1));
+        if (refused == null) {
             if (!player.isAI()) {
                 showDialog(() -> {
                     Alert success = new Alert(Alert.AlertType.INFORMATION);
@@ -352,18 +328,15 @@ public class TileEventManager {
             showDialog(() -> {
                 Alert error = new Alert(Alert.AlertType.ERROR);
                 error.setTitle("Insufficient Money");
-                error.setContentText("You don't have enough money!");
+                error.setContentText(refused);
                 error.showAndWait();
             });
         }
     }
 
     private static void buyArmor(Player player) {
-        if (player.getMoney() >= 200) {
-            player.spendMoney(200);
-            player.increaseMaxHealth(20);
-            creditSafeHavenOwnerOnTrade(player, 200);
-            GameState.notifyUpdate();
+        String refused = GameState.submit(GameAction.trade(seatOf(player), GameAction.TradeItem.ARMOR, 1));
+        if (refused == null) {
             if (!player.isAI()) {
                 showDialog(() -> {
                     Alert success = new Alert(Alert.AlertType.INFORMATION);
@@ -376,22 +349,15 @@ public class TileEventManager {
             showDialog(() -> {
                 Alert error = new Alert(Alert.AlertType.ERROR);
                 error.setTitle("Insufficient Money");
-                error.setContentText("You don't have enough money!");
+                error.setContentText(refused);
                 error.showAndWait();
             });
         }
     }
 
     private static void buySafeHaven(Player player, Tile tile) {
-        int cost = 1000, influenceRequired = 180;
-        if (player.getMoney() >= cost && player.getInfluence() >= influenceRequired) {
-            player.spendMoney(cost);
-            tile.setOwner(player);
-            
-            // Add to player history
-            player.buyTile(tile, cost);
-            
-            GameState.notifyUpdate();
+        String refused = GameState.submit(GameAction.buyTile(seatOf(player), tile.getPosition()));
+        if (refused == null) {
             if (!player.isAI()) {
                 showDialog(() -> {
                     Alert success = new Alert(Alert.AlertType.INFORMATION);
@@ -404,17 +370,15 @@ public class TileEventManager {
             showDialog(() -> {
                 Alert error = new Alert(Alert.AlertType.ERROR);
                 error.setTitle("Requirements Not Met");
-                error.setContentText("You need " + cost + " money and " + influenceRequired + " influence to buy this Safe Haven!");
+                error.setContentText(refused);
                 error.showAndWait();
             });
         }
     }
 
     private static void upgradeSafeHaven(Player player, Tile tile) {
-        int upgradeCost = 500 * (tile.getUpgradeLevel() + 1);
-        if (player.getMoney() >= upgradeCost) {
-            player.spendMoney(upgradeCost);
-            tile.setUpgradeLevel(tile.getUpgradeLevel() + 1);
+        String refused = GameState.submit(GameAction.upgrade(seatOf(player), tile.getPosition()));
+        if (refused == null) {
             if (!player.isAI()) {
                 showDialog(() -> {
                     Alert success = new Alert(Alert.AlertType.INFORMATION);
@@ -428,7 +392,7 @@ public class TileEventManager {
             showDialog(() -> {
                 Alert error = new Alert(Alert.AlertType.ERROR);
                 error.setTitle("Insufficient Money");
-                error.setContentText("You need " + upgradeCost + " money to upgrade!");
+                error.setContentText(refused);
                 error.showAndWait();
             });
         }
@@ -488,95 +452,21 @@ public class TileEventManager {
                 return; // Exit early as the dialog will handle the purchase
             }
 
-            if (decideBuy) {
-                if (player.getInfluence() < spec.influenceRequirement) {
-                    if (!player.isAI()) {
-                        showDialog(() -> {
-                            Alert alert = new Alert(Alert.AlertType.ERROR);
-                            alert.setTitle("Insufficient Influence");
-                            alert.setHeaderText("You need at least " + spec.influenceRequirement + " influence to buy this tile.");
-                            alert.showAndWait();
-                        });
-                    }
-                    return;
-                }
-                if (player.getAttack() < spec.attackRequirement) {
-                    player.takeDamage(spec.failHealthLoss);
-                    if (!player.isAI()) {
-                        showDialog(() -> {
-                            Alert alert = new Alert(Alert.AlertType.WARNING);
-                            alert.setTitle("Failed to Clear");
-                            alert.setHeaderText("Insufficient attack to secure the area");
-                            alert.setContentText("You lost " + spec.failHealthLoss + " health.");
-                            alert.showAndWait();
-                        });
-                    }
-                    return;
-                }
-                if (player.getMoney() < spec.buyCost) {
-                    if (!player.isAI()) {
-                        showDialog(() -> {
-                            Alert alert = new Alert(Alert.AlertType.ERROR);
-                            alert.setTitle("Not Enough Money");
-                            alert.setContentText("You need " + spec.buyCost + "M to restore this tile.");
-                            alert.showAndWait();
-                        });
-                    }
-                    return;
-                }
-                player.spendMoney(spec.buyCost);
-                tile.setOwner(player);
-                tile.setUpgradeLevel(0);
-                player.increaseInfluence(spec.influenceOnClaim);
-                player.increaseAttack(spec.attackBonusOnClaim);
-                if (spec.medicineBonusOnClaim > 0) player.addMedicine(spec.medicineBonusOnClaim);
-                
-                // Add to player history
-                player.buyTile(tile, spec.buyCost);
-
-                if ("Radio Tower".equals(tile.getName())) {
-                    BoardRegistry.tiles().values().forEach(t -> {
-                        if (t.getType() == TileType.SAFEHAVEN && player.equals(t.getOwner())) {
-                            t.setCanSetPrices(true);
-                        }
-                    });
-                }
-
-                if (!player.isAI()) {
-                    showDialog(() -> {
-                        Alert alert = new Alert(Alert.AlertType.INFORMATION);
-                        alert.setTitle("Base Established");
-                        alert.setHeaderText(spec.displayName + " restored!");
-                        alert.setContentText("Opponents will pay rent when landing here.");
-                        alert.showAndWait();
-                    });
-                }
-            }
+            // Only AI players get here; the rules apply any failed-clear damage
+            if (decideBuy) GameState.submit(GameAction.buyTile(seatOf(player), tile.getPosition()));
             return;
         }
 
-        if (tile.getOwner() == player) {
-            int currentLevel = tile.getUpgradeLevel();
-            int nextLevel = currentLevel + 1;
+        if (tile.isOwnedBy(player)) {
+            int nextLevel = tile.getUpgradeLevel() + 1;
 
-            if ("Hospital".equals(tile.getName())) {
+            String blocked = GameRules.checkTerritoryUpgrade(tile);
+            if (blocked != null) {
                 if (!player.isAI()) {
                     showDialog(() -> {
                         Alert alert = new Alert(Alert.AlertType.INFORMATION);
-                        alert.setTitle("Hospital");
-                        alert.setHeaderText("Hospital cannot be upgraded.");
-                        alert.showAndWait();
-                    });
-                }
-                return;
-            }
-
-            if (nextLevel > 3) {
-                if (!player.isAI()) {
-                    showDialog(() -> {
-                        Alert alert = new Alert(Alert.AlertType.INFORMATION);
-                        alert.setTitle("Max Level");
-                        alert.setHeaderText("This base is fully upgraded.");
+                        alert.setTitle("Hospital".equals(tile.getName()) ? "Hospital" : "Max Level");
+                        alert.setHeaderText(blocked);
                         alert.showAndWait();
                     });
                 }
@@ -606,22 +496,18 @@ public class TileEventManager {
             }
 
             if (decideUpgrade) {
-                if (player.getMoney() < upgradeCost) {
+                String refused = GameState.submit(GameAction.upgrade(seatOf(player), tile.getPosition()));
+                if (refused != null) {
                     if (!player.isAI()) {
                         showDialog(() -> {
                             Alert alert = new Alert(Alert.AlertType.ERROR);
                             alert.setTitle("Not Enough Money");
-                            alert.setContentText("You need " + upgradeCost + "M to upgrade.");
+                            alert.setContentText(refused);
                             alert.showAndWait();
                         });
                     }
                     return;
                 }
-                player.spendMoney(upgradeCost);
-                tile.setUpgradeLevel(nextLevel);
-                player.increaseAttack(spec.perRoundAttack[nextLevel]);
-                if (spec.perRoundMedicine[nextLevel] > 0) player.addMedicine(spec.perRoundMedicine[nextLevel]);
-                GameState.notifyUpdate();
 
                 if (!player.isAI()) {
                     showDialog(() -> {
@@ -639,11 +525,7 @@ public class TileEventManager {
         int level = tile.getUpgradeLevel();
         int rentMoney = spec.rentMoney[level];
         int rentMedicine = spec.rentMedicine[level];
-        player.spendMoney(rentMoney);
-        if (rentMedicine > 0) player.addMedicine(-rentMedicine);
-        tile.getOwner().addMoney(rentMoney);
-
-        if ("Hospital".equals(tile.getName())) tile.getOwner().addMedicine(5);
+        if (GameState.appliesRules()) GameRules.payRent(player, tile, spec);
 
         if (!player.isAI()) {
             showDialog(() -> {
@@ -658,14 +540,7 @@ public class TileEventManager {
     }
 
     private static void handleZombieTile(Player player, Tile tile) {
-        int pos = tile.getPosition();
-        int damage, attackLoss;
-        String zone;
-
-        if (pos >= 21 && pos <= 29) { zone = "Residential"; damage = player.getAttack() >= 50 ? 50 : 100; attackLoss = 10; }
-        else if (pos >= 31 && pos <= 39) { zone = "Commercial"; damage = player.getAttack() >= 120 ? 75 : 150; attackLoss = 12; }
-        else if (pos >= 1 && pos <= 9) { zone = "Industrial"; damage = player.getAttack() >= 200 ? 100 : 200; attackLoss = 16; }
-        else { zone = "Military"; damage = player.getAttack() >= 300 ? 120 : 250; attackLoss = 20; }
+        GameRules.ZombieHit hit = GameRules.zombieHit(tile.getPosition(), player.getAttack());
 
         // Play zombie sound when landing on zombie tile
         if (AudioManager.get().isEnabled() && AudioManager.get().isMediaAvailable()) {
@@ -685,24 +560,20 @@ public class TileEventManager {
             showDialog(() -> {
                 Alert alert = new Alert(Alert.AlertType.WARNING);
                 alert.setTitle("Zombie Attack!");
-                alert.setHeaderText(zone + " zombie threat!");
-                alert.setContentText("Lose " + damage + " health and -" + attackLoss + " attack.");
+                alert.setHeaderText(hit.zone + " zombie threat!");
+                alert.setContentText("Lose " + hit.damage + " health and -" + hit.attackLoss + " attack.");
                 alert.showAndWait();
             });
         }
 
-        player.takeDamage(damage);
-        player.increaseAttack(-attackLoss);
-        GameState.notifyUpdate();
+        if (GameState.appliesRules()) hit.applyTo(player);
     }
 
     private static void handleResourceTile(Player player, Tile tile) {
-        int moneyReward = 100;
-        int medicineReward = 1;
+        int moneyReward = GameRules.RESOURCE_MONEY;
+        int medicineReward = GameRules.RESOURCE_MEDICINE;
 
-        player.addMoney(moneyReward);
-        player.addMedicine(medicineReward);
-        GameState.notifyUpdate(); // Sync player data changes
+        if (GameState.appliesRules()) GameRules.collectResources(player);
 
         if (!player.isAI()) {
             showDialog(() -> {
@@ -780,7 +651,8 @@ public class TileEventManager {
                 }
                 
                 if (player.getAttack() < spec.attackRequirement) {
-                    player.takeDamage(spec.failHealthLoss);
+                    // Trying costs health; the rules take it
+                    GameState.submit(GameAction.buyTile(seatOf(player), tile.getPosition()));
                     Alert warningAlert = new Alert(Alert.AlertType.WARNING);
                     warningAlert.setTitle("Failed to Clear");
                     warningAlert.setHeaderText("Insufficient attack to secure the area");
@@ -798,55 +670,32 @@ public class TileEventManager {
                 }
                 
                 // All checks passed, buy the tile
-                buyTerritoryTile(player, tile, spec);
+                String refused = GameState.submit(GameAction.buyTile(seatOf(player), tile.getPosition()));
+                if (refused != null) {
+                    Alert errorAlert = new Alert(Alert.AlertType.ERROR);
+                    errorAlert.setTitle("Purchase Refused");
+                    errorAlert.setContentText(refused);
+                    errorAlert.showAndWait();
+                    return;
+                }
+                Alert successAlert = new Alert(Alert.AlertType.INFORMATION);
+                successAlert.setTitle("Base Established");
+                successAlert.setHeaderText(spec.displayName + " restored!");
+                successAlert.setContentText("Opponents will pay rent when landing here.");
+                successAlert.showAndWait();
             }
         });
     }
     
-    private static void buyTerritoryTile(Player player, Tile tile, TerritorySpec spec) {
-        // Spend money and update player stats
-        player.spendMoney(spec.buyCost);
-        tile.setOwner(player);
-        tile.setUpgradeLevel(0);
-        player.increaseInfluence(spec.influenceOnClaim);
-        player.increaseAttack(spec.attackBonusOnClaim);
-        if (spec.medicineBonusOnClaim > 0) player.addMedicine(spec.medicineBonusOnClaim);
-
-        // Special handling for Radio Tower
-        if ("Radio Tower".equals(tile.getName())) {
-            BoardRegistry.tiles().values().forEach(t -> {
-                if (t.getType() == TileType.SAFEHAVEN && player.equals(t.getOwner())) {
-                    t.setCanSetPrices(true);
-                }
-            });
+    // Seat index for actions; by id, since snapshots create new Player objects
+    private static int seatOf(Player player) {
+        List<Player> players = GameState.get().players();
+        for (int i = 0; i < players.size(); i++) {
+            if (players.get(i).getId() == player.getId()) return i;
         }
-
-        // Add to player history
-        player.buyTile(tile, spec.buyCost);
-        
-        // Update game state
-        GameState.notifyUpdate();
-
-        // Show success dialog
-        Alert successAlert = new Alert(Alert.AlertType.INFORMATION);
-        successAlert.setTitle("Base Established");
-        successAlert.setHeaderText(spec.displayName + " restored!");
-        successAlert.setContentText("Opponents will pay rent when landing here.");
-        successAlert.showAndWait();
+        return -1;
     }
 
-    private static void creditSafeHavenOwnerOnTrade(Player buyer, int spend) {
-        // Determine if buyer is on a Safe Haven owned by someone
-        Tile current = BoardRegistry.getOrCreate(buyer.getPos(), TileType.SAFEHAVEN, TileType.SAFEHAVEN.getDisplayName());
-        if (current == null || current.getType() != TileType.SAFEHAVEN) return;
-        if (!current.isOwned()) return;
-        Player owner = current.getOwner();
-        if (owner == null || owner.getName().equals(buyer.getName())) return;
-        int pct = Math.max(0, Math.min(100, current.getTradePercentage()));
-        int credit = (spend * pct) / 100;
-        if (credit > 0) owner.addMoney(credit);
-        GameState.notifyUpdate();
-    }
     private static void considerResearchCure(Player player) {
         if (!player.isAI()) {
             showDialog(() -> {
@@ -0,0 +1,128 @@
+package Ui;
+
+import javafx.application.Platform;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Folds bursts of "state changed" requests into one flush. Inside a step
+ * ({@link #beginStep()} … {@link #commitStep()}) requests only mark the state dirty and
+ * the outermost commit flushes once. Outside a step, requests within the same time
+ * window share one trailing flush.
+ *
+ * A flush reads the game, so it runs where the game is looked after: the
+ * {@link #setFlushExecutor flush executor} if there is one (a room's thread), else the
+ * FX thread for requests made there. A request from any other thread (an AI player's,
+ * or a network reader's) has no such thread to go back to, so its window is flushed
+ * from the coalescer's timer thread; the flush given to the constructor has to bind
+ * its own game ({@link GameState#bindTo}) for that.
+ */
+public class UpdateCoalescer {
+    // One timer for every coalescer; it hands flushes off, and runs those no other thread owns
+    private static final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "update-coalescer");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final Runnable flush;
+    private volatile long windowMillis;
+    private volatile Executor flushExecutor;
+
+    private int depth;
+    private boolean dirty;
+    private boolean scheduled;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    public UpdateCoalescer(long windowMillis, Runnable flush) {
+        this.windowMillis = windowMillis;
+        this.flush = flush;
+    }
+
+    public void beginStep() {
+        synchronized (this) {
+            depth++;
+        }
+    }
+
+    /** Close a step; the outermost commit sends whatever the step changed. */
+    public void commitStep() {
+        synchronized (this) {
+            if (depth > 0) depth--;
+            if (depth > 0 || !dirty) return;
+            dirty = false;
+        }
+        runFlush();
+    }
+
+    public void request() {
+        requests.incrementAndGet();
+        long window = windowMillis;
+        synchronized (this) {
+            dirty = true;
+            if (depth > 0) return;
+            if (window > 0) {
+                if (!scheduled) {
+                    scheduled = true;
+                    Executor owner = ownerOfCaller();
+                    timer.schedule(() -> flushWindow(owner), window, TimeUnit.MILLISECONDS);
+                }
+                return;
+            }
+            dirty = false;
+        }
+        runFlush();
+    }
+
+    // Where a later flush runs for the calling thread
+    private Executor ownerOfCaller() {
+        Executor executor = flushExecutor;
+        if (executor != null) return executor;
+        return Platform.isFxApplicationThread() ? Platform::runLater : timer;
+    }
+
+    private void flushWindow(Executor owner) {
+        synchronized (this) {
+            scheduled = false;
+            // A step that opened meanwhile will flush on commit; a commit may already have sent it
+            if (depth > 0 || !dirty) return;
+            dirty = false;
+        }
+        owner.execute(this::runFlush);
+    }
+
+    private void runFlush() {
+        flushes.incrementAndGet();
+        try {
+            flush.run();
+        } catch (RuntimeException e) {
+            // The game goes on; the next flush sends the state again
+            failures.incrementAndGet();
+            System.out.println("⚠️ Update flush failed (broadcast or save not sent): " + e);
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Where windowed flushes run: the thread that owns the game. Null (the default) means
+     * the FX thread for requests raised there and the timer thread for the rest.
+     */
+    public void setFlushExecutor(Executor flushExecutor) { this.flushExecutor = flushExecutor; }
+
+    public long getWindowMillis() { return windowMillis; }
+    public void setWindowMillis(long windowMillis) { this.windowMillis = Math.max(0, windowMillis); }
+
+    /** Change notifications received. */
+    public long getRequests() { return requests.get(); }
+    /** Broadcasts actually made; requests / flushes is the coalescing ratio. */
+    public long getFlushes() { return flushes.get(); }
+    /** Flushes that threw; each is printed with its stack trace. */
+    public long getFailures() { return failures.get(); }
+}
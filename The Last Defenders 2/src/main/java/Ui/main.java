@@ -19,10 +19,12 @@ public class main extends Application {
         stage.setTitle("The Last Defenders");
         stage.setScene(scene);
 
-        // Auto-save on window close
+        // Auto-save on window close: the game in play is already journaled, and closing
+        // checkpoints its slot. The window goes at once; the save writer finishes before
+        // the process exits
         stage.setOnCloseRequest(event -> {
             System.out.println("Auto-saving game before exit...");
-            GameState.get().saveToFile();
+            GameState.get().closeJournal();
         });
 
         stage.show();
@@ -0,0 +1,105 @@
+package Ui;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies that a save reads back as the game it was written from, header included,
+ * and that a damaged one is refused rather than trusted
+ */
+public class BinarySaveTest {
+
+    private static GameState game() {
+        GameState gs = GameState.get();
+        gs.resetPlayers(Arrays.asList("Alice", "Bob"));
+        Player bob = gs.players().get(1);
+        bob.setMoney(1234);
+        bob.setMedicine(7);
+        bob.setPos(12);
+        bob.getHistory().addEntry(new PlayerHistory.HistoryEntry(
+                PlayerHistory.HistoryEntry.Type.values()[0], "Bought the Factory", -250));
+        BoardRegistry.getOrCreate(3, TileType.TERRITORY, "Factory").setOwner(bob);
+        return gs;
+    }
+
+    @Test
+    public void testEncodeDecodeRoundTrip() throws IOException {
+        GameState gs = game();
+        BinarySave.Contents c = BinarySave.decode(BinarySave.encode(gs, 42, 7));
+
+        assertEquals(42, c.checkpoint);
+        assertEquals(7, c.version);
+        assertEquals(gs.getCurrentIndex(), c.currentIndex);
+        assertEquals(Arrays.asList("Alice", "Bob"), c.playerNames);
+        assertEquals(2, c.players.size());
+        Player bob = c.players.get(1);
+        Player live = gs.players().get(1);
+        assertEquals(live.getId(), bob.getId());
+        assertEquals("Bob", bob.getName());
+        assertEquals(1234, bob.getMoney());
+        assertEquals(7, bob.getMedicine());
+        assertEquals(12, bob.getPos());
+        assertEquals(live.getHistory().entries().size(), bob.getHistory().entries().size());
+        PlayerHistory.HistoryEntry last = bob.getHistory().entries().get(bob.getHistory().entries().size() - 1);
+        assertEquals("Bought the Factory", last.getDescription());
+        assertEquals(-250, last.getAmount());
+        assertEquals(live.getHistory().entries().get(live.getHistory().entries().size() - 1).getTimestamp(),
+                last.getTimestamp());
+        Tile factory = c.tiles.get(3);
+        assertEquals("Factory", factory.getName());
+        assertEquals(live.getId(), factory.getOwnerId());
+    }
+
+    @Test
+    public void testReadHeaderOnly() throws IOException {
+        GameState gs = game();
+        Path file = Files.createTempFile("save", ".sav");
+        try {
+            try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                ch.write(BinarySave.encode(gs, 42, 7));
+            }
+            assertTrue(BinarySave.isBinary(file));
+            BinarySave.Header h = BinarySave.readHeader(file);
+            assertEquals(42, h.checkpoint);
+            assertEquals(7, h.version);
+            assertEquals(gs.getTurn(), h.turn);
+            assertEquals(Arrays.asList("Alice", "Bob"), h.playerNames);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testDamagedSaveIsRefused() {
+        ByteBuffer encoded = BinarySave.encode(game(), 42, 7);
+        byte[] whole = Arrays.copyOfRange(encoded.array(), encoded.position(), encoded.limit());
+
+        // Cut short partway through the players
+        ByteBuffer truncated = ByteBuffer.wrap(Arrays.copyOf(whole, whole.length - 20));
+        assertThrows(IOException.class, () -> BinarySave.decode(truncated));
+
+        // A string table claiming far more entries than the file could hold
+        ByteBuffer in = ByteBuffer.wrap(whole);
+        in.position(4);
+        BinarySave.varint(in);
+        int headerLength = (int) BinarySave.varint(in);
+        int table = in.position() + headerLength;
+        byte[] huge = Arrays.copyOf(whole, whole.length + 4);
+        System.arraycopy(whole, table, huge, table + 4, whole.length - table);
+        huge[table] = (byte) 0xff;
+        huge[table + 1] = (byte) 0xff;
+        huge[table + 2] = (byte) 0xff;
+        huge[table + 3] = (byte) 0xff;
+        huge[table + 4] = (byte) 0x07;
+        assertThrows(IOException.class, () -> BinarySave.decode(ByteBuffer.wrap(huge)));
+    }
+}
@@ -0,0 +1,86 @@
+package Ui;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies that deltas carry only what changed and apply back onto the baseline
+ */
+public class DeltaTrackerTest {
+
+    @Test
+    public void testDiffAndApplyRoundTrip() {
+        GameState gs = GameState.get();
+        gs.resetPlayers(java.util.Arrays.asList("Alice", "Bob"));
+        BoardRegistry.getOrCreate(3, TileType.TERRITORY, "Factory");
+        GameState.GameSnapshot before = GameState.createSnapshot();
+        int bobMoney = gs.players().get(1).getMoney();
+
+        DeltaTracker host = new DeltaTracker();
+        host.rebase(0);
+        gs.players().get(1).addMoney(250);
+        BoardRegistry.tiles().get(3).setOwner(gs.players().get(1));
+        gs.endTurn();
+
+        GameDelta delta = host.diff();
+        assertNotNull(delta, "Field changes should not force a full snapshot");
+        assertEquals(1, delta.players.size(), "Only Bob changed");
+        assertEquals(1, delta.tiles.size(), "Only the Factory changed");
+        assertEquals(1, host.version());
+        assertTrue(host.diff().isEmpty(), "Nothing changed since the last diff");
+
+        // Rewind the money and ownership, then replay the delta on a fresh baseline
+        gs.players().get(1).setMoney(bobMoney);
+        BoardRegistry.tiles().get(3).setOwner(null);
+        gs.currentIndexProperty().set(before.currentIndex);
+        DeltaTracker client = new DeltaTracker();
+        client.rebase(0);
+        assertTrue(client.apply(delta));
+        assertFalse(client.apply(delta), "A delta for an older version must be rejected");
+
+        assertEquals(bobMoney + 250, gs.players().get(1).getMoney());
+        assertEquals("Bob", BoardRegistry.tiles().get(3).getOwner().getName());
+        assertEquals(1, gs.getCurrentIndex());
+    }
+
+    @Test
+    public void testRemoteDeltaKeepsLocalChangePending() {
+        GameState gs = GameState.get();
+        gs.resetPlayers(java.util.Arrays.asList("Alice", "Bob"));
+        BoardRegistry.getOrCreate(3, TileType.TERRITORY, "Factory").setOwner(null);
+        DeltaTracker tracker = new DeltaTracker();
+        tracker.rebase(0);
+
+        // A peer moved Alice's money; we bought the Factory for Bob and have not sent it yet
+        GameDelta remote = new GameDelta();
+        remote.baseVersion = 0;
+        remote.version = 1;
+        remote.playerCount = 2;
+        GameDelta.PlayerChange alice = new GameDelta.PlayerChange();
+        alice.index = 0;
+        alice.money = 777;
+        remote.players.add(alice);
+        gs.players().get(1).addMoney(-100);
+        BoardRegistry.tiles().get(3).setOwner(gs.players().get(1));
+
+        assertTrue(tracker.apply(remote));
+        assertEquals(777, gs.players().get(0).getMoney());
+        GameDelta local = tracker.diff();
+        assertNotNull(local);
+        assertEquals(1, local.players.size(), "Bob's payment is still ours to send");
+        assertEquals(1, local.players.get(0).index);
+        assertEquals(1, local.tiles.size(), "So is the Factory");
+        assertEquals(gs.players().get(1).getId(), local.tiles.get(0).ownerId);
+    }
+
+    @Test
+    public void testStructuralChangeNeedsSnapshot() {
+        GameState gs = GameState.get();
+        gs.resetPlayers(java.util.Arrays.asList("Alice", "Bob"));
+        DeltaTracker tracker = new DeltaTracker();
+        tracker.rebase(5);
+        gs.resetPlayers(java.util.Arrays.asList("Alice", "Bob", "Charlie"));
+        assertNull(tracker.diff(), "Adding a player requires a full snapshot");
+        assertEquals(6, tracker.version());
+    }
+}